@@ -0,0 +1,124 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * WeightedSamplingBenchmark.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WeightedSamplingBenchmark measures weighted draws from a collection shared by multiple threads, comparing a WeightedTree guarded by a lock to a ConcurrentWeightMap.
+ *   tree, map:                     draws only; run them with more threads to see how they scale, e.g. <code>bench.sh WeightedSamplingBenchmark -t 4</code>;
+ *   treeReadWrite, mapReadWrite:   three threads drawing while a fourth changes a weight between draws;
+ * Run it through <code>bench.sh</code>, which writes the results as JSON.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeightedSamplingBenchmark {
+   @Param({"100", "10000"})
+   public int                             size;
+
+   protected WeightedTree<Integer>        tree;
+   protected double                       weights[];
+   protected ConcurrentWeightMap<Integer> map;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      SplittableRandom random = new SplittableRandom(42l);
+      tree    = new WeightedTree<Integer>();
+      weights = new double[size];
+      map     = new ConcurrentWeightMap<Integer>(size);
+      for(int i = 0; i < size; i++) {
+         weights[i] = random.nextDouble();
+         tree.add(weights[i], i);
+         map.put(i, weights[i]);
+      }
+   }
+
+   @Benchmark
+   public Integer tree() {
+      return drawTree();
+   }
+
+   @Benchmark
+   public Integer map() {
+      return map.getWeighted(ThreadLocalRandom.current().nextDouble());
+   }
+
+   @Benchmark
+   @Group("treeReadWrite")
+   @GroupThreads(3)
+   public Integer treeRead() {
+      return drawTree();
+   }
+
+   @Benchmark
+   @Group("treeReadWrite")
+   @GroupThreads(1)
+   public boolean treeWrite() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int i = random.nextInt(size);
+      synchronized(tree) {
+         tree.remove(weights[i], i);
+         weights[i] = random.nextDouble();
+         return tree.add(weights[i], i);
+      }
+   }
+
+   @Benchmark
+   @Group("mapReadWrite")
+   @GroupThreads(3)
+   public Integer mapRead() {
+      return map.getWeighted(ThreadLocalRandom.current().nextDouble());
+   }
+
+   @Benchmark
+   @Group("mapReadWrite")
+   @GroupThreads(1)
+   public Double mapWrite() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      return map.put(random.nextInt(size), random.nextDouble());
+   }
+
+   protected Integer drawTree() {
+      double normIndex = ThreadLocalRandom.current().nextDouble();
+      synchronized(tree) {
+         return tree.getWeightedValue(normIndex);
+      }
+   }
+}
@@ -0,0 +1,175 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * BenchmarkProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * BenchmarkProblem is a synthetic problem with integer evaluations, on which the throughput of the search algorithms is measured.
+ * Instances are generated from a seed, so every run of a benchmark searches the same instance.
+ * @see EngineBenchmark
+ */
+public abstract class BenchmarkProblem<S extends Solution> extends AbstractGeneticProblem<S, Integer> {
+   public enum Engine { HillClimbing, SimulatedAnnealing, Genetic, MultiStart };
+
+   protected final int    size;
+   protected final Random random;
+
+   /**
+    * BenchmarkProblem constructor.
+    * @param size The size of the instance, e.g. the number of bits or cities.
+    * @param seed The seed from which the instance and its random solutions are generated.
+    */
+   public BenchmarkProblem(int size, long seed) {
+      super(1);
+      if(size < 2)
+         throw new IllegalArgumentException("size should be > 1");
+      this.size   = size;
+      this.random = new Random(seed);
+   }
+
+   /**
+    * Returns a new changer that makes a small random change to a solution.
+    */
+   public abstract <P extends Problem<S, ? extends Comparable<?>>> RecordingChanger<P, S> changer();
+
+   /**
+    * Returns a new combiner for the genetic search algorithm.
+    */
+   public abstract Combiner<GeneticProblem<S, Integer>, S> combiner();
+
+   /**
+    * Returns the initial temperature of simulated annealing, which should be in the order of the difference in evaluation made by a change.
+    */
+   public abstract double temperature();
+
+   /**
+    * Returns the optimal evaluation of this instance, or <code>null</code> if it is not known.
+    */
+   public abstract Integer optimum();
+
+   /**
+    * Returns a bound that no solution reaches, so searches only stop when their budget is exhausted or they converge.
+    */
+   public Integer unreachable() {
+      return (direction() == LocalSearch.SearchDirection.Maximisation ? Integer.MAX_VALUE : Integer.MIN_VALUE);
+   }
+
+   /**
+    * Returns the evaluation of a reference solution, found by a seeded simulated annealing search with the given number of evaluations.
+    * Used as target for instances of which the optimum is not known.
+    */
+   public Integer reference(long evaluations) {
+      return evaluate(search(Engine.SimulatedAnnealing, unreachable(), Budget.ofEvaluations(evaluations), 0l));
+   }
+
+   /**
+    * Returns the evaluation that is within the given relative gap of the given reference evaluation.
+    */
+   public Integer target(int reference, double gap) {
+      return (direction() == LocalSearch.SearchDirection.Maximisation ? (int) Math.ceil(reference * (1d - gap)) : (int) Math.floor(reference * (1d + gap)));
+   }
+
+   /**
+    * Searches this instance with the given search algorithm, starting from a random solution.
+    * The search algorithms are configured with fixed, moderate settings; the benchmarks compare revisions of the library, not settings.
+    * Hill climbing and the genetic search, which stop by themselves when they converge, are restarted from random solutions until the budget is spent;
+    *    the multi-start search restarts from random solutions as well.
+    * @param seed The seed of the search algorithm.
+    */
+   public S search(Engine engine, Integer bound, Budget budget, long seed) {
+      switch(engine) {
+         case HillClimbing:
+            HillClimbingLS<GeneticProblem<S, Integer>, S, Integer> hc = new HillClimbingLS<GeneticProblem<S, Integer>, S, Integer>(this.<GeneticProblem<S, Integer>>changer());
+            hc.setSeed(seed);
+            return restart(hc, this, bound, budget);
+         case SimulatedAnnealing:
+            SimulatedAnnealingLS<GeneticProblem<S, Integer>, S, Integer> sa = new SimulatedAnnealingLS<GeneticProblem<S, Integer>, S, Integer>(this.<GeneticProblem<S, Integer>>changer(), 10 * size, size, temperature());
+            sa.setSeed(seed);
+            return sa.search(this, bound, budget, randomSolution());
+         case Genetic:
+            GeneticLS<S, Integer> ga = new GeneticLS<S, Integer>(new TournamentParentSelector<S>(3), combiner(),
+                                                                 new LinearOffspringSelector<S, Integer>(LinearOffspringSelector.Strategy.OverallBest), 0, 2, 50, 50);
+            ga.setSeed(seed);
+            return restart(ga, this, bound, budget);
+         case MultiStart:
+            MultiStartLS<S, Integer> ms = new MultiStartLS<S, Integer>(new SimulatedAnnealingLS<Problem<S, Integer>, S, Integer>(this.<Problem<S, Integer>>changer(), size, size, temperature()), 10);
+            ms.setSeed(seed);
+            return ms.search(this, bound, budget);
+         default:
+            throw new IllegalArgumentException("Unknown instance of BenchmarkProblem.Engine: " + engine);
+      }
+   }
+
+   /**
+    * Restarts the given search algorithm from random solutions until the bound is reached or the given budget is exhausted, and returns the best solution found.
+    * Used for algorithms that stop by themselves long before the budget is spent, so all algorithms get the same budget.
+    */
+   protected <P extends Problem<S, Integer>> S restart(LocalSearch<P, S, Integer> ls, P problem, Integer bound, Budget budget) {
+      S bestSolution = null;
+      do {
+         S newSolution = ls.search(problem, bound, budget, problem.randomSolution());
+         if(problem.better(newSolution, bestSolution))
+            bestSolution = newSolution;
+      } while(!budget.checkNow() && !problem.betterEq(bestSolution, bound));
+      return bestSolution;
+   }
+
+   /**
+    * Returns the given children as a set of offspring, ordered by evaluation.
+    */
+   protected NavigableSet<S> offspring(S child1, S child2) {
+      TreeSet<S> offspring = new TreeSet<S>(new Comparator<S>() {
+            @Override
+            public int compare(S s1, S s2) {
+               int c = evaluate(s1).compareTo(evaluate(s2));
+               return (c != 0 ? c : Integer.compare(System.identityHashCode(s1), System.identityHashCode(s2)));
+            }
+         });
+      offspring.add(child1);
+      offspring.add(child2);
+      return offspring;
+   }
+
+   /**
+    * Returns a new population holding the given solutions, filled up with random solutions.
+    */
+   protected GeneticPopulation<S> population(Iterable<S> solutions, int popSize) {
+      WeightedTreePopulation<S> population = new WeightedTreePopulation<S>(this, popSize);
+      for(S s : solutions) {
+         population.add(s);
+      }
+      while(population.size() < popSize) {
+         population.add(randomSolution());
+      }
+      return population;
+   }
+
+   /**
+    * Returns the weight of the given evaluation, which is higher for better evaluations. Evaluations are assumed to be non-negative.
+    */
+   @Override
+   public double weight(Integer e) {
+      return (direction() == LocalSearch.SearchDirection.Maximisation ? e + 1d : 1d / (e + 1d));
+   }
+}
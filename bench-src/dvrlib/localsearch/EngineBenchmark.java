@@ -0,0 +1,139 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * EngineBenchmark.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * EngineBenchmark measures the search algorithms on synthetic problems.
+ *   throughput:   the number of searches with a fixed evaluation budget per second, and the number of evaluations per second as auxiliary counter;
+ *   timeToTarget: the average time a search takes to reach the target, i.e. within <code>gap</code> of the optimum or a reference solution,
+ *                 counting the searches that reached it and those that ran out of time;
+ * Run it through <code>bench.sh</code>, which writes the results as JSON.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EngineBenchmark {
+   public enum Instance { OneMax, TSP, QAP };
+
+   @AuxCounters(AuxCounters.Type.OPERATIONS)
+   @State(Scope.Thread)
+   public static class Evaluations {
+      public long evaluations;
+
+      @Setup(Level.Iteration)
+      public void reset() {
+         evaluations = 0;
+      }
+   }
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Targets {
+      public long reached,
+                  missed;
+
+      @Setup(Level.Iteration)
+      public void reset() {
+         reached = missed = 0;
+      }
+   }
+
+   @Param({"HillClimbing", "SimulatedAnnealing", "Genetic", "MultiStart"})
+   public BenchmarkProblem.Engine engine;
+   @Param({"OneMax", "TSP", "QAP"})
+   public Instance                instance;
+   @Param({"100"})
+   public int                     size;
+   @Param({"10000"})
+   public long                    evaluations;
+   @Param({"0.05"})
+   public double                  gap;
+   @Param({"1000"})
+   public long                    timeLimit;
+
+   protected BenchmarkProblem<?>  problem;
+   protected Integer              target;
+   protected SplittableRandom     seeds;
+
+   @Setup(Level.Trial)
+   public void setup() {
+      switch(instance) {
+         case OneMax:
+            problem = new OneMaxProblem(size, 42l);
+            break;
+         case TSP:
+            problem = new TSPProblem(size, 42l);
+            break;
+         case QAP:
+            problem = new QAPProblem(size, 42l);
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown instance of EngineBenchmark.Instance: " + instance);
+      }
+      Integer reference = problem.optimum();
+      if(reference == null)
+         reference = problem.reference(100 * evaluations);
+      target = problem.target(reference, gap);
+      seeds  = new SplittableRandom(42l);
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.Throughput)
+   @OutputTimeUnit(TimeUnit.SECONDS)
+   public Solution throughput(Evaluations counters) {
+      Budget   budget = Budget.ofEvaluations(evaluations);
+      Solution s      = problem.search(engine, problem.unreachable(), budget, seeds.nextLong());
+      counters.evaluations += budget.evaluations();
+      return s;
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public boolean timeToTarget(Targets counters) {
+      boolean reached = reach(problem, engine, target, Budget.ofMillis(timeLimit), seeds.nextLong());
+      if(reached)
+         counters.reached++;
+      else
+         counters.missed++;
+      return reached;
+   }
+
+   protected static <S extends Solution> boolean reach(BenchmarkProblem<S> problem, BenchmarkProblem.Engine engine, Integer target, Budget budget, long seed) {
+      return problem.betterEq(problem.search(engine, target, budget, seed), target);
+   }
+}
@@ -0,0 +1,133 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * OneMaxProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.NavigableSet;
+
+/**
+ * OneMaxProblem maximises the number of ones in a string of bits. Its optimum is the length of the string.
+ */
+public class OneMaxProblem extends BenchmarkProblem<OneMaxProblem.BitString> {
+   public static class BitString extends AbstractSolution {
+      protected final boolean bits[];
+
+      public BitString(boolean bits[]) {
+         this.bits = bits;
+      }
+   }
+
+   protected class FlipChanger<P extends Problem<BitString, ? extends Comparable<?>>> extends RecordingChanger<P, BitString> {
+      @Override
+      protected void record(SingularSearchState<P, BitString> ss, ChangeList<P, BitString> changes) {
+         int i = ss.random().nextInt(size);
+         ss.solution.bits[i] = !ss.solution.bits[i];
+         changes.write(i);
+      }
+
+      @Override
+      public void undoChange(SingularSearchState<P, BitString> ss, int data[], int from, int to) {
+         ss.solution.bits[data[from]] = !ss.solution.bits[data[from]];
+      }
+
+      @Override
+      public void reinitialise(P problem) { }
+   }
+
+   protected class UniformCrossover implements Combiner<GeneticProblem<BitString, Integer>, BitString> {
+      @Override
+      public void reinitialise(GeneticProblem<BitString, Integer> problem) { }
+
+      @Override
+      public NavigableSet<BitString> combine(SearchState<GeneticProblem<BitString, Integer>, BitString> ss, BitString s1, BitString s2) {
+         boolean bits1[] = new boolean[size],
+                 bits2[] = new boolean[size];
+         for(int i = 0; i < size; i++) {
+            boolean swap = ss.random().nextBoolean();
+            bits1[i] = (swap ? s2 : s1).bits[i];
+            bits2[i] = (swap ? s1 : s2).bits[i];
+         }
+         return offspring(new BitString(bits1), new BitString(bits2));
+      }
+
+      @Override
+      public GeneticPopulation<BitString> createPopulation(GeneticProblem<BitString, Integer> problem, Iterable<BitString> solutions, int popSize) {
+         return population(solutions, popSize);
+      }
+   }
+
+   public OneMaxProblem(int size, long seed) {
+      super(size, seed);
+   }
+
+   @Override
+   public <P extends Problem<BitString, ? extends Comparable<?>>> RecordingChanger<P, BitString> changer() {
+      return new FlipChanger<P>();
+   }
+
+   @Override
+   public Combiner<GeneticProblem<BitString, Integer>, BitString> combiner() {
+      return new UniformCrossover();
+   }
+
+   @Override
+   public double temperature() {
+      return 1d;
+   }
+
+   @Override
+   public Integer optimum() {
+      return size;
+   }
+
+   // Problem methods
+   @Override
+   public BitString cloneSolution(BitString s) {
+      return new BitString(s.bits.clone());
+   }
+
+   @Override
+   public LocalSearch.SearchDirection direction() {
+      return LocalSearch.SearchDirection.Maximisation;
+   }
+
+   @Override
+   public Integer evaluate(BitString s) {
+      int ones = 0;
+      for(boolean b : s.bits) {
+         if(b)
+            ones++;
+      }
+      return ones;
+   }
+
+   @Override
+   public Integer evaluationBound(BitString s) {
+      return size;
+   }
+
+   @Override
+   public BitString randomSolution() {
+      boolean bits[] = new boolean[size];
+      for(int i = 0; i < size; i++) {
+         bits[i] = random.nextBoolean();
+      }
+      return new BitString(bits);
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * PermutationProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.NavigableSet;
+import java.util.SplittableRandom;
+
+/**
+ * PermutationProblem is a minimisation problem whose solutions are permutations of <code>[0,size)</code>.
+ * Solutions are changed by swapping two elements, and combined by order crossover.
+ */
+public abstract class PermutationProblem extends BenchmarkProblem<PermutationProblem.Permutation> {
+   public static class Permutation extends AbstractSolution {
+      protected final int elements[];
+
+      public Permutation(int elements[]) {
+         this.elements = elements;
+      }
+   }
+
+   protected class SwapChanger<P extends Problem<Permutation, ? extends Comparable<?>>> extends RecordingChanger<P, Permutation> {
+      @Override
+      protected void record(SingularSearchState<P, Permutation> ss, ChangeList<P, Permutation> changes) {
+         int i = ss.random().nextInt(size),
+             j = ss.random().nextInt(size - 1);
+         swap(ss.solution.elements, i, (j < i ? j : j + 1));
+         changes.write(i);
+         changes.write(j < i ? j : j + 1);
+      }
+
+      @Override
+      public void undoChange(SingularSearchState<P, Permutation> ss, int data[], int from, int to) {
+         swap(ss.solution.elements, data[from], data[from + 1]);
+      }
+
+      @Override
+      public void reinitialise(P problem) { }
+   }
+
+   protected class OrderCrossover implements Combiner<GeneticProblem<Permutation, Integer>, Permutation> {
+      @Override
+      public void reinitialise(GeneticProblem<Permutation, Integer> problem) { }
+
+      @Override
+      public NavigableSet<Permutation> combine(SearchState<GeneticProblem<Permutation, Integer>, Permutation> ss, Permutation s1, Permutation s2) {
+         int from = ss.random().nextInt(size),
+             to   = from + ss.random().nextInt(size - from) + 1;
+         return offspring(cross(s1, s2, from, to), cross(s2, s1, from, to));
+      }
+
+      /**
+       * Returns a child that takes <code>[from,to)</code> from the first parent, and the other elements in the order of the second parent.
+       * O(size).
+       */
+      protected Permutation cross(Permutation p1, Permutation p2, int from, int to) {
+         int     child[] = new int[size];
+         boolean taken[] = new boolean[size];
+         for(int i = from; i < to; i++) {
+            child[i]        = p1.elements[i];
+            taken[child[i]] = true;
+         }
+         int c = to % size;
+         for(int i = 0; i < size; i++) {
+            int e = p2.elements[(to + i) % size];
+            if(!taken[e]) {
+               child[c] = e;
+               c        = (c + 1) % size;
+            }
+         }
+         return new Permutation(child);
+      }
+
+      @Override
+      public GeneticPopulation<Permutation> createPopulation(GeneticProblem<Permutation, Integer> problem, Iterable<Permutation> solutions, int popSize) {
+         return population(solutions, popSize);
+      }
+   }
+
+   public PermutationProblem(int size, long seed) {
+      super(size, seed);
+   }
+
+   protected static void swap(int elements[], int i, int j) {
+      int t       = elements[i];
+      elements[i] = elements[j];
+      elements[j] = t;
+   }
+
+   /**
+    * Returns a random permutation of <code>[0,n)</code>.
+    */
+   protected static int[] shuffled(int n, SplittableRandom random) {
+      int elements[] = new int[n];
+      for(int i = 0; i < n; i++) {
+         elements[i] = i;
+      }
+      for(int i = n - 1; i > 0; i--) {
+         swap(elements, i, random.nextInt(i + 1));
+      }
+      return elements;
+   }
+
+   @Override
+   public <P extends Problem<Permutation, ? extends Comparable<?>>> RecordingChanger<P, Permutation> changer() {
+      return new SwapChanger<P>();
+   }
+
+   @Override
+   public Combiner<GeneticProblem<Permutation, Integer>, Permutation> combiner() {
+      return new OrderCrossover();
+   }
+
+   // Problem methods
+   @Override
+   public Permutation cloneSolution(Permutation s) {
+      return new Permutation(s.elements.clone());
+   }
+
+   @Override
+   public LocalSearch.SearchDirection direction() {
+      return LocalSearch.SearchDirection.Minimisation;
+   }
+
+   @Override
+   public Integer evaluationBound(Permutation s) {
+      return 0;
+   }
+
+   @Override
+   public Permutation randomSolution() {
+      return new Permutation(shuffled(size, new SplittableRandom(random.nextLong())));
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * QAPProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.SplittableRandom;
+
+/**
+ * QAPProblem is a quadratic assignment problem with uniformly random flows and distances, in the style of the <code>tai*a</code> instances of QAPLIB.
+ * A solution assigns facility <code>i</code> to location <code>elements[i]</code>; its cost is the sum of all flows times the distances between their locations.
+ * The optimum of an instance is not known.
+ */
+public class QAPProblem extends PermutationProblem {
+   protected final int flows[][],
+                       distances[][];
+
+   public QAPProblem(int size, long seed) {
+      super(size, seed);
+      SplittableRandom r = new SplittableRandom(seed);
+      flows     = new int[size][size];
+      distances = new int[size][size];
+      for(int i = 0; i < size; i++) {
+         for(int j = 0; j < size; j++) {
+            flows[i][j]     = (i == j ? 0 : r.nextInt(100));
+            distances[i][j] = (i == j ? 0 : r.nextInt(100));
+         }
+      }
+   }
+
+   @Override
+   public double temperature() {
+      return 1000d;
+   }
+
+   @Override
+   public Integer optimum() {
+      return null;
+   }
+
+   /**
+    * Returns the cost of the given assignment.
+    * O(size^2).
+    */
+   @Override
+   public Integer evaluate(Permutation s) {
+      int cost = 0;
+      for(int i = 0; i < size; i++) {
+         int fs[] = flows[i],
+             ds[] = distances[s.elements[i]];
+         for(int j = 0; j < size; j++) {
+            cost += fs[j] * ds[s.elements[j]];
+         }
+      }
+      return cost;
+   }
+}
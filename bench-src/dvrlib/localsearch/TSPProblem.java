@@ -0,0 +1,88 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * TSPProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * TSPProblem minimises the length of a tour along cities that lie on a circle, at random angles.
+ * As the cities are in convex position, the tour along the circle is optimal; distances are rounded as in TSPLIB's <code>EUC_2D</code>.
+ */
+public class TSPProblem extends PermutationProblem {
+   protected final int    distances[][];
+   protected final double angles[];
+
+   public TSPProblem(int size, long seed) {
+      super(size, seed);
+      SplittableRandom r = new SplittableRandom(seed);
+      angles    = new double[size];
+      distances = new int[size][size];
+      for(int i = 0; i < size; i++) {
+         angles[i] = r.nextDouble(2d * Math.PI);
+      }
+      for(int i = 0; i < size; i++) {
+         for(int j = 0; j < size; j++) {
+            distances[i][j] = (int) Math.round(Math.hypot(1000d * (Math.cos(angles[i]) - Math.cos(angles[j])), 1000d * (Math.sin(angles[i]) - Math.sin(angles[j]))));
+         }
+      }
+   }
+
+   @Override
+   public double temperature() {
+      return 100d;
+   }
+
+   /**
+    * Returns the length of the tour along the circle.
+    * O(size log size).
+    */
+   @Override
+   public Integer optimum() {
+      Integer order[] = new Integer[size];
+      for(int i = 0; i < size; i++) {
+         order[i] = i;
+      }
+      Arrays.sort(order, new java.util.Comparator<Integer>() {
+            @Override
+            public int compare(Integer i, Integer j) {
+               return Double.compare(angles[i], angles[j]);
+            }
+         });
+      int tour[] = new int[size];
+      for(int i = 0; i < size; i++) {
+         tour[i] = order[i];
+      }
+      return evaluate(new Permutation(tour));
+   }
+
+   /**
+    * Returns the length of the given tour.
+    * O(size).
+    */
+   @Override
+   public Integer evaluate(Permutation s) {
+      int length = distances[s.elements[size - 1]][s.elements[0]];
+      for(int i = 1; i < size; i++) {
+         length += distances[s.elements[i - 1]][s.elements[i]];
+      }
+      return length;
+   }
+}
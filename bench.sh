@@ -0,0 +1,73 @@
+#!/usr/bin/bash
+
+# DvRlib - Benchmark script
+# Copyright (C) Duncan van Roermund, 2013
+#
+# This program is free software: you can redistribute it and/or modify
+# it under the terms of the GNU General Public License as published by
+# the Free Software Foundation, either version 3 of the License, or
+# (at your option) any later version.
+#
+# This program is distributed in the hope that it will be useful,
+# but WITHOUT ANY WARRANTY; without even the implied warranty of
+# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+# GNU General Public License for more details.
+#
+# You should have received a copy of the GNU General Public License
+# along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+# Usage: bench.sh [JMH options], e.g. bench.sh EngineBenchmark.throughput -p instance=TSP
+# The results are written to bench-results.json, in JMH's JSON format.
+# JMH is expected in /usr/share/java; set JMH_CLASSPATH to use other jars.
+JMH_CLASSPATH="${JMH_CLASSPATH:-/usr/share/java/jmh-core.jar:/usr/share/java/jmh-generator-annprocess.jar:/usr/share/java/jopt-simple.jar:/usr/share/java/commons-math3.jar}"
+
+# Change directory to where the script is located
+cd "$(dirname "$0")"
+SCRIPT="$(basename "$0")"
+while([ -L $SCRIPT ]) do
+   SCRIPT="$(readlink "$SCRIPT")"
+   cd "$(dirname "$SCRIPT")"
+   SCRIPT="$(basename "$SCRIPT")"
+done
+DIR="$(pwd)"
+
+# Build
+echo " *** Building source..."
+if [ -d $DIR/build ] ; then
+   rm -R $DIR/build/* 2>/dev/null
+else
+   mkdir -p $DIR/build
+fi
+cd $DIR/src/
+javac -d ../build/ dvrlib/*/* -g -Xlint:unchecked
+if [ "$?" != "0" ] ; then
+   echo " *** Error(s) while compiling source; Aborting"
+   exit 1
+fi
+
+# Build benchmarks, generating the JMH harness
+echo " *** Building benchmarks..."
+if [ -d $DIR/bench-build ] ; then
+   rm -R $DIR/bench-build/* 2>/dev/null
+else
+   mkdir -p $DIR/bench-build
+fi
+cd $DIR/bench-src/
+javac -cp $JMH_CLASSPATH:../build/ -d ../bench-build/ dvrlib/*/*
+if [ "$?" != "0" ] ; then
+   echo " *** Error(s) while compiling benchmarks; Aborting"
+   exit 1
+fi
+
+# Run benchmarks
+echo " *** Running benchmarks..."
+cd $DIR
+java -cp $JMH_CLASSPATH:build/:bench-build/ org.openjdk.jmh.Main -rf json -rff $DIR/bench-results.json "$@"
+if [ "$?" != "0" ] ; then
+   echo " *** Error(s) while running benchmarks; Aborting"
+   exit 1
+fi
+
+# Done
+echo " --- View $DIR/bench-results.json for the results"
+echo " *** Done"
@@ -20,6 +20,7 @@
 package dvrlib.container;
 
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Base class for balanced binary trees.
@@ -206,6 +207,30 @@ public abstract class AbstractBinaryTree<N extends AbstractBinaryTree<N>.Node> {
       }
    }
 
+   /**
+    * Replaces the contents of this tree by the given nodes, which should be in order.
+    * The tree is built perfectly balanced, so no rotations are needed.
+    * O(n).
+    */
+   protected void link(List<N> nodes) {
+      root = link(nodes, 0, nodes.size() - 1, null);
+   }
+   /**
+    * Links the given range of nodes into a balanced subtree with the given parent, and returns its root.
+    * O(hi - lo).
+    */
+   protected N link(List<N> nodes, int lo, int hi, N parent) {
+      if(lo > hi)
+         return null;
+      int mid = (lo + hi) >>> 1;
+      N   node = nodes.get(mid);
+      node.parent = parent;
+      node.left   = link(nodes, lo, mid - 1, node);
+      node.right  = link(nodes, mid + 1, hi, node);
+      update(node);
+      return node;
+   }
+
    /**
     * Replaces the child node of the given <code>parent</code> that is equal to <code>oldChild</code> with <code>newChild</code>.
     * O(1).
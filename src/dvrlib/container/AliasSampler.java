@@ -0,0 +1,158 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * AliasSampler.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+/**
+ * AliasSampler is a weighted sampler using Vose's alias method.
+ * Every index owns a bucket of equal size, holding the probability of drawing the index itself and an alias that is drawn otherwise,
+ *    so drawing an index takes a single uniform number and O(1) time.
+ * Changing a weight only marks the tables as stale; they are rebuilt in O(n) at the next draw.
+ * It therefore suits weights that are frozen while many indices are drawn, such as the fitness scores of a population during a generation.
+ * @see WeightedSampler
+ */
+public class AliasSampler extends WeightedSampler {
+   protected double  probabilities[];
+   protected int     aliases[],
+                     work[];
+   protected boolean stale = true;
+
+   /**
+    * AliasSampler constructor, creating an empty sampler.
+    * @see WeightedSampler#WeightedSampler(int)
+    */
+   public AliasSampler(int capacity) {
+      super(capacity);
+   }
+
+   /**
+    * AliasSampler constructor, creating a sampler with the given weights.
+    * O(n).
+    */
+   public AliasSampler(double weights[]) {
+      super(weights);
+   }
+
+   /**
+    * O(1), or O(n) if weights were changed since the last draw.
+    */
+   @Override
+   protected int draw(double normIndex) {
+      if(stale)
+         build();
+      double x = normIndex * size;
+      int    i = (int) x;
+      return (x - i < probabilities[i] ? i : aliases[i]);
+   }
+
+   /**
+    * O(1).
+    */
+   @Override
+   protected void added(int index) {
+      stale = true;
+   }
+
+   /**
+    * O(1).
+    */
+   @Override
+   protected void updated(int index, double delta) {
+      stale = true;
+   }
+
+   /**
+    * O(n).
+    */
+   @Override
+   protected void rebuild() {
+      total = 0d;
+      for(int i = 0; i < size; i++) {
+         total += weights[i];
+      }
+      stale = true;
+   }
+
+   /**
+    * Builds the tables now if weights were changed, instead of at the next draw.
+    * Drawing from a prepared sampler does not modify it, so it can be shared by multiple threads as long as no weights are changed.
+    * O(1), or O(n) if weights were changed since the last draw.
+    */
+   public void prepare() {
+      if(stale)
+         build();
+   }
+
+   /**
+    * Builds the probability and alias tables from the weights.
+    * Indices with less than the average weight are paired with indices with more, which give up the remainder of their weight to fill the bucket.
+    * The indices that are below and above average are kept on both ends of a single work array.
+    * O(n).
+    */
+   protected void build() {
+      rebuild();
+      if(probabilities == null || probabilities.length < size) {
+         probabilities = new double[weights.length];
+         aliases       = new int[weights.length];
+         work          = new int[weights.length];
+      }
+
+      int small = 0,
+          large = size,
+          heavy = 0;
+      for(int i = 0; i < size; i++) {
+         probabilities[i] = weights[i] * size / total;
+         if(probabilities[i] < 1d)
+            work[small++] = i;
+         else {
+            work[--large] = i;
+            heavy         = i;
+         }
+      }
+
+      while(small > 0 && large < size) {
+         int s = work[--small],
+             l = work[large];
+         aliases[s]        = l;
+         probabilities[l] -= 1d - probabilities[s];
+         if(probabilities[l] < 1d) {
+            // The large index dropped below average, so it moves to the small end
+            large++;
+            work[small++] = l;
+         }
+      }
+
+      // Whatever remains is full up to rounding errors
+      while(large < size) {
+         probabilities[work[large++]] = 1d;
+      }
+      while(small > 0) {
+         int s = work[--small];
+         probabilities[s] = (weights[s] > 0d ? 1d : 0d);
+         aliases[s]       = heavy;
+      }
+      stale = false;
+   }
+
+   @Override
+   protected void resize(int capacity) {
+      super.resize(capacity);
+      stale = true;
+   }
+}
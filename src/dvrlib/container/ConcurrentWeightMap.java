@@ -0,0 +1,269 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * ConcurrentWeightMap.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * ConcurrentWeightMap maps elements to weights, and draws elements at random with a chance proportionate to their weight, like WeightMap.
+ * It is meant to be shared by many threads that draw elements, and few that change weights, such as the workers of a parallel genetic search.
+ * Every change publishes a new immutable snapshot of all elements and an alias table of their weights.
+ * Drawing an element reads the current snapshot without locking, so draws never wait for each other or for writers; changes are serialised and take O(n).
+ * Multiple changes can be published at once using <code>putAll</code>.
+ * @see WeightMap
+ * @see AliasSampler
+ */
+public class ConcurrentWeightMap<E> {
+   /**
+    * An immutable view of the elements and weights of a ConcurrentWeightMap at one point in time.
+    * Threads that draw many elements for one task, such as the parents of one generation, can use a snapshot to draw from the same distribution throughout.
+    */
+   public static final class Snapshot<E> {
+      protected final Object       elements[];
+      protected final AliasSampler sampler;
+
+      protected Snapshot(Object elements[], double weights[]) {
+         this.elements = elements;
+         sampler       = new AliasSampler(elements.length);
+         sampler.setAll(weights, elements.length);
+         sampler.prepare();
+      }
+
+      /**
+       * Returns the number of elements in this snapshot.
+       * O(1).
+       */
+      public int size() {
+         return elements.length;
+      }
+
+      /**
+       * Returns the sum of the weights of all elements in this snapshot.
+       * O(1).
+       */
+      public double totalWeight() {
+         return sampler.totalWeight();
+      }
+
+      /**
+       * Returns an element reached with the given normalised weighted index, or <code>null</code> if there are no elements with a positive weight.
+       * O(1).
+       * @see AliasSampler#sample(double)
+       */
+      @SuppressWarnings("unchecked")
+      public E getWeighted(double normIndex) {
+         if(!(sampler.totalWeight() > 0d)) {
+            if(normIndex < 0d || normIndex >= 1d)
+               throw new IllegalArgumentException("The argument of ConcurrentWeightMap.Snapshot.getWeighted(double) should be between 0 (inclusive) and 1 (exclusive), got " + normIndex);
+            return null;
+         }
+         return (E) elements[sampler.sample(normIndex)];
+      }
+
+      /**
+       * Returns an element drawn using the given source of randomness, or <code>null</code> if there are no elements with a positive weight.
+       * @see ConcurrentWeightMap.Snapshot#getWeighted(double)
+       */
+      public E getWeighted(SplittableRandom random) {
+         return getWeighted(random.nextDouble());
+      }
+   }
+
+   protected final HashMap<E, Integer>  indices  = new HashMap<E, Integer>();
+   protected final ArrayList<E>         elements = new ArrayList<E>();
+   protected       double               weights[];
+   protected volatile Snapshot<E>       snapshot = new Snapshot<E>(new Object[0], new double[0]);
+
+   /**
+    * ConcurrentWeightMap constructor, creating an empty map.
+    */
+   public ConcurrentWeightMap() {
+      this(16);
+   }
+
+   /**
+    * ConcurrentWeightMap constructor, creating an empty map.
+    * @param capacity The number of elements that can be added before the internal arrays are resized.
+    */
+   public ConcurrentWeightMap(int capacity) {
+      if(capacity < 0)
+         throw new IllegalArgumentException("capacity should be >= 0");
+      weights = new double[Math.max(capacity, 1)];
+   }
+
+   /**
+    * Sets the weight of the given element, adding it if it is not present, and returns its previous weight.
+    * O(n).
+    * @return The previous weight of the element, or <code>null</code> if it was not present.
+    */
+   public synchronized Double put(E key, double weight) {
+      Double oldWeight = set(key, weight);
+      publish();
+      return oldWeight;
+   }
+
+   /**
+    * Sets the weights of all elements in the given map, publishing them at once.
+    * O(n + m).
+    * @see ConcurrentWeightMap#put(Object, double)
+    */
+   public synchronized void putAll(Map<? extends E, ? extends Number> map) {
+      for(Map.Entry<? extends E, ? extends Number> e : map.entrySet()) {
+         set(e.getKey(), (e.getValue() == null ? 0d : e.getValue().doubleValue()));
+      }
+      publish();
+   }
+
+   /**
+    * Increases the weight of the given element with the given value.
+    * If the element is not present in this map, it will be added with the given value.
+    * @see ConcurrentWeightMap#put(Object, double)
+    */
+   public synchronized void increase(E key, double value) {
+      Integer index = indices.get(key);
+      put(key, (index == null ? 0d : weights[index]) + value);
+   }
+
+   /**
+    * Multiplies the weight of the given element by the given value.
+    * If the element is not present in this map, it will be set to zero.
+    * @see ConcurrentWeightMap#put(Object, double)
+    */
+   public synchronized void multiply(E key, double value) {
+      Integer index = indices.get(key);
+      put(key, (index == null ? 0d : weights[index] * value));
+   }
+
+   /**
+    * Removes the given element from this map, and returns its weight.
+    * O(n).
+    * @return The weight of the element, or <code>null</code> if it was not present.
+    */
+   public synchronized Double remove(E key) {
+      Integer index = indices.remove(key);
+      if(index == null)
+         return null;
+      double oldWeight = weights[index];
+      // Move the last element into the freed slot
+      int last  = elements.size() - 1;
+      E   moved = elements.remove(last);
+      if(index != last) {
+         elements.set(index, moved);
+         weights[index] = weights[last];
+         indices.put(moved, index);
+      }
+      publish();
+      return oldWeight;
+   }
+
+   /**
+    * Removes all elements from this map.
+    * O(1).
+    */
+   public synchronized void clear() {
+      indices.clear();
+      elements.clear();
+      publish();
+   }
+
+   /**
+    * Returns the weight of the given element, or <code>null</code> if it is not present.
+    * O(1).
+    */
+   public synchronized Double get(E key) {
+      Integer index = indices.get(key);
+      return (index == null ? null : weights[index]);
+   }
+
+   /**
+    * Returns the number of elements in this map.
+    * O(1).
+    */
+   public int size() {
+      return snapshot.size();
+   }
+
+   /**
+    * Returns the sum of the weights of all elements in this map.
+    * O(1).
+    */
+   public double totalWeight() {
+      return snapshot.totalWeight();
+   }
+
+   /**
+    * Returns an element reached with the given normalised weighted index, or <code>null</code> if there are no elements with a positive weight.
+    * Does not lock.
+    * O(1).
+    * @see ConcurrentWeightMap.Snapshot#getWeighted(double)
+    */
+   public E getWeighted(double normIndex) {
+      return snapshot.getWeighted(normIndex);
+   }
+
+   /**
+    * Returns an element drawn using the given source of randomness, or <code>null</code> if there are no elements with a positive weight.
+    * Does not lock.
+    * O(1).
+    */
+   public E getWeighted(SplittableRandom random) {
+      return snapshot.getWeighted(random.nextDouble());
+   }
+
+   /**
+    * Returns the current snapshot of this map, which is not affected by later changes.
+    * O(1).
+    */
+   public Snapshot<E> snapshot() {
+      return snapshot;
+   }
+
+   /**
+    * Sets the weight of the given element without publishing it, and returns its previous weight.
+    */
+   protected Double set(E key, double weight) {
+      if(!(weight >= 0d) || Double.isInfinite(weight))
+         throw new IllegalArgumentException("Weights should be finite and >= 0, got " + weight);
+      Integer index = indices.get(key);
+      if(index != null) {
+         double oldWeight = weights[index];
+         weights[index] = weight;
+         return oldWeight;
+      }
+      if(elements.size() == weights.length)
+         weights = Arrays.copyOf(weights, 2 * weights.length);
+      indices.put(key, elements.size());
+      weights[elements.size()] = weight;
+      elements.add(key);
+      return null;
+   }
+
+   /**
+    * Replaces the current snapshot by one of the current elements and weights.
+    * O(n).
+    */
+   protected void publish() {
+      snapshot = new Snapshot<E>(elements.toArray(), weights);
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * FenwickSampler.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.Arrays;
+
+/**
+ * FenwickSampler is a weighted sampler backed by a Fenwick tree (binary indexed tree) of partial sums.
+ * Changing a weight and drawing an index both take O(log n), so it suits weights that change between draws, such as those of changers that are temporarily disabled.
+ * @see WeightedSampler
+ */
+public class FenwickSampler extends WeightedSampler {
+   protected double tree[];
+
+   /**
+    * FenwickSampler constructor, creating an empty sampler.
+    * @see WeightedSampler#WeightedSampler(int)
+    */
+   public FenwickSampler(int capacity) {
+      super(capacity);
+      rebuild();
+   }
+
+   /**
+    * FenwickSampler constructor, creating a sampler with the given weights.
+    * O(n).
+    */
+   public FenwickSampler(double weights[]) {
+      super(weights);
+   }
+
+   /**
+    * Returns the sum of the weights of the first <code>n</code> indices.
+    * O(log n).
+    */
+   public double prefixWeight(int n) {
+      if(n < 0 || n > size)
+         throw new IllegalArgumentException("n should be between 0 and the size of this sampler (inclusive), got " + n);
+      return prefix(n);
+   }
+
+   protected double prefix(int n) {
+      double sum = 0d;
+      for(int p = n; p > 0; p -= (p & -p)) {
+         sum += tree[p];
+      }
+      return sum;
+   }
+
+   /**
+    * Like <code>WeightedTree.getWeighted</code>, the weights are laid out next to each other from the first index to the last, and the index at <code>normIndex * totalWeight()</code> is returned.
+    * The tree is descended, skipping every subtree whose weight does not exceed the remaining target.
+    * O(log n).
+    */
+   @Override
+   protected int draw(double normIndex) {
+      double target = normIndex * total;
+      int    pos    = 0;
+      for(int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+         int next = pos + step;
+         if(next <= size && tree[next] <= target) {
+            target -= tree[next];
+            pos     = next;
+         }
+      }
+      // Rounding errors can make the target exceed the last partial sum
+      while(pos >= size || (weights[pos] == 0d && pos > 0)) {
+         pos--;
+      }
+      return pos;
+   }
+
+   /**
+    * O(log n).
+    */
+   @Override
+   protected void added(int index) {
+      int p    = index + 1,
+          low  = p - (p & -p);
+      tree[p] = weights[index] + prefix(p - 1) - prefix(low);
+   }
+
+   /**
+    * O(log n).
+    */
+   @Override
+   protected void updated(int index, double delta) {
+      for(int p = index + 1; p <= size; p += (p & -p)) {
+         tree[p] += delta;
+      }
+   }
+
+   /**
+    * O(n).
+    */
+   @Override
+   protected void rebuild() {
+      if(tree == null || tree.length < weights.length + 1)
+         tree = new double[weights.length + 1];
+      total = 0d;
+      for(int i = 0; i < size; i++) {
+         tree[i + 1] = weights[i];
+         total      += weights[i];
+      }
+      for(int p = 1; p <= size; p++) {
+         int parent = p + (p & -p);
+         if(parent <= size)
+            tree[parent] += tree[p];
+      }
+   }
+
+   @Override
+   protected void resize(int capacity) {
+      super.resize(capacity);
+      tree = (tree == null ? new double[capacity + 1] : Arrays.copyOf(tree, capacity + 1));
+   }
+}
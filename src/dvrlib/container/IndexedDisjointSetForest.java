@@ -0,0 +1,180 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * IndexedDisjointSetForest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Disjoint set forest of arbitrary elements, which maps every element to an index in an IntDisjointSetForest.
+ * Apart from the map and the list of elements, the sets take no objects per element, and merging two sets takes O(1).
+ * Elements cannot be removed.
+ * @param E Element type.
+ * @see IntDisjointSetForest
+ */
+public class IndexedDisjointSetForest<E> extends java.util.AbstractSet<E> {
+   protected final HashMap<E, Integer>  indices;
+   protected final ArrayList<E>         elements;
+   protected final IntDisjointSetForest forest;
+
+   /**
+    * IndexedDisjointSetForest constructor.
+    * @param initCapacity Sets the initial capacity of this disjoint set forest.
+    * @param keepMembers  Whether to keep the members of every set, so they can be enumerated.
+    * O(1).
+    */
+   public IndexedDisjointSetForest(int initCapacity, boolean keepMembers) {
+      indices  = new HashMap<E, Integer>(initCapacity);
+      elements = new ArrayList<E>(initCapacity);
+      forest   = new IntDisjointSetForest(0, keepMembers);
+   }
+
+   /**
+    * Adds the given element to this forest as a singleton set.
+    * @return Whether the element was added, i.e. was not a member yet.
+    * O(1) amortised.
+    */
+   @Override
+   public boolean add(E e) {
+      if(indices.containsKey(e))
+         return false;
+      indices.put(e, forest.add());
+      elements.add(e);
+      return true;
+   }
+
+   /**
+    * Returns the index of the given element in the underlying IntDisjointSetForest, or <code>-1</code> if it is not a member of this forest.
+    * O(1).
+    */
+   public int index(Object e) {
+      Integer i = indices.get(e);
+      return (i == null ? -1 : i);
+   }
+
+   /**
+    * Returns the element with the given index in the underlying IntDisjointSetForest.
+    * O(1).
+    */
+   public E element(int index) {
+      return elements.get(index);
+   }
+
+   /**
+    * Returns the underlying IntDisjointSetForest, which can be used to work with the indices of the elements directly.
+    */
+   public IntDisjointSetForest forest() {
+      return forest;
+   }
+
+   /**
+    * Finds the representative of the set to which the given element belongs.
+    * @throws IllegalArgumentException If the supplied element is not a member of this forest.
+    * @see IntDisjointSetForest#representative(int)
+    */
+   public E representative(E e) {
+      return elements.get(forest.representative(indexOf(e)));
+   }
+
+   /**
+    * Returns whether the two given elements belong to the same set.
+    * @throws IllegalArgumentException If either of the given elements is not a member of this forest.
+    */
+   public boolean sameSet(E e1, E e2) {
+      return forest.sameSet(indexOf(e1), indexOf(e2));
+   }
+
+   /**
+    * Merges the sets to which the two given elements belong, and returns the representative of the merged set.
+    * @throws IllegalArgumentException If either of the given elements is not a member of this forest.
+    * @see IntDisjointSetForest#union(int, int)
+    */
+   public E union(E e1, E e2) {
+      return elements.get(forest.union(indexOf(e1), indexOf(e2)));
+   }
+
+   /**
+    * Returns the members of the set to which the given element belongs, starting with the element itself.
+    * O(m), where m is the size of the set.
+    * @throws IllegalArgumentException If the supplied element is not a member of this forest.
+    * @throws IllegalStateException    If this forest does not keep the members of its sets.
+    */
+   public ArrayList<E> members(E e) {
+      int          ms[]    = forest.members(indexOf(e));
+      ArrayList<E> members = new ArrayList<E>(ms.length);
+      for(int m : ms) {
+         members.add(elements.get(m));
+      }
+      return members;
+   }
+
+   /**
+    * Returns the number of disjoint sets in this forest.
+    * O(1).
+    */
+   public int setCount() {
+      return forest.setCount();
+   }
+
+   /**
+    * Removes all elements from this forest.
+    * O(n).
+    */
+   @Override
+   public void clear() {
+      indices.clear();
+      elements.clear();
+      forest.clear();
+   }
+
+   /**
+    * Checks whether the given element is in this forest.
+    * O(1).
+    */
+   @Override
+   public boolean contains(Object e) {
+      return indices.containsKey(e);
+   }
+
+   /**
+    * Returns an iterator over the elements of this forest, in the order in which they were added.
+    */
+   @Override
+   public Iterator<E> iterator() {
+      return new dvrlib.generic.ReadOnlyIterator<E>(elements.iterator());
+   }
+
+   /**
+    * Returns the size of this forest.
+    * O(1).
+    */
+   @Override
+   public int size() {
+      return elements.size();
+   }
+
+   protected int indexOf(E e) {
+      Integer i = indices.get(e);
+      if(i == null)
+         throw new IllegalArgumentException("The supplied element is not a member of this forest");
+      return i;
+   }
+}
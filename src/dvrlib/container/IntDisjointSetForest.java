@@ -0,0 +1,192 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * IntDisjointSetForest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint set forest of the integers <code>0</code> up to its size, stored in primitive arrays.
+ * Unlike AbstractDisjointSetForest, it allocates no objects per element: the parents take an int and the ranks a byte, as a rank never exceeds the logarithm of the size.
+ * Optionally, the members of every set are kept in a circular list of next-pointers, which takes another int per element;
+ *    merging two sets then splices their lists in O(1), instead of copying one set into the other.
+ * Representatives are found iteratively with path halving, so deep trees do not exhaust the stack.
+ * @see IndexedDisjointSetForest
+ * @see AbstractDisjointSetForest
+ */
+public class IntDisjointSetForest {
+   protected int  parents[];
+   protected byte ranks[];
+   protected int  nexts[];
+   protected int  size     = 0,
+                  setCount = 0;
+
+   /**
+    * IntDisjointSetForest constructor, creating a forest of <code>n</code> singleton sets.
+    * @param n          The number of elements.
+    * @param keepMembers Whether to keep the members of every set, so they can be enumerated.
+    * O(n).
+    */
+   public IntDisjointSetForest(int n, boolean keepMembers) {
+      if(n < 0)
+         throw new IllegalArgumentException("n should be >= 0");
+      parents = new int[Math.max(n, 1)];
+      ranks   = new byte[parents.length];
+      nexts   = (keepMembers ? new int[parents.length] : null);
+      for(int i = 0; i < n; i++) {
+         add();
+      }
+   }
+
+   /**
+    * Adds a new element to this forest as a singleton set, and returns it.
+    * O(1) amortised.
+    */
+   public int add() {
+      if(size == parents.length) {
+         parents = Arrays.copyOf(parents, 2 * parents.length);
+         ranks   = Arrays.copyOf(ranks, parents.length);
+         if(nexts != null)
+            nexts = Arrays.copyOf(nexts, parents.length);
+      }
+      parents[size] = size;
+      if(nexts != null)
+         nexts[size] = size;
+      setCount++;
+      return size++;
+   }
+
+   /**
+    * Finds the representative of the set to which the given element belongs.
+    * O(a(n)) amortised, where a is the inverse Ackermann function.
+    * @throws IndexOutOfBoundsException If the given element is not a member of this forest.
+    */
+   public int representative(int e) {
+      checkElement(e);
+      while(parents[e] != e) {
+         // Path halving: let every other element on the path skip its parent
+         parents[e] = parents[parents[e]];
+         e          = parents[e];
+      }
+      return e;
+   }
+
+   /**
+    * Returns whether the two given elements belong to the same set.
+    * @see IntDisjointSetForest#representative(int)
+    */
+   public boolean sameSet(int e1, int e2) {
+      return representative(e1) == representative(e2);
+   }
+
+   /**
+    * Merges the sets to which the two given elements belong, and returns the representative of the merged set.
+    * O(a(n)) amortised.
+    * @throws IndexOutOfBoundsException If either of the given elements is not a member of this forest.
+    */
+   public int union(int e1, int e2) {
+      int r1 = representative(e1),
+          r2 = representative(e2);
+      if(r1 == r2)
+         return r1;
+      setCount--;
+
+      if(nexts != null) {
+         // Splice the circular member lists
+         int n = nexts[r1];
+         nexts[r1] = nexts[r2];
+         nexts[r2] = n;
+      }
+      if(ranks[r1] > ranks[r2]) {
+         parents[r2] = r1;
+         return r1;
+      }
+      parents[r1] = r2;
+      if(ranks[r1] == ranks[r2])
+         ranks[r2]++;
+      return r2;
+   }
+
+   /**
+    * Returns the member that follows the given element in the circular list of the members of its set.
+    * Starting from any member, repeatedly taking the next member visits every member of the set once before returning to the start.
+    * O(1).
+    * @throws IllegalStateException If this forest does not keep the members of its sets.
+    */
+   public int nextMember(int e) {
+      checkElement(e);
+      if(nexts == null)
+         throw new IllegalStateException("This forest does not keep the members of its sets");
+      return nexts[e];
+   }
+
+   /**
+    * Returns the members of the set to which the given element belongs, starting with the element itself.
+    * O(m), where m is the size of the set.
+    * @see IntDisjointSetForest#nextMember(int)
+    */
+   public int[] members(int e) {
+      int count = 0;
+      for(int m = e; count == 0 || m != e; m = nextMember(m)) {
+         count++;
+      }
+      int ms[] = new int[count];
+      for(int i = 0, m = e; i < count; i++, m = nexts[m]) {
+         ms[i] = m;
+      }
+      return ms;
+   }
+
+   /**
+    * Returns whether this forest keeps the members of its sets.
+    */
+   public boolean keepsMembers() {
+      return (nexts != null);
+   }
+
+   /**
+    * Returns the number of elements in this forest.
+    * O(1).
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the number of disjoint sets in this forest.
+    * O(1).
+    */
+   public int setCount() {
+      return setCount;
+   }
+
+   /**
+    * Removes all elements from this forest, keeping the allocated arrays.
+    * O(n).
+    */
+   public void clear() {
+      Arrays.fill(ranks, 0, size, (byte) 0);
+      size = setCount = 0;
+   }
+
+   protected void checkElement(int e) {
+      if(e < 0 || e >= size)
+         throw new IndexOutOfBoundsException("Element " + e + " is out of bounds for a forest of size " + size);
+   }
+}
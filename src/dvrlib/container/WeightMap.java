@@ -46,10 +46,10 @@ public class WeightMap<E> extends java.util.HashMap<E, Double> {
 
    /**
     * Returns an element from the tree, reached with the given normalised weighted index.
-    * @see WeightedTree#getWeighted(double)
+    * @see WeightedTree#getWeightedValue(double)
     */
    public E getWeighted(double normIndex) {
-      return tree.getWeighted(normIndex).b;
+      return tree.getWeightedValue(normIndex);
    }
 
    /**
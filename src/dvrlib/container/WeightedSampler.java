@@ -0,0 +1,198 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * WeightedSampler.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * WeightedSampler draws indices at random, where the chance of drawing an index is proportionate to its weight.
+ * Weights are kept in a primitive array, and drawing an index allocates nothing, which makes samplers suitable for tight loops.
+ * The variants differ in the cost of changing weights versus the cost of drawing:
+ *   FenwickSampler: O(log n) to change a weight, O(log n) to draw;
+ *   AliasSampler:   O(1) to change a weight, but O(n) to draw after a change; O(1) to draw while the weights are unchanged;
+ * @see FenwickSampler
+ * @see AliasSampler
+ * @see WeightedTree#getWeighted(double)
+ */
+public abstract class WeightedSampler {
+   protected double weights[];
+   protected int    size  = 0;
+   protected double total = 0d;
+
+   /**
+    * WeightedSampler constructor, creating an empty sampler.
+    * @param capacity The number of weights that can be added before the internal arrays are resized.
+    */
+   protected WeightedSampler(int capacity) {
+      if(capacity < 0)
+         throw new IllegalArgumentException("capacity should be >= 0");
+      weights = new double[Math.max(capacity, 1)];
+   }
+
+   /**
+    * WeightedSampler constructor, creating a sampler with the given weights, which are copied.
+    * O(n).
+    */
+   protected WeightedSampler(double weights[]) {
+      this(weights.length);
+      setAll(weights, weights.length);
+   }
+
+   /**
+    * Appends the given weight, and returns its index.
+    * O(1) amortised, plus the cost of the variant.
+    */
+   public int add(double weight) {
+      check(weight);
+      if(size == weights.length)
+         resize(2 * weights.length);
+      weights[size] = weight;
+      total        += weight;
+      added(size++);
+      return size - 1;
+   }
+
+   /**
+    * Sets the weight of the given index.
+    * @see WeightedSampler#add(double)
+    */
+   public void set(int index, double weight) {
+      checkIndex(index);
+      check(weight);
+      double delta = weight - weights[index];
+      weights[index] = weight;
+      total         += delta;
+      updated(index, delta);
+   }
+
+   /**
+    * Replaces all weights by the first <code>n</code> of the given weights.
+    * O(n).
+    */
+   public void setAll(double weights[], int n) {
+      if(n < 0 || n > weights.length)
+         throw new IllegalArgumentException("n should be between 0 and the number of weights (inclusive), got " + n);
+      if(n > this.weights.length)
+         resize(n);
+      for(int i = 0; i < n; i++) {
+         check(weights[i]);
+      }
+      System.arraycopy(weights, 0, this.weights, 0, n);
+      size = n;
+      rebuild();
+   }
+
+   /**
+    * Removes all weights.
+    * O(1).
+    */
+   public void clear() {
+      size  = 0;
+      total = 0d;
+      rebuild();
+   }
+
+   /**
+    * Returns the number of weights in this sampler.
+    * O(1).
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the weight of the given index.
+    * O(1).
+    */
+   public double weight(int index) {
+      checkIndex(index);
+      return weights[index];
+   }
+
+   /**
+    * Returns the sum of all weights.
+    * O(1).
+    */
+   public double totalWeight() {
+      return total;
+   }
+
+   /**
+    * Returns the index reached with the given normalised weighted index.
+    * For a uniformly distributed <code>normIndex</code>, every index is drawn with a chance proportionate to its weight, and indices with zero weight are never drawn.
+    * How the range of <code>normIndex</code> is divided among the indices depends on the variant.
+    * @param normIndex A double between 0 (inclusive) and 1 (exclusive).
+    * @throws IllegalStateException If the total weight is not positive.
+    * @see WeightedTree#getWeighted(double)
+    */
+   public int sample(double normIndex) {
+      if(normIndex < 0d || normIndex >= 1d)
+         throw new IllegalArgumentException("The argument of WeightedSampler.sample(double) should be between 0 (inclusive) and 1 (exclusive), got " + normIndex);
+      if(!(total > 0d))
+         throw new IllegalStateException("Unable to sample without positive weights");
+      return draw(normIndex);
+   }
+
+   /**
+    * Returns an index drawn using the given source of randomness.
+    * @see WeightedSampler#sample(double)
+    */
+   public int sample(SplittableRandom random) {
+      return sample(random.nextDouble());
+   }
+
+   /**
+    * Returns the index reached with the given normalised weighted index, which was checked to be in range.
+    */
+   protected abstract int draw(double normIndex);
+
+   /**
+    * Updates the internal structure after the weight with the given index was appended.
+    */
+   protected abstract void added(int index);
+
+   /**
+    * Updates the internal structure after the weight with the given index was changed by the given amount.
+    */
+   protected abstract void updated(int index, double delta);
+
+   /**
+    * Rebuilds the internal structure from the weights, and recomputes the total weight.
+    */
+   protected abstract void rebuild();
+
+   /**
+    * Resizes the internal arrays to the given capacity.
+    */
+   protected void resize(int capacity) {
+      weights = Arrays.copyOf(weights, capacity);
+   }
+
+   protected void check(double weight) {
+      if(!(weight >= 0d) || Double.isInfinite(weight))
+         throw new IllegalArgumentException("Weights should be finite and >= 0, got " + weight);
+   }
+
+   protected void checkIndex(int index) {
+      if(index < 0 || index >= size)
+         throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for a sampler of size " + size);
+   }
+}
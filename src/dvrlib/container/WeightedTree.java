@@ -24,6 +24,7 @@ import dvrlib.generic.Pair;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> implements Iterable<E> {
    protected class Node extends AbstractBinaryTree<WeightedTree<E>.Node>.Node {
@@ -43,6 +44,112 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
       }
    }
 
+   /**
+    * Cursor points at an element in the tree, whose key and value can then be read without allocating.
+    * A cursor can be reused for any number of lookups, so a sampling loop needs only one; it should not be used after the tree was modified, until it is positioned again.
+    * Like the tree itself, a cursor should not be shared between threads.
+    * @see WeightedTree#cursor()
+    */
+   public class Cursor {
+      protected Node node   = null;
+      protected int  offset = 0;
+
+      /**
+       * Returns whether this cursor points at an element.
+       */
+      public boolean isValid() {
+         return (node != null);
+      }
+
+      /**
+       * Returns the key of the element this cursor points at.
+       * O(1).
+       */
+      public double key() {
+         check();
+         return node.key;
+      }
+
+      /**
+       * Returns the element this cursor points at.
+       * O(1).
+       */
+      public E value() {
+         check();
+         return node.values.get(offset);
+      }
+
+      /**
+       * Points this cursor at the element reached with the given index.
+       * @see WeightedTree#getIndexed(int)
+       * O(height).
+       */
+      public Cursor seekIndexed(int index) {
+         checkIndex(index);
+         node   = indexedNode(index);
+         offset = indexedOffset(node, index);
+         return this;
+      }
+
+      /**
+       * Points this cursor at the element reached with the given normalised weighted index, or invalidates it if the tree is empty.
+       * @see WeightedTree#getWeighted(double)
+       * O(height).
+       */
+      public Cursor seekWeighted(double normIndex) {
+         checkNormIndex(normIndex);
+         if(root == null)
+            node = null;
+         else {
+            double target = normIndex * root.weight;
+            node   = weightedNode(target);
+            offset = weightedOffset(node, target);
+         }
+         return this;
+      }
+
+      /**
+       * Points this cursor at the first element of the node with the largest key, which is where iteration starts, or invalidates it if the tree is empty.
+       * @see WeightedTree#iterator()
+       * O(height).
+       */
+      public Cursor seekMax() {
+         node   = max();
+         offset = 0;
+         return this;
+      }
+
+      /**
+       * Points this cursor at the first element of the node with the smallest key, or invalidates it if the tree is empty.
+       * O(height).
+       */
+      public Cursor seekMin() {
+         node   = min();
+         offset = 0;
+         return this;
+      }
+
+      /**
+       * Moves this cursor to the next element in the order of <code>iterator()</code>, from larger to smaller keys.
+       * @return A boolean indicating whether this cursor still points at an element.
+       * @see WeightedTree#iterator()
+       * O(1) amortised.
+       */
+      public boolean advance() {
+         check();
+         if(++offset >= node.values.size()) {
+            node   = leftOf(node);
+            offset = 0;
+         }
+         return (node != null);
+      }
+
+      protected void check() {
+         if(node == null)
+            throw new IllegalStateException("The cursor does not point at an element");
+      }
+   }
+
    public WeightedTree() {
       super(new java.util.Comparator<Node>() {
             @Override
@@ -52,6 +159,14 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
          });
    }
 
+   /**
+    * Returns a new cursor on this tree, which does not yet point at an element.
+    * @see WeightedTree.Cursor
+    */
+   public Cursor cursor() {
+      return new Cursor();
+   }
+
    /**
     * Adds a node with the given key and value to this tree.
     * @return A boolean indicating whether the operation succeeded.
@@ -91,6 +206,29 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
       return true;
    }
 
+   /**
+    * Replaces the contents of this tree by the given elements, with the given keys in ascending order.
+    * Elements with equal keys are kept in the given order, as if they were added one after another.
+    * @throws IllegalArgumentException When the number of keys and elements differ, or the keys are not in ascending order.
+    * O(n).
+    */
+   public void build(double keys[], List<? extends E> values) {
+      if(keys.length != values.size())
+         throw new IllegalArgumentException("The number of keys (" + keys.length + ") should equal the number of values (" + values.size() + ")");
+      ArrayList<Node> nodes = new ArrayList<Node>();
+      Node            last  = null;
+      for(int i = 0; i < keys.length; i++) {
+         if(last != null && keys[i] == last.key)
+            last.values.add(values.get(i));
+         else {
+            if(last != null && !(keys[i] > last.key))
+               throw new IllegalArgumentException("The keys should be in ascending order, got " + keys[i] + " after " + last.key);
+            nodes.add(last = new Node(null, keys[i], values.get(i)));
+         }
+      }
+      link(nodes);
+   }
+
    /**
     * Returns whether this tree contains a node with the given key and value.
     * @return true if this tree contains the given key/value combination, false otherwise.
@@ -105,27 +243,69 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
     * Returns a (key, element) from the tree, reached with the given index.
     * An index of 0 refers to an item with the smallest key.
     * @param index An integer between 0 (inclusive) and the size of this tree (exclusive).
+    * @see WeightedTree#getIndexedValue(int)
     */
    public Pair<Double, E> getIndexed(int index) {
+      checkIndex(index);
+      Node node = indexedNode(index);
+      return new Pair<Double, E>(node.key, node.values.get(indexedOffset(node, index)));
+   }
+   /**
+    * Returns the element reached with the given index, without allocating.
+    * @see WeightedTree#getIndexed(int)
+    * O(height).
+    */
+   public E getIndexedValue(int index) {
+      checkIndex(index);
+      Node node = indexedNode(index);
+      return node.values.get(indexedOffset(node, index));
+   }
+   /**
+    * Returns the key of the element reached with the given index, without allocating.
+    * @see WeightedTree#getIndexed(int)
+    * O(height).
+    */
+   public double getIndexedKey(int index) {
+      checkIndex(index);
+      return indexedNode(index).key;
+   }
+
+   protected void checkIndex(int index) {
       if(index < 0 || index >= size())
          throw new IllegalArgumentException("The argument of WeightedTree.getIndexed(int) should be between 0 (inclusive) and the size of the tree (exclusive), got " + index);
-      return (root == null ? null : getIndexed(root, index));
    }
    /**
-    * Returns a (key, element) from the subtree rooted at the given node, reached with the given index.
-    * An index of 0 refers to an item with the smallest key.
-    * @param index An integer between 0 (inclusive) and the size of this subtree (exclusive).
-    */
-   protected Pair<Double, E> getIndexed(Node node, int index) {
-      assert (index >= 0 && index < node.size) : "index should be between 0 (inclusive) and the size of the tree (exclusive), got " + index;
-      if(node.left != null) {
-         if(index < node.left.size)
-            return getIndexed(node.left, index);
-         else index -= node.left.size;
+    * Returns the node containing the element with the given index.
+    * O(height).
+    */
+   protected Node indexedNode(int index) {
+      assert (index >= 0 && index < size()) : "index should be between 0 (inclusive) and the size of the tree (exclusive), got " + index;
+      Node node = root;
+      while(true) {
+         int l = size(node.left);
+         if(index < l)
+            node = node.left;
+         else if(index < l + node.values.size())
+            return node;
+         else {
+            index -= l + node.values.size();
+            node   = node.right;
+         }
       }
-      if(node.right != null && index >= node.values.size())
-         return getIndexed(node.right, index - node.values.size());
-      return new Pair<Double, E>(node.key, node.values.get(index));
+   }
+   /**
+    * Returns the position within the given node of the element with the given index.
+    * O(1) for nodes with a single element, O(height) otherwise.
+    */
+   protected int indexedOffset(Node node, int index) {
+      if(node.values.size() == 1)
+         return 0;
+      int rank = size(node.left);
+      for(Node n = node; n.parent != null; n = n.parent) {
+         if(n == n.parent.right)
+            rank += size(n.parent.left) + n.parent.values.size();
+      }
+      return index - rank;
    }
 
    /**
@@ -136,36 +316,77 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
     * Moving through the tree from the smallest index, (A: 1 &lt; 3), (C: 1.3 &lt; (3 - 1)), (D: 1.7 &gt;= (3 - 1 - 1.3)).
     * This means the item with the largest index has the most chance of getting selected, hence the weight.
     * @param normIndex A double between 0 (inclusive) and 1 (exclusive).
+    * @see WeightedTree#getWeightedValue(double)
     */
    public Pair<Double, E> getWeighted(double normIndex) {
+      checkNormIndex(normIndex);
+      if(root == null)
+         return null;
+      double target = normIndex * root.weight;
+      Node   node   = weightedNode(target);
+      return new Pair<Double, E>(node.key, node.values.get(weightedOffset(node, target)));
+   }
+   /**
+    * Returns the element reached with the given normalised weighted index without allocating, or <code>null</code> if this tree is empty.
+    * @see WeightedTree#getWeighted(double)
+    * O(height).
+    */
+   public E getWeightedValue(double normIndex) {
+      checkNormIndex(normIndex);
+      if(root == null)
+         return null;
+      double target = normIndex * root.weight;
+      Node   node   = weightedNode(target);
+      return node.values.get(weightedOffset(node, target));
+   }
+   /**
+    * Returns the key of the element reached with the given normalised weighted index without allocating, or <code>NaN</code> if this tree is empty.
+    * @see WeightedTree#getWeighted(double)
+    * O(height).
+    */
+   public double getWeightedKey(double normIndex) {
+      checkNormIndex(normIndex);
+      return (root == null ? Double.NaN : weightedNode(normIndex * root.weight).key);
+   }
+
+   protected void checkNormIndex(double normIndex) {
       if(normIndex < 0 || normIndex >= 1)
          throw new IllegalArgumentException("The argument of WeightedTree.getWeighted(double) should be between 0 (inclusive) and 1 (exclusive), got " + normIndex);
-      return (root == null ? null : getWeighted(root, normIndex));
    }
    /**
-    * Returns a (key, element) from the subtree rooted at the given node, reached with the given normalised weighted index.
-    * An index of 0 refers to an item with the smallest key.
-    * @param normIndex A double between 0 (inclusive) and 1 (exclusive).
+    * Returns the node containing the element at the given summed index, between 0 (inclusive) and the weight of the tree (exclusive).
+    * Subtrees and nodes without weight are never chosen, unless rounding errors push the target past the last node.
+    * O(height).
     */
-   protected Pair<Double, E> getWeighted(Node node, double normIndex) {
-      assert (normIndex >= 0d && normIndex < 1d) : "normIndex should be between 0 (inclusive) and 1 (exclusive), got " + normIndex;
-
-      double l = weight(node.left);
-      if(l > 0d) {
-         l = l / node.weight;
-         if(normIndex < l)
-            return getWeighted(node.left, normIndex / l);
+   protected Node weightedNode(double target) {
+      Node node = root;
+      while(true) {
+         double l = weight(node.left);
+         if(target < l)
+            node = node.left;
+         else {
+            target -= l;
+            if(target < node.key * node.values.size() || node.right == null)
+               return node;
+            target -= node.key * node.values.size();
+            node    = node.right;
+         }
       }
-      double r = weight(node.right);
-      if(r > 0d) {
-         r = (node.weight - r) / node.weight;
-         if(normIndex > r)
-            return getWeighted(node.right, (normIndex - r) / (1d - r));
+   }
+   /**
+    * Returns the position within the given node of the element at the given summed index.
+    * O(1) for nodes with a single element, O(height) otherwise.
+    */
+   protected int weightedOffset(Node node, double target) {
+      int n = node.values.size();
+      if(n == 1 || node.key <= 0d)
+         return 0;
+      double prefix = weight(node.left);
+      for(Node p = node; p.parent != null; p = p.parent) {
+         if(p == p.parent.right)
+            prefix += weight(p.parent.left) + p.parent.key * p.parent.values.size();
       }
-      else
-         r = 1d;
-
-      return new Pair<Double, E>(node.key, node.values.get((int)(node.values.size() * (normIndex - l) / (r - l))));
+      return Math.max(0, Math.min(n - 1, (int) ((target - prefix) / node.key)));
    }
 
    /**
@@ -205,6 +426,39 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
    protected Pair<Double, E> peek(Node node) {
       return (node == null ? null : new Pair<Double, E>(node.key, node.values.get(node.values.size() - 1)));
    }
+   /**
+    * Returns the element <code>peekMin()</code> would return, without allocating, or <code>null</code> if this tree is empty.
+    * O(height).
+    */
+   public E peekMinValue() {
+      return peekValue(min());
+   }
+   /**
+    * Returns the element <code>peekMax()</code> would return, without allocating, or <code>null</code> if this tree is empty.
+    * O(height).
+    */
+   public E peekMaxValue() {
+      return peekValue(max());
+   }
+   protected E peekValue(Node node) {
+      return (node == null ? null : node.values.get(node.values.size() - 1));
+   }
+   /**
+    * Returns the smallest key in this tree, or <code>NaN</code> if it is empty.
+    * O(height).
+    */
+   public double peekMinKey() {
+      Node node = min();
+      return (node == null ? Double.NaN : node.key);
+   }
+   /**
+    * Returns the largest key in this tree, or <code>NaN</code> if it is empty.
+    * O(height).
+    */
+   public double peekMaxKey() {
+      Node node = max();
+      return (node == null ? Double.NaN : node.key);
+   }
 
    /**
     * Removes an element from the node with the smallest key in this tree, and returns it along with that key.
@@ -226,12 +480,34 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
    protected Pair<Double, E> pop(Node node) {
       if(node == null)
          throw new IllegalArgumentException("Cannot call WeightedTree.pop() on a null node");
-      Pair<Double, E> p = new Pair<Double, E>(node.key, node.values.remove(node.values.size() - 1));
+      double key = node.key;
+      return new Pair<Double, E>(key, popValue(node));
+   }
+   /**
+    * Removes the element <code>popMin()</code> would remove, and returns it without allocating.
+    */
+   public E popMinValue() {
+      return popValue(min());
+   }
+   /**
+    * Removes the element <code>popMax()</code> would remove, and returns it without allocating.
+    */
+   public E popMaxValue() {
+      return popValue(max());
+   }
+   /**
+    * Removes and returns the element that was added last to the given node.
+    * @see WeightedTree#pop(WeightedTree.Node)
+    */
+   protected E popValue(Node node) {
+      if(node == null)
+         throw new IllegalArgumentException("Cannot call WeightedTree.pop() on a null node");
+      E value = node.values.remove(node.values.size() - 1);
       if(node.values.isEmpty())
          remove(node);
       else
          updateUp(node);
-      return p;
+      return value;
    }
 
    /**
@@ -267,33 +543,48 @@ public class WeightedTree<E> extends AbstractBinaryTree<WeightedTree<E>.Node> im
 
    /**
     * Clears this tree, retaining only the given number of elements with the highests keys.
+    * @see WeightedTree#truncate(int)
     */
    public void retainBest(int n) {
-      if(root != null && n < root.size)
-         retainBest(root, n);
+      truncate(n);
    }
 
-   protected void retainBest(Node node, int n) {
-      if(node.right != null && n < node.right.size)
-         retainBest(node.right, n);
-      else if(node.left != null && n > node.size - node.left.size)
-         retainBest(node.left, n - (node.size - node.left.size));
-      else {
-         if(node.right != null)
-            n -= node.right.size;
-         if(n > 0) {
-            for(int i = node.values.size() - 1; i >= n; i--) {
-               node.values.remove(i);
-            }
-            updateUp(node);
-            node = leftOf(node);
+   /**
+    * Clears this tree, retaining only the given number of elements with the highest keys, and returns the evicted elements.
+    * Of the elements with the lowest retained key, those that were added first are retained.
+    * The retained nodes are relinked into a balanced tree, so no rotations are needed.
+    * O(e + r) for e evicted and r retained elements.
+    */
+   public ArrayList<E> truncate(int n) {
+      int          evict   = size() - Math.max(n, 0);
+      ArrayList<E> evicted = new ArrayList<E>(Math.max(evict, 0));
+      if(evict <= 0)
+         return evicted;
+
+      // Collect the evicted elements, from the smallest key upwards
+      Node node = min();
+      while(evict > 0) {
+         int k = node.values.size();
+         if(k <= evict) {
+            evicted.addAll(node.values);
+            evict -= k;
+            node   = rightOf(node);
          }
-         while(node != null) {
-            Node old = node;
-            node = leftOf(node);
-            remove(old);
+         else {
+            List<E> tail = node.values.subList(k - evict, k);
+            evicted.addAll(tail);
+            tail.clear();
+            evict = 0;
          }
       }
+
+      // Relink the retained nodes
+      ArrayList<Node> nodes = new ArrayList<Node>(Math.max(n, 0));
+      for(; node != null; node = rightOf(node)) {
+         nodes.add(node);
+      }
+      link(nodes);
+      return evicted;
    }
 
    /**
@@ -19,21 +19,51 @@
 
 package dvrlib.generic;
 
-import java.util.List;
+import java.util.SplittableRandom;
 import java.util.TreeMap;
 
 public class RandomOrder<E> implements Iterable<E> {
-   protected TreeMap<Double, E> map = new TreeMap<Double, E>();
+   protected final SplittableRandom   random;
+   protected       TreeMap<Double, E> map = new TreeMap<Double, E>();
 
+   /**
+    * RandomOrder constructor, using an arbitrarily seeded source of randomness.
+    * @deprecated The order cannot be reproduced; use <code>RandomOrder(E[], SplittableRandom)</code> instead.
+    */
+   @Deprecated
    public RandomOrder(E elements[]) {
-      this(new IterableArray<E>(elements));
+      this(new IterableArray<E>(elements), new SplittableRandom());
    }
 
+   /**
+    * RandomOrder constructor, using an arbitrarily seeded source of randomness.
+    * @deprecated The order cannot be reproduced; use <code>RandomOrder(Iterable, SplittableRandom)</code> instead.
+    */
+   @Deprecated
    public RandomOrder(Iterable<E> elements) {
+      this(elements, new SplittableRandom());
+   }
+
+   /**
+    * RandomOrder constructor.
+    * @param elements The elements to iterate over.
+    * @param random   The source of randomness used to order the elements, which makes the order reproducible.
+    */
+   public RandomOrder(E elements[], SplittableRandom random) {
+      this(new IterableArray<E>(elements), random);
+   }
+
+   /**
+    * RandomOrder constructor.
+    * @param elements The elements to iterate over.
+    * @param random   The source of randomness used to order the elements, which makes the order reproducible.
+    */
+   public RandomOrder(Iterable<E> elements, SplittableRandom random) {
+      this.random = random;
       for(E e : elements) {
          Double k;
          do {
-            k = Math.random();
+            k = random.nextDouble();
          }
          while(map.containsKey(k));
          map.put(k, e);
@@ -54,7 +84,7 @@ public class RandomOrder<E> implements Iterable<E> {
       for(E e : old) {
          Double k;
          do {
-            k = Math.random();
+            k = random.nextDouble();
          }
          while(map.containsKey(k));
          map.put(k, e);
@@ -29,6 +29,16 @@ public abstract class AbstractBoundableProblem<S extends Solution, E extends Com
       super(solutionPoolSize);
    }
 
+   /**
+    * AbstractBoundableProblem constructor.
+    * @param solutionPoolSize The maximum number of best solutions that will be kept track of.
+    * @param concurrent       Whether the solution pool should be safe to use by multiple search threads at once.
+    * @see AbstractProblem#AbstractProblem(int, boolean)
+    */
+   public AbstractBoundableProblem(int solutionPoolSize, boolean concurrent) {
+      super(solutionPoolSize, concurrent);
+   }
+
    /**
     * Returns a bound on the evaluation of the given solution, ignoring <code>iterationNumber</code>.
     * Override this method to implement an evaluation-bound function which takes the iteration number into account.
@@ -29,6 +29,16 @@ public abstract class AbstractGeneticProblem<S extends Solution, E extends Compa
       super(solutionPoolSize);
    }
 
+   /**
+    * AbstractGeneticProblem constructor.
+    * @param solutionPoolSize The maximum number of best solutions that will be kept track of.
+    * @param concurrent       Whether the solution pool should be safe to use by multiple search threads at once.
+    * @see AbstractProblem#AbstractProblem(int, boolean)
+    */
+   public AbstractGeneticProblem(int solutionPoolSize, boolean concurrent) {
+      super(solutionPoolSize, concurrent);
+   }
+
    /**
     * Makes the first solution look most like the second one.
     * Default implementation of this method throws an UnsupportedOperationException.
@@ -46,7 +56,7 @@ public abstract class AbstractGeneticProblem<S extends Solution, E extends Compa
     */
    @Override
    public double weight(S s) {
-      return weight(evaluate(s));
+      return weight(evaluateCached(s));
    }
    /**
     * Returns the weight of the given solution at the given iteration.
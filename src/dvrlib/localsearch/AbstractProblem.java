@@ -20,14 +20,25 @@
 package dvrlib.localsearch;
 
 public abstract class AbstractProblem<S extends Solution, E extends Comparable<E>> implements Problem<S, E> {
-   protected final Population<S> solutionPool;
+   protected final Population<S>         solutionPool;
+   protected       EvaluationCache<S, E> evaluationCache = null;
 
    /**
     * AbstractProblem constructor.
     * @param solutionPoolSize The maximum number of best solutions that will be kept track of.
     */
    public AbstractProblem(int solutionPoolSize) {
-      solutionPool = new TreePopulation<S, E>(this, solutionPoolSize);
+      this(solutionPoolSize, false);
+   }
+
+   /**
+    * AbstractProblem constructor.
+    * @param solutionPoolSize The maximum number of best solutions that will be kept track of.
+    * @param concurrent       Whether the solution pool should be safe to use by multiple search threads at once.
+    * @see ConcurrentPopulation
+    */
+   public AbstractProblem(int solutionPoolSize, boolean concurrent) {
+      solutionPool = (concurrent ? new ConcurrentPopulation<S, E>(this, solutionPoolSize) : new TreePopulation<S, E>(this, solutionPoolSize));
    }
 
    /**
@@ -37,6 +48,31 @@ public abstract class AbstractProblem<S extends Solution, E extends Comparable<E
       return solutionPool;
    }
 
+   /**
+    * Returns the evaluation cache, or <code>null</code> if caching is disabled.
+    */
+   public final EvaluationCache<S, E> evaluationCache() {
+      return evaluationCache;
+   }
+
+   /**
+    * Enables caching of evaluations of solutions that implement <code>StampedSolution</code>, keeping at most the given number of evaluations.
+    * A capacity of zero disables the cache.
+    * @see EvaluationCache
+    */
+   public void setEvaluationCacheSize(int capacity) {
+      evaluationCache = (capacity > 0 ? new EvaluationCache<S, E>(this, capacity) : null);
+   }
+
+   /**
+    * Returns the evaluation of the given solution, taken from the evaluation cache if it is enabled.
+    * All evaluations done by the methods of this class go through this method.
+    * @see AbstractProblem#setEvaluationCacheSize(int)
+    */
+   public final E evaluateCached(S s) {
+      return (evaluationCache == null ? evaluate(s) : evaluationCache.evaluate(s));
+   }
+
    /**
     * Returns the best solution currently known.
     */
@@ -57,21 +93,21 @@ public abstract class AbstractProblem<S extends Solution, E extends Comparable<E
     */
    @Override
    public boolean better(E e, S s) {
-      return (s == null ? e != null : better(e, evaluate(s)));
+      return (s == null ? e != null : better(e, evaluateCached(s)));
    }
    /**
     * Returns true if the given solution is better than the given evaluation, i.e. <code>better(evaluate(s), e)</code.
     */
    @Override
    public boolean better(S s, E e) {
-      return (s == null ? false : better(evaluate(s), e));
+      return (s == null ? false : better(evaluateCached(s), e));
    }
    /**
     * Returns true if the first of the given solutions is better than the second, i.e. <code>better(evaluate(s1), evaluate(s2))</code>.
     */
    @Override
    public final boolean better(S s1, S s2) {
-      return (s1 == null ? false : (s2 == null ? true : better(evaluate(s1), evaluate(s2))));
+      return (s1 == null ? false : (s2 == null ? true : better(evaluateCached(s1), evaluateCached(s2))));
    }
    /**
     * Returns true if the current solution of the given search state is better than the given evaluation, i.e. <code>better(evaluate(ss), e)</code>.
@@ -99,21 +135,21 @@ public abstract class AbstractProblem<S extends Solution, E extends Comparable<E
     */
    @Override
    public boolean betterEq(E e, S s) {
-      return (s == null ? true : betterEq(e, evaluate(s)));
+      return (s == null ? true : betterEq(e, evaluateCached(s)));
    }
    /**
     * Returns true if the given solution is better than or equal to the given evaluation, i.e. <code>betterEq(evaluate(s), e)</code>.
     */
    @Override
    public boolean betterEq(S s, E e) {
-      return (s == null ? e == null : betterEq(evaluate(s), e));
+      return (s == null ? e == null : betterEq(evaluateCached(s), e));
    }
    /**
     * Returns true if the first of the given solutions is better than or equal to the second, i.e. <code>betterEq(evaluate(s1), evaluate(s2))</code>.
     */
    @Override
    public final boolean betterEq(S s1, S s2) {
-      return (s1 == null ? s2 == null : (s2 == null ? true : betterEq(evaluate(s1), evaluate(s2))));
+      return (s1 == null ? s2 == null : (s2 == null ? true : betterEq(evaluateCached(s1), evaluateCached(s2))));
    }
    /**
     * Returns true if the current solution of the given search state is better than or equal to the given evaluation, i.e. <code>betterEq(evaluate(ss), e)</code>.
@@ -132,7 +168,7 @@ public abstract class AbstractProblem<S extends Solution, E extends Comparable<E
 
    @Override
    public final int compare(S s1, S s2) {
-      return (s1 == null ? (s2 == null ? 0 : -1) : (s2 == null ? 1 : LocalSearch.asNumber(direction())) * evaluate(s1).compareTo(evaluate(s2)));
+      return (s1 == null ? (s2 == null ? 0 : -1) : (s2 == null ? 1 : LocalSearch.asNumber(direction())) * evaluateCached(s1).compareTo(evaluateCached(s2)));
    }
 
    /**
@@ -142,7 +178,7 @@ public abstract class AbstractProblem<S extends Solution, E extends Comparable<E
     */
    @Override
    public final E evaluate(S s, long iterationNumber) {
-      return evaluate(s);
+      return evaluateCached(s);
    }
    /**
     * Returns the evaluation of the current solution of the given search state, using the current iteration-number.
@@ -160,6 +196,6 @@ public abstract class AbstractProblem<S extends Solution, E extends Comparable<E
     */
    @Override
    public boolean saveSolution(S s) {
-      return solutionPool.add(cloneSolution(s));
+      return solutionPool.addCopy(s, this);
    }
 }
@@ -19,12 +19,27 @@
 
 package dvrlib.localsearch;
 
+import java.util.SplittableRandom;
+
 public abstract class AbstractSearchState<P extends Problem<S, ? extends Comparable<?>>, S extends Solution> implements SearchState<P, S> {
-   protected final P    problem;
-   protected       long iteration = 0;
+   protected final P                problem;
+   protected final SplittableRandom random;
+   protected final long             start     = System.nanoTime();
+   protected       long             iteration = 0,
+                                    accepted  = 0;
 
+   /**
+    * AbstractSearchState constructor, using an arbitrarily seeded source of randomness.
+    * @deprecated Searches using this state cannot be reproduced; use <code>AbstractSearchState(P, SplittableRandom)</code> instead.
+    */
+   @Deprecated
    public      AbstractSearchState(P problem) {
+      this(problem, new SplittableRandom());
+   }
+
+   public      AbstractSearchState(P problem, SplittableRandom random) {
       this.problem = problem;
+      this.random  = random;
    }
 
    @Override
@@ -41,4 +56,23 @@ public abstract class AbstractSearchState<P extends Problem<S, ? extends Compara
    public long iterationCount()               {
       return iteration;
    }
+
+   /**
+    * Returns the number of changes that were accepted by this search, as counted by search algorithms that report progress.
+    */
+   public long acceptedCount()                {
+      return accepted;
+   }
+
+   /**
+    * Returns the number of nanoseconds passed since this state was created.
+    */
+   public long elapsedNanos()                 {
+      return System.nanoTime() - start;
+   }
+
+   @Override
+   public SplittableRandom random()           {
+      return random;
+   }
 }
@@ -0,0 +1,320 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * AdaptiveMultiChanger.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * AdaptiveMultiChanger chooses one of its underlying changers at random, and adapts the probabilities of choosing them to the outcomes of their changes.
+ * Outcomes are reported by the search algorithms through <code>feedback</code>; a change that improved the solution gives its changer a reward of 1, other changes give 0.
+ * The quality of every changer is the exponential moving average of its rewards, from which the probabilities are derived according to the credit assignment scheme.
+ * As with other changers, an instance should not be used by multiple threads at once.
+ * @see AdaptiveMultiChanger.Scheme
+ * @see Changer#feedback(Changer.Change, boolean)
+ */
+public class AdaptiveMultiChanger<P extends Problem<S, ? extends Comparable<?>>, S extends Solution, C extends Changer<P, S, ?>.Change> extends Changer<P, S, C> {
+   /**
+    * Defines how the probabilities of choosing the changers are derived from their qualities.
+    *   ProbabilityMatching:   proportional to the qualities, with a minimum probability for every changer;
+    *   AdaptivePursuit:       the probability of the best changer is moved towards the maximum, the others towards the minimum;
+    *   UpperConfidenceBound:  the changer with the highest upper confidence bound on its average reward is chosen (UCB1), without randomisation;
+    */
+   public enum Scheme { ProbabilityMatching, AdaptivePursuit, UpperConfidenceBound };
+
+   /** The default minimum probability of choosing a changer is 0.05, relative to the number of changers. */
+   public final static double defaultMinProbability = 0.05;
+   /** The default adaptation rate of the qualities is 0.1. */
+   public final static double defaultAdaptationRate = 0.1;
+   /** The default learning rate of adaptive pursuit is 0.1. */
+   public final static double defaultLearningRate   = 0.1;
+   /** The default exploration factor of the upper confidence bound is the square root of 2. */
+   public final static double defaultExploration    = Math.sqrt(2d);
+
+   protected final ArrayList<Changer<P, S, C>> changers         = new ArrayList<Changer<P, S, C>>();
+   protected final Scheme                      scheme;
+   protected       double                      adaptationRate   = defaultAdaptationRate,
+                                               exploration      = defaultExploration,
+                                               learningRate     = defaultLearningRate,
+                                               minProbability   = defaultMinProbability;
+   protected       double                      qualities[]      = new double[0],
+                                               probabilities[]  = new double[0];
+   protected       long                        uses[]           = new long[0],
+                                               improvements[]   = new long[0];
+   protected       boolean                     failed[]         = new boolean[0];
+   protected       long                        totalUses        = 0;
+   protected       int                         last             = -1;
+   protected       C                           lastChange       = null;
+
+   /**
+    * AdaptiveMultiChanger constructor.
+    * Creates an empty set of changers.
+    * @see AdaptiveMultiChanger#add(Changer)
+    */
+   public AdaptiveMultiChanger(Scheme scheme) {
+      if(scheme == null)
+         throw new IllegalArgumentException("scheme should not be null");
+      this.scheme = scheme;
+   }
+
+   /**
+    * Adds the given changer to the set of underlying changers, after which all changers are chosen with equal probability.
+    * O(c), where c is the number of underlying changers.
+    */
+   public void add(Changer<P, S, C> changer) {
+      changers.add(changer);
+      int n = changers.size();
+      qualities     = Arrays.copyOf(qualities, n);
+      probabilities = new double[n];
+      uses          = Arrays.copyOf(uses, n);
+      improvements  = Arrays.copyOf(improvements, n);
+      failed        = new boolean[n];
+      Arrays.fill(probabilities, 1d / n);
+   }
+
+   /**
+    * Sets the rate at which the qualities of the changers follow their rewards, in the range (0,1].
+    */
+   public void setAdaptationRate(double adaptationRate) {
+      if(adaptationRate <= 0d || adaptationRate > 1d)
+         throw new IllegalArgumentException("adaptationRate should be in the range (0,1]");
+      this.adaptationRate = adaptationRate;
+   }
+
+   /**
+    * Sets the exploration factor of the upper confidence bound scheme.
+    */
+   public void setExploration(double exploration) {
+      if(exploration < 0d)
+         throw new IllegalArgumentException("exploration should be >= 0");
+      this.exploration = exploration;
+   }
+
+   /**
+    * Sets the rate at which adaptive pursuit moves the probabilities, in the range (0,1].
+    */
+   public void setLearningRate(double learningRate) {
+      if(learningRate <= 0d || learningRate > 1d)
+         throw new IllegalArgumentException("learningRate should be in the range (0,1]");
+      this.learningRate = learningRate;
+   }
+
+   /**
+    * Sets the minimum probability of choosing a changer, as a fraction of the uniform probability, in the range [0,1].
+    * With a value of 1, all changers are always chosen with equal probability.
+    */
+   public void setMinProbability(double minProbability) {
+      if(minProbability < 0d || minProbability > 1d)
+         throw new IllegalArgumentException("minProbability should be in the range [0,1]");
+      this.minProbability = minProbability;
+   }
+
+   /**
+    * Returns the number of changes made by the underlying changer with the given index.
+    */
+   public long uses(int i) {
+      return uses[i];
+   }
+
+   /**
+    * Returns the number of improving changes made by the underlying changer with the given index.
+    */
+   public long improvements(int i) {
+      return improvements[i];
+   }
+
+   /**
+    * Returns the probability of choosing the underlying changer with the given index.
+    * This is not used by the upper confidence bound scheme.
+    */
+   public double probability(int i) {
+      return probabilities[i];
+   }
+
+   /**
+    * Returns the estimated quality of the underlying changer with the given index.
+    */
+   public double quality(int i) {
+      return qualities[i];
+   }
+
+   /**
+    * Updates the quality of the underlying changer that made the given change, if it was the last change made, and the probabilities derived from it.
+    * The feedback is then forwarded to that changer.
+    * O(c), where c is the number of underlying changers.
+    * @see Changer#feedback(Changer.Change, boolean)
+    */
+   @Override
+   public void feedback(Changer<P, S, ?>.Change change, boolean improved) {
+      if(change != lastChange || last < 0)
+         return;
+
+      int    i      = last;
+      double reward = (improved ? 1d : 0d);
+      if(improved)
+         improvements[i]++;
+      if(scheme == Scheme.UpperConfidenceBound)
+         qualities[i] += (reward - qualities[i]) / uses[i];
+      else
+         qualities[i] += adaptationRate * (reward - qualities[i]);
+      updateProbabilities();
+      last = -1;
+      changers.get(i).feedback(change, improved);
+   }
+
+   /**
+    * Generates, executes and returns a new change, by invoking one of its underlying changers.
+    * Changers that are unable to make a change are left out until another changer succeeds, or all changers failed.
+    * O(c) per attempted changer, where c is the number of underlying changers.
+    * @throws CannotChangeException To indicate none of the underlying changers were able to change the given search state.
+    */
+   @Override
+   public C makeChange(SingularSearchState<P, S> ss) throws CannotChangeException {
+      return invoke(ss, null);
+   }
+
+   /**
+    * Generates and executes a new change by invoking one of its underlying changers, and adds it to the given list.
+    * @see AdaptiveMultiChanger#makeChange(SingularSearchState)
+    * @throws CannotChangeException To indicate none of the underlying changers were able to change the given search state.
+    */
+   @Override
+   public C makeChange(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      return invoke(ss, changes);
+   }
+
+   /**
+    * Invokes one of the underlying changers, passing it the given change list if it is not <code>null</code>.
+    */
+   protected C invoke(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      Arrays.fill(failed, false);
+      for(int tries = 0; tries < changers.size(); tries++) {
+         int i = choose(ss.random());
+         try {
+            lastChange = (changes == null ? changers.get(i).makeChange(ss) : changers.get(i).makeChange(ss, changes));
+            last       = i;
+            uses[i]++;
+            totalUses++;
+            return lastChange;
+         }
+         catch(CannotChangeException ex) {
+            failed[i] = true;
+         }
+      }
+      last       = -1;
+      lastChange = null;
+      throw new CannotChangeException(this, "No eligible changers to choose from");
+   }
+
+   /**
+    * Returns the index of the changer to invoke next, leaving out the changers that failed.
+    */
+   protected int choose(SplittableRandom random) {
+      int n = changers.size();
+      if(scheme == Scheme.UpperConfidenceBound) {
+         int    best      = -1;
+         double bestBound = Double.NEGATIVE_INFINITY;
+         for(int i = 0; i < n; i++) {
+            if(failed[i])
+               continue;
+            if(uses[i] == 0)
+               return i;
+            double bound = qualities[i] + exploration * Math.sqrt(Math.log(totalUses) / uses[i]);
+            if(bound > bestBound) {
+               best      = i;
+               bestBound = bound;
+            }
+         }
+         return best;
+      }
+
+      // Roulette wheel selection over the changers that did not fail
+      double sum = 0d;
+      for(int i = 0; i < n; i++) {
+         if(!failed[i])
+            sum += probabilities[i];
+      }
+      double r = random.nextDouble() * sum;
+      int    i = -1;
+      for(int j = 0; j < n; j++) {
+         if(!failed[j]) {
+            i  = j;
+            r -= probabilities[j];
+            if(r < 0d)
+               break;
+         }
+      }
+      return i;
+   }
+
+   /**
+    * Derives the probabilities of choosing the changers from their qualities, after the quality of one of them was updated.
+    */
+   protected void updateProbabilities() {
+      int    n    = changers.size();
+      double pMin = minProbability / n,
+             pMax = 1d - (n - 1) * pMin;
+      switch(scheme) {
+         case ProbabilityMatching:
+            double sum = 0d;
+            for(int i = 0; i < n; i++) {
+               sum += qualities[i];
+            }
+            for(int i = 0; i < n; i++) {
+               probabilities[i] = (sum > 0d ? pMin + (1d - n * pMin) * qualities[i] / sum : 1d / n);
+            }
+            break;
+         case AdaptivePursuit:
+            int best = 0;
+            for(int i = 1; i < n; i++) {
+               if(qualities[i] > qualities[best])
+                  best = i;
+            }
+            for(int i = 0; i < n; i++) {
+               probabilities[i] += learningRate * ((i == best ? pMax : pMin) - probabilities[i]);
+            }
+            break;
+         case UpperConfidenceBound:
+            break;
+         default:
+            throw new IllegalStateException("Unknown instance of AdaptiveMultiChanger.Scheme: " + scheme);
+      }
+   }
+
+   /**
+    * Reinitialises this changer and all its underlying changers, forgetting the qualities learnt.
+    * @see Changer#reinitialise(Problem)
+    */
+   @Override
+   public void reinitialise(P problem) {
+      for(Changer<P, S, C> c : changers) {
+         c.reinitialise(problem);
+      }
+      int n = changers.size();
+      Arrays.fill(qualities, 0d);
+      Arrays.fill(probabilities, 1d / n);
+      Arrays.fill(uses, 0l);
+      Arrays.fill(improvements, 0l);
+      totalUses  = 0;
+      last       = -1;
+      lastChange = null;
+   }
+}
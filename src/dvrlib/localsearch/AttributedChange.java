@@ -0,0 +1,34 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * AttributedChange.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * Optional interface for changes that can describe themselves by an attribute, as used by the tabu list of <code>TabuSearchLS</code>.
+ * A change and the change that would revert it should have equal attributes, so that forbidding the attribute prevents the search from undoing the change.
+ * This interface can also be implemented by a <code>RecordingChanger</code>, in which case it refers to the last change the changer made.
+ * For example, a change swapping the elements at two indices could use the pair of indices, ordered, as attribute.
+ * @see TabuSearchLS
+ */
+public interface AttributedChange {
+   /**
+    * Returns the attribute of this change, which should implement <code>equals</code> and <code>hashCode</code>.
+    */
+   public Object attribute();
+}
@@ -0,0 +1,263 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * Budget.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Budget bounds the resources of a search: a deadline on <code>System.nanoTime()</code>, a maximum number of evaluations, or both.
+ * It can also be cancelled by another thread.
+ * Search algorithms call <code>exhausted()</code> every iteration, but the clock is only read every <code>stride</code> calls.
+ * The stride adapts to the measured duration of an iteration, so the clock is read about every <code>checkInterval</code> nanoseconds,
+ *    and more often when the deadline is near.
+ * A budget is meant to be used by a single thread; threads of a parallel search each use their own fork of it.
+ * @see Budget#fork()
+ */
+public class Budget {
+   /** The default interval between two reads of the clock is 100 microseconds. */
+   public final static long defaultCheckInterval = 100000l;
+   /** The maximum number of calls to <code>exhausted()</code> between two checks. */
+   public final static int  maxStride            = 1 << 16;
+
+   protected final    Budget    parent;
+   protected final    LongAdder evaluations;
+   protected final    long      start,
+                                deadline,
+                                maxEvaluations,
+                                checkInterval;
+   protected final    boolean   timed;
+   protected volatile boolean   cancelled = false;
+   protected          boolean   exhausted = false;
+   protected          int       stride    = 1,
+                                countdown = 1;
+   protected          long      lastCheck;
+   protected          double    progress  = 0d;
+
+   /**
+    * Budget constructor.
+    * @param timeLimitNanos The number of nanoseconds after which this budget is exhausted, or a negative value for no time limit.
+    * @param maxEvaluations The number of evaluations after which this budget is exhausted, or a negative value for no limit.
+    */
+   public Budget(long timeLimitNanos, long maxEvaluations) {
+      this(timeLimitNanos, maxEvaluations, defaultCheckInterval);
+   }
+
+   /**
+    * Budget constructor.
+    * @param timeLimitNanos The number of nanoseconds after which this budget is exhausted, or a negative value for no time limit.
+    * @param maxEvaluations The number of evaluations after which this budget is exhausted, or a negative value for no limit.
+    * @param checkInterval  The number of nanoseconds aimed for between two checks.
+    */
+   public Budget(long timeLimitNanos, long maxEvaluations, long checkInterval) {
+      if(checkInterval < 1)
+         throw new IllegalArgumentException("checkInterval should be > 0");
+      this.parent         = null;
+      this.evaluations    = new LongAdder();
+      this.start          = System.nanoTime();
+      this.timed          = (timeLimitNanos >= 0);
+      this.deadline       = (timed ? saturatedAdd(start, timeLimitNanos) : Long.MAX_VALUE);
+      this.maxEvaluations = maxEvaluations;
+      this.checkInterval  = checkInterval;
+      lastCheck           = start;
+   }
+
+   protected Budget(Budget parent) {
+      this.parent         = parent;
+      this.evaluations    = parent.evaluations;
+      this.start          = parent.start;
+      this.timed          = parent.timed;
+      this.deadline       = parent.deadline;
+      this.maxEvaluations = parent.maxEvaluations;
+      this.checkInterval  = parent.checkInterval;
+      lastCheck           = System.nanoTime();
+   }
+
+   /**
+    * Returns a budget without limits, which is only exhausted when it is cancelled.
+    */
+   public static Budget unlimited() {
+      return new Budget(-1l, -1l);
+   }
+
+   /**
+    * Returns a budget that is exhausted after the given number of milliseconds, or never if it is negative.
+    */
+   public static Budget ofMillis(long timeLimit) {
+      return new Budget((timeLimit >= 0 ? millisToNanos(timeLimit) : -1l), -1l);
+   }
+
+   /**
+    * Returns a budget that is exhausted after the given number of evaluations.
+    */
+   public static Budget ofEvaluations(long maxEvaluations) {
+      if(maxEvaluations < 0)
+         throw new IllegalArgumentException("maxEvaluations should be >= 0");
+      return new Budget(-1l, maxEvaluations);
+   }
+
+   /**
+    * Returns a budget that is exhausted when <code>System.currentTimeMillis()</code> reaches the given value, or never if it is <code>Long.MAX_VALUE</code>.
+    */
+   public static Budget untilMillis(long maxTimeMillis) {
+      if(maxTimeMillis == Long.MAX_VALUE)
+         return unlimited();
+      return new Budget(millisToNanos(Math.max(0l, maxTimeMillis - System.currentTimeMillis())), -1l);
+   }
+
+   /**
+    * Returns a new budget with the same limits, which shares the evaluation count of this budget and is cancelled when this budget is cancelled.
+    * Cancelling the fork does not cancel this budget.
+    */
+   public Budget fork() {
+      return new Budget(this);
+   }
+
+   /**
+    * Cancels this budget and all its forks. This method may be called by any thread.
+    */
+   public void cancel() {
+      cancelled = true;
+   }
+
+   /**
+    * Returns whether this budget or any budget it was forked from was cancelled.
+    */
+   public boolean isCancelled() {
+      for(Budget b = this; b != null; b = b.parent) {
+         if(b.cancelled)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Records an evaluation of a solution.
+    * O(1).
+    */
+   public void evaluated() {
+      if(maxEvaluations >= 0)
+         evaluations.increment();
+   }
+
+   /**
+    * Returns the number of evaluations recorded by this budget and its forks, if it has an evaluation limit.
+    */
+   public long evaluations() {
+      return evaluations.sum();
+   }
+
+   /**
+    * Returns whether this budget is exhausted, checking its limits only every <code>stride</code> calls.
+    * Once this method returned <code>true</code>, it keeps doing so.
+    * O(1).
+    */
+   public boolean exhausted() {
+      if(exhausted)
+         return true;
+      if(--countdown > 0)
+         return false;
+      return check();
+   }
+
+   /**
+    * Returns whether this budget is exhausted, checking its limits immediately.
+    */
+   public boolean checkNow() {
+      return (exhausted || check());
+   }
+
+   /**
+    * Checks the limits of this budget, and adapts the stride to the time passed since the previous check.
+    */
+   protected boolean check() {
+      if(isCancelled())
+         return (exhausted = true);
+
+      long evaluated = (maxEvaluations >= 0 ? evaluations.sum() : 0l),
+           now       = System.nanoTime();
+      progress       = progress(now, evaluated);
+      if((maxEvaluations >= 0 && evaluated >= maxEvaluations) || (timed && now - deadline >= 0))
+         return (exhausted = true);
+
+      // Aim for the next check after checkInterval, or an eighth of the remaining time if that is shorter
+      long target  = (timed ? Math.min(checkInterval, (deadline - now) / 8) : checkInterval),
+           elapsed = now - lastCheck;
+      long next    = (elapsed <= 0 ? 2l * stride : stride * target / elapsed);
+      next         = Math.max(Math.max(1l, stride / 2), Math.min(2l * stride, next));
+      if(maxEvaluations >= 0)
+         next = Math.min(next, Math.max(1l, maxEvaluations - evaluated));
+      stride    = (int) Math.min(maxStride, next);
+      countdown = stride;
+      lastCheck = now;
+      return false;
+   }
+
+   /**
+    * Returns the sum of the given time and duration, or <code>Long.MAX_VALUE</code> if it does not fit in a long.
+    * As the time is at most the current time, a saturated deadline stays ahead of <code>System.nanoTime()</code> without wrapping around.
+    */
+   protected static long saturatedAdd(long time, long duration) {
+      return (time > Long.MAX_VALUE - duration ? Long.MAX_VALUE : time + duration);
+   }
+
+   /**
+    * Converts the given non-negative number of milliseconds to nanoseconds, saturating at <code>Long.MAX_VALUE</code>.
+    */
+   protected static long millisToNanos(long millis) {
+      return (millis > Long.MAX_VALUE / 1000000l ? Long.MAX_VALUE : millis * 1000000l);
+   }
+
+   /**
+    * Returns the fraction of this budget that was used, in the range [0,1], based on the time limit, or else on the evaluation limit.
+    * Returns 0 if this budget has no limits.
+    */
+   public double progress() {
+      return progress(System.nanoTime(), evaluations.sum());
+   }
+
+   /**
+    * Returns the fraction of this budget that was used when its limits were last checked, without reading the clock.
+    * It is updated every <code>stride</code> calls of <code>exhausted()</code>, so it lags behind <code>progress()</code> by at most one stride.
+    * O(1).
+    * @see Budget#progress()
+    */
+   public double checkedProgress() {
+      return progress;
+   }
+
+   /**
+    * Returns the fraction of this budget that was used at the given time, after the given number of evaluations.
+    * @see Budget#progress()
+    */
+   protected double progress(long now, long evaluated) {
+      if(timed)
+         return Math.min(1d, (double) (now - start) / Math.max(1l, deadline - start));
+      if(maxEvaluations > 0)
+         return Math.min(1d, (double) evaluated / maxEvaluations);
+      return (maxEvaluations == 0 ? 1d : 0d);
+   }
+
+   /**
+    * Returns the number of nanoseconds left before the deadline, or <code>Long.MAX_VALUE</code> if there is no time limit.
+    */
+   public long remainingNanos() {
+      return (timed ? Math.max(0l, deadline - System.nanoTime()) : Long.MAX_VALUE);
+   }
+}
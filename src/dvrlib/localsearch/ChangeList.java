@@ -1,6 +1,6 @@
 /*
  * DvRlib - Local search
- * Copyright (C) Duncan van Roermund, 2012
+ * Copyright (C) Duncan van Roermund, 2012-2013
  * ChangeList.java
  *
  * This program is free software: you can redistribute it and/or modify
@@ -19,44 +19,134 @@
 
 package dvrlib.localsearch;
 
+import java.util.Arrays;
+
+/**
+ * List of the changes made to a solution, which can be undone in reverse order.
+ * Entries are either change objects, or records written by a <code>RecordingChanger</code> into a reusable array of integers.
+ * The arrays backing this list grow when needed and are kept when it is cleared, so adding records does not allocate once the list is large enough.
+ * @see RecordingChanger
+ */
 public class ChangeList<P extends Problem<S, ? extends Comparable<?>>, S extends Solution> {
-   protected Changer<P, S, ?>.Change first, last;
-   protected int size = 0;
+   protected Object entries[];
+   protected int    ends[],
+                    data[];
+   protected int    size     = 0,
+                    dataSize = 0;
 
-   @SuppressWarnings("unchecked")
+   /**
+    * ChangeList constructor, using a default initial capacity.
+    */
+   public ChangeList() {
+      this(16, 64);
+   }
+
+   /**
+    * ChangeList constructor.
+    * @param capacity     The initial number of entries this list can hold.
+    * @param dataCapacity The initial number of integers of recorded data this list can hold.
+    */
+   public ChangeList(int capacity, int dataCapacity) {
+      entries = new Object[Math.max(1, capacity)];
+      ends    = new int[entries.length];
+      data    = new int[Math.max(1, dataCapacity)];
+   }
+
+   /**
+    * Adds the given change to the end of this list.
+    * O(1) amortised.
+    */
    public void add(Changer<P, S, ?>.Change change) {
-      if(size++ > 0) {
-         change.prev = (Changer.Change) last;
-         last.next   = (Changer.Change) change;
-         last        = (Changer.Change) change;
+      append(change);
+   }
+
+   /**
+    * Starts a new record of the given changer at the end of this list, to which its data can be written.
+    * O(1) amortised.
+    * @see ChangeList#write(int)
+    */
+   public void record(RecordingChanger<P, S> changer) {
+      append(changer);
+   }
+
+   /**
+    * Writes the given value to the last record of this list.
+    * O(1) amortised.
+    */
+   public void write(int value) {
+      if(dataSize == data.length)
+         data = Arrays.copyOf(data, 2 * data.length);
+      data[dataSize++] = value;
+      ends[size - 1]   = dataSize;
+   }
+
+   protected void append(Object entry) {
+      if(size == entries.length) {
+         entries = Arrays.copyOf(entries, 2 * entries.length);
+         ends    = Arrays.copyOf(ends, entries.length);
       }
-      else
-         first = last = change;
+      entries[size] = entry;
+      ends[size++]  = dataSize;
    }
 
+   /**
+    * Removes all entries from this list, without undoing them.
+    * O(size).
+    */
    public void clear() {
-      first = last = null;
-      size = 0;
+      Arrays.fill(entries, 0, size, null);
+      size     = 0;
+      dataSize = 0;
+   }
+
+   /**
+    * Removes the last entry from this list, without undoing it.
+    * O(1).
+    */
+   public void dropLast() {
+      if(size > 0) {
+         entries[--size] = null;
+         dataSize        = (size > 0 ? ends[size - 1] : 0);
+      }
+   }
+
+   /**
+    * Returns the last entry of this list: a change object or a recording changer, or <code>null</code> if this list is empty.
+    */
+   public Object lastEntry() {
+      return (size > 0 ? entries[size - 1] : null);
    }
 
    public int size() {
       return size;
    }
 
+   /**
+    * Undoes all entries in this list, from last to first, after which it is empty.
+    * O(size).
+    */
    public void undoAll(SingularSearchState<P, S> ss) {
-      if(size > 0) {
-         first.undo(ss);
-         first = null;
-         last  = null;
-         size  = 0;
+      while(size > 0) {
+         undoLast(ss);
       }
+      dataSize = 0;
    }
 
+   /**
+    * Undoes the last entry in this list and removes it.
+    * O(1) + O(undo).
+    */
+   @SuppressWarnings("unchecked")
    public void undoLast(SingularSearchState<P, S> ss) {
       if(size > 0) {
-         last.undo(ss);
-         last = last.prev;
-         size--;
+         Object entry = entries[--size];
+         int    from  = (size > 0 ? ends[size - 1] : 0);
+         if(entry instanceof RecordingChanger)
+            ((RecordingChanger<P, S>) entry).undoChange(ss, data, from, ends[size]);
+         else
+            ((Changer<P, S, ?>.Change) entry).undo(ss);
+         entries[size] = null;
+         dataSize      = from;
       }
    }
 }
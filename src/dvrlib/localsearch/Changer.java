@@ -21,15 +21,20 @@ package dvrlib.localsearch;
 
 public abstract class Changer<P extends Problem<S, ? extends Comparable<?>>, S extends Solution, C extends Changer<P, S, ?>.Change> {
    protected abstract class Change {
-      protected Change prev, next;
-
       /**
-       * Undoes this change by executing the appropriate recursive calls.
+       * Undoes this change.
        * This method should propagate as much of its functionality as possible to the enclosing Changer.
        */
       protected abstract void undo(SingularSearchState<P, S> ss);
    }
 
+   /**
+    * Reports whether the given change, which was made by this changer, improved the solution.
+    * Search algorithms call this method after evaluating a change, so adaptive changers can learn which changes are productive.
+    * The default implementation does nothing.
+    */
+   public void feedback(Changer<P, S, ?>.Change change, boolean improved) { }
+
    /**
     * Generates, executes and returns a new change.
     * The change should be small, such that it transforms the solution into one that closely resembles it.
@@ -38,6 +43,19 @@ public abstract class Changer<P extends Problem<S, ? extends Comparable<?>>, S e
     */
    public abstract C makeChange(SingularSearchState<P, S> ss) throws CannotChangeException;
 
+   /**
+    * Generates and executes a new change, and adds it to the end of the given change list.
+    * The default implementation adds the change object returned by <code>makeChange(ss)</code>; changers that record their changes in the list override this.
+    * @return The change, or <code>null</code> if it was recorded in the list without creating a change object.
+    * @see RecordingChanger
+    * @throws CannotChangeException To indicate this changer was unable to change the given search state.
+    */
+   public C makeChange(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      C change = makeChange(ss);
+      changes.add(change);
+      return change;
+   }
+
    /**
     * Reinitialises this changer; used when a new search is started.
     * @see LocalSearch#search(Problem, Solution)
@@ -0,0 +1,109 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * Checkpoint.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checkpoint holds the contents of a checkpoint file, from which a search can be resumed.
+ * @see Checkpointer#load()
+ * @see GeneticLS#resume(GeneticProblem, Checkpoint)
+ * @see SimulatedAnnealingLS#resume(Problem, Checkpoint)
+ */
+public class Checkpoint<S extends Solution> {
+   /**
+    * Defines the kind of search state a checkpoint was taken from.
+    */
+   public enum Kind { Genetic, Annealing };
+
+   protected final Kind    kind;
+   protected final long    iteration,
+                           lastImprovement;
+   protected final double  temperature;
+   protected final List<S> solutions,
+                           pool;
+
+   protected Checkpoint(Kind kind, long iteration, long lastImprovement, double temperature, List<S> solutions, List<S> pool) {
+      this.kind            = kind;
+      this.iteration       = iteration;
+      this.lastImprovement = lastImprovement;
+      this.temperature     = temperature;
+      this.solutions       = Collections.unmodifiableList(solutions);
+      this.pool            = Collections.unmodifiableList(pool);
+   }
+
+   /**
+    * Returns the kind of search state this checkpoint was taken from.
+    */
+   public Kind kind() {
+      return kind;
+   }
+
+   /**
+    * Returns the iteration the search was at.
+    */
+   public long iteration() {
+      return iteration;
+   }
+
+   /**
+    * Returns the iteration in which the last improvement was found.
+    */
+   public long lastImprovement() {
+      return lastImprovement;
+   }
+
+   /**
+    * Returns the temperature of a simulated annealing search, or <code>NaN</code> for other kinds of searches.
+    */
+   public double temperature() {
+      return temperature;
+   }
+
+   /**
+    * Returns the solutions of the search state; the population of a genetic search, or the current solution of a simulated annealing search.
+    */
+   public List<S> solutions() {
+      return solutions;
+   }
+
+   /**
+    * Returns the solutions that were in the solution pool of the problem.
+    */
+   public List<S> pool() {
+      return pool;
+   }
+
+   /**
+    * Saves the solutions of the checkpointed solution pool to the given problem.
+    * O(pool().size() * O(problem.saveSolution)).
+    */
+   public void restorePool(Problem<S, ?> problem) {
+      for(S s : pool) {
+         problem.saveSolution(s);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "Checkpoint[" + kind + ", iteration " + iteration + ", " + solutions.size() + " solutions, " + pool.size() + " pooled]";
+   }
+}
@@ -0,0 +1,228 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * Checkpointer.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkpointer writes snapshots of search states to a checkpoint file, from which the search can later be resumed.
+ * A snapshot is encoded into memory by the thread that takes it, which is cheap compared to the search itself; writing it to disk is left to the executor.
+ * Every snapshot is first written to a temporary file next to the checkpoint file, which then atomically replaces the checkpoint file,
+ *    so a crash while writing leaves the previous checkpoint intact.
+ * A snapshot that is overtaken by a newer one before it is written, is discarded.
+ * The file consists of a header, the iteration counters, the temperature, the solutions of the state and the solutions in the solution pool of the problem;
+ *    the solutions themselves are encoded by the given codec.
+ * Note that the sources of randomness of a search are not included, so a resumed search does not repeat the iterations the original search would have done.
+ * @see GeneticLS#setCheckpointer(Checkpointer, long)
+ * @see SimulatedAnnealingLS#setCheckpointer(Checkpointer, long)
+ */
+public class Checkpointer<S extends Solution> {
+   protected final static int   magic   = 0x44765243;
+   protected final static short version = 1;
+
+   protected final Path             path,
+                                    temp;
+   protected final SolutionCodec<S> codec;
+   protected final Executor         executor;
+   protected final AtomicLong       sequence = new AtomicLong();
+
+   /**
+    * Checkpointer constructor.
+    * @param path     The checkpoint file.
+    * @param codec    The codec used to encode the solutions.
+    * @param executor The executor the snapshots are written on, or <code>null</code> to write them on the calling thread.
+    *                 A single thread executor suffices; writes are serialised by this checkpointer anyway.
+    */
+   public Checkpointer(Path path, SolutionCodec<S> codec, Executor executor) {
+      if(path == null)
+         throw new IllegalArgumentException("path should not be null");
+      if(codec == null)
+         throw new IllegalArgumentException("codec should not be null");
+      this.path     = path;
+      this.temp     = path.resolveSibling(path.getFileName() + ".tmp");
+      this.codec    = codec;
+      this.executor = executor;
+   }
+
+   /**
+    * Returns the checkpoint file.
+    */
+   public Path path() {
+      return path;
+   }
+
+   /**
+    * Takes a snapshot of the population and iteration counters of the given genetic search state, and of the solution pool of its problem.
+    * @return A future that completes when the snapshot was written, or was discarded in favour of a newer one.
+    * O(n * O(codec.write)), where n is the number of solutions in the population and the pool.
+    */
+   public Future<Path> save(GeneticLS<S, ?>.SearchState state) {
+      return write(encode(Checkpoint.Kind.Genetic, state.iteration, state.lastImprovement, Double.NaN, state.population, pool(state.problem)));
+   }
+
+   /**
+    * Takes a snapshot of the current solution, temperature and iteration counter of the given simulated annealing search state, and of the solution pool of its problem.
+    * @return A future that completes when the snapshot was written, or was discarded in favour of a newer one.
+    * O(n * O(codec.write)), where n is the number of solutions in the pool.
+    */
+   public Future<Path> save(SimulatedAnnealingLS<?, S, ?>.SearchState state) {
+      return write(encode(Checkpoint.Kind.Annealing, state.iteration, state.iteration, state.temperature, Collections.singletonList(state.solution()), pool(state.problem)));
+   }
+
+   /**
+    * Reads the checkpoint file.
+    * @throws IOException If the file could not be read, or is not a checkpoint of a supported version and kind.
+    * O(n * O(codec.read)), where n is the number of solutions in the checkpoint.
+    */
+   public Checkpoint<S> load() throws IOException {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)));
+      if(in.readInt() != magic)
+         throw new IOException("Not a checkpoint file: " + path);
+      short v = in.readShort();
+      if(v != version)
+         throw new IOException("Unsupported checkpoint version " + v + " in " + path);
+
+      byte k = in.readByte();
+      if(k < 0 || k >= Checkpoint.Kind.values().length)
+         throw new IOException("Unknown checkpoint kind " + k + " in " + path);
+
+      Checkpoint.Kind kind            = Checkpoint.Kind.values()[k];
+      long            iteration       = in.readLong(),
+                      lastImprovement = in.readLong();
+      double          temperature     = in.readDouble();
+      ArrayList<S>    solutions       = readSolutions(in),
+                      pool            = readSolutions(in);
+      return new Checkpoint<S>(kind, iteration, lastImprovement, temperature, solutions, pool);
+   }
+
+   /**
+    * Encodes a snapshot with the given contents.
+    * O(n * O(codec.write)), where n is the number of solutions.
+    */
+   protected byte[] encode(Checkpoint.Kind kind, long iteration, long lastImprovement, double temperature, Collection<S> solutions, Collection<S> pool) {
+      try {
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 16 * (solutions.size() + pool.size()));
+         DataOutputStream      out   = new DataOutputStream(bytes);
+         out.writeInt(magic);
+         out.writeShort(version);
+         out.writeByte(kind.ordinal());
+         out.writeLong(iteration);
+         out.writeLong(lastImprovement);
+         out.writeDouble(temperature);
+         writeSolutions(out, solutions);
+         writeSolutions(out, pool);
+         out.flush();
+         return bytes.toByteArray();
+      }
+      catch(IOException ex) {
+         throw new IllegalStateException("Unable to encode checkpoint", ex);
+      }
+   }
+
+   protected void writeSolutions(DataOutputStream out, Collection<S> solutions) throws IOException {
+      out.writeInt(solutions.size());
+      for(S s : solutions) {
+         codec.write(s, out);
+      }
+   }
+
+   protected ArrayList<S> readSolutions(DataInputStream in) throws IOException {
+      int          n         = in.readInt();
+      ArrayList<S> solutions = new ArrayList<S>(n);
+      for(int i = 0; i < n; i++) {
+         solutions.add(codec.read(in));
+      }
+      return solutions;
+   }
+
+   /**
+    * Schedules the given snapshot to be written on the executor.
+    */
+   protected Future<Path> write(final byte snapshot[]) {
+      final long       seq  = sequence.incrementAndGet();
+      FutureTask<Path> task = new FutureTask<Path>(new Callable<Path>() {
+            @Override
+            public Path call() throws IOException {
+               store(seq, snapshot);
+               return path;
+            }
+         });
+      if(executor == null)
+         task.run();
+      else
+         executor.execute(task);
+      return task;
+   }
+
+   /**
+    * Writes the given snapshot to the temporary file, and moves it over the checkpoint file, unless a newer snapshot was already taken.
+    * In the latter case the newer snapshot is still to be written, or was written already.
+    */
+   protected synchronized void store(long seq, byte snapshot[]) throws IOException {
+      if(seq < sequence.get())
+         return;
+
+      FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      try {
+         ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+         while(buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         channel.force(true);
+      }
+      finally {
+         channel.close();
+      }
+
+      try {
+         Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch(AtomicMoveNotSupportedException ex) {
+         Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+   }
+
+   /**
+    * Returns the solution pool of the given problem, or an empty collection if it does not have one.
+    */
+   @SuppressWarnings("unchecked")
+   protected Collection<S> pool(Object problem) {
+      return (problem instanceof AbstractProblem ? ((AbstractProblem<S, ?>) problem).solutions() : Collections.<S>emptyList());
+   }
+}
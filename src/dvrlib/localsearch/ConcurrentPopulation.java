@@ -0,0 +1,317 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * ConcurrentPopulation.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * ConcurrentPopulation is a bounded population that can safely be shared by multiple search threads, such as the solution pool of a problem used by parallel workers.
+ * Once it is full, the evaluation of its worst solution is published in a volatile field, so offers of solutions that are not better are rejected without locking.
+ * As most offers made during a search are rejected, the lock guarding the solutions is only taken for the few that can be inserted.
+ * The best solution is published in a volatile field as well, so <code>peekBest()</code> does not lock either.
+ * Solutions are ordered according to the direction of the problem; iterators operate on a snapshot of this population, ordered best to worst.
+ * @see AbstractProblem#AbstractProblem(int, boolean)
+ */
+public class ConcurrentPopulation<S extends Solution, E extends Comparable<E>> extends Population<S> {
+   protected final Problem<S, E>          problem;
+   protected final TreeMap<E, HashSet<S>> tree;
+   protected final int                    sizeLim;
+   protected       int                    size      = 0;
+   protected volatile E                   threshold = null;
+   protected volatile S                   best      = null;
+
+   /**
+    * ConcurrentPopulation constructor.
+    * @param problem The problem used to evaluate and compare solutions; its evaluation should be thread-safe.
+    * @param sizeLim The maximum number of solutions kept.
+    */
+   public ConcurrentPopulation(final Problem<S, E> problem, int sizeLim) {
+      if(sizeLim < 1)
+         throw new IllegalArgumentException("sizeLim should be > 0");
+      this.problem = problem;
+      this.sizeLim = sizeLim;
+      tree = new TreeMap<E, HashSet<S>>(new Comparator<E>() {
+            @Override
+            public int compare(E e1, E e2) {
+               return (problem.better(e1, e2) ? 1 : (problem.better(e2, e1) ? -1 : 0));
+            }
+         });
+   }
+
+   /**
+    * Adds the given solution to this population if it is not already present.
+    * If this population is full, the solution is only added if it is better than the current worst, which is then removed.
+    * @return A boolean indicating whether the solution was actually added.
+    * O(log n) if the solution is added, O(1) + O(problem.evaluate) if it is rejected by the fast path.
+    */
+   @Override
+   public boolean add(S solution) {
+      E eval = evaluate(solution);
+      return (admits(eval) && insert(solution, eval));
+   }
+
+   /**
+    * Adds a copy of the given solution, if this population would accept it.
+    * Solutions that are not better than the current worst of a full population are rejected before they are copied, without locking.
+    * @see Population#addCopy(Solution, Problem)
+    */
+   @Override
+   public boolean addCopy(S solution, Problem<S, ?> copier) {
+      E eval = evaluate(solution);
+      return (admits(eval) && insert(copier.cloneSolution(solution), eval));
+   }
+
+   /**
+    * Returns whether a solution with the given evaluation could currently be added, without locking.
+    * Rejections are reported to the metrics, if set.
+    */
+   protected boolean admits(E eval) {
+      E t = threshold;
+      if(t == null || problem.better(eval, t))
+         return true;
+      if(metrics != null)
+         metrics.inserted(false);
+      return false;
+   }
+
+   /**
+    * Inserts the given solution with the given evaluation, checking again whether it is admitted now the lock is held.
+    * O(log n).
+    */
+   protected synchronized boolean insert(S solution, E eval) {
+      boolean added = (size < sizeLim || problem.better(eval, tree.firstKey()));
+      if(added) {
+         HashSet<S> set = tree.get(eval);
+         if(set == null) {
+            set = new HashSet<S>();
+            tree.put(eval, set);
+         }
+         added = set.add(solution);
+         if(added && ++size > sizeLim)
+            pop(tree.firstEntry());
+         publish();
+      }
+      if(metrics != null)
+         metrics.inserted(added);
+      return added;
+   }
+
+   /**
+    * Publishes the best solution, and the evaluation of the worst solution if this population is full.
+    */
+   protected void publish() {
+      best      = (size == 0 ? null : tree.lastEntry().getValue().iterator().next());
+      threshold = (size < sizeLim ? null : tree.firstKey());
+   }
+
+   /**
+    * Returns the evaluation of the given solution, using the evaluation cache of the problem if it has one.
+    * @see AbstractProblem#evaluateCached(Solution)
+    */
+   protected E evaluate(S solution) {
+      return (problem instanceof AbstractProblem ? ((AbstractProblem<S, E>) problem).evaluateCached(solution) : problem.evaluate(solution));
+   }
+
+   /**
+    * Removes all solutions from this population.
+    */
+   @Override
+   public synchronized void clear() {
+      tree.clear();
+      size = 0;
+      publish();
+   }
+
+   /**
+    * Returns whether the given solution is part of this population.
+    */
+   @Override
+   public boolean contains(S solution) {
+      E e = evaluate(solution);
+      synchronized(this) {
+         HashSet<S> set = tree.get(e);
+         return (set != null && set.contains(solution));
+      }
+   }
+
+   /**
+    * Returns true if this population contains no solutions.
+    */
+   @Override
+   public synchronized boolean isEmpty() {
+      return (size == 0);
+   }
+
+   /**
+    * Returns an iterator over a snapshot of the solutions of this population, ordered best to worst.
+    * Removing a solution through the iterator removes it from this population.
+    * O(n).
+    */
+   @Override
+   public Iterator<S> iterator() {
+      final Iterator<S> it = snapshot().iterator();
+      return new Iterator<S>() {
+            protected S last = null;
+
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public S next() {
+               return (last = it.next());
+            }
+
+            @Override
+            public void remove() {
+               if(last == null)
+                  throw new IllegalStateException();
+               ConcurrentPopulation.this.remove(last);
+               last = null;
+            }
+         };
+   }
+
+   /**
+    * Returns a list of the solutions in this population, ordered best to worst.
+    * O(n).
+    */
+   public synchronized ArrayList<S> snapshot() {
+      ArrayList<S> solutions = new ArrayList<S>(size);
+      for(HashSet<S> set : tree.descendingMap().values()) {
+         solutions.addAll(set);
+      }
+      return solutions;
+   }
+
+   /**
+    * Returns but does not remove the best solution in this population, without locking.
+    */
+   @Override
+   public S peekBest() {
+      return best;
+   }
+
+   /**
+    * Returns but does not remove the worst solution in this population.
+    */
+   @Override
+   public synchronized S peekWorst() {
+      return (size == 0 ? null : tree.firstEntry().getValue().iterator().next());
+   }
+
+   /**
+    * Removes and returns the best solution in this population.
+    */
+   @Override
+   public synchronized S popBest() {
+      S s = pop(tree.lastEntry());
+      publish();
+      return s;
+   }
+
+   /**
+    * Removes and returns the worst solution in this population.
+    */
+   @Override
+   public synchronized S popWorst() {
+      S s = pop(tree.firstEntry());
+      publish();
+      return s;
+   }
+
+   /**
+    * Removes and returns one solution from the given entry of the tree.
+    */
+   protected S pop(Entry<E, HashSet<S>> e) {
+      if(e == null)
+         return null;
+      if(e.getValue().size() == 1)
+         tree.remove(e.getKey());
+      S s = e.getValue().iterator().next();
+      e.getValue().remove(s);
+      size--;
+      return s;
+   }
+
+   /**
+    * Removes the given solution from this population.
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   public boolean remove(Object o) {
+      if(!(o instanceof Solution))
+         return false;
+      S s = (S) o;
+      E e = evaluate(s);
+      synchronized(this) {
+         HashSet<S> set = tree.get(e);
+         if(set == null || !set.remove(s))
+            return false;
+         if(set.isEmpty())
+            tree.remove(e);
+         size--;
+         publish();
+         return true;
+      }
+   }
+
+   /**
+    * Clears this population, retaining only the given number of best solutions.
+    * O(n - k) for k retained solutions.
+    */
+   @Override
+   public synchronized void retainBest(int n) {
+      while(size > Math.max(n, 0)) {
+         pop(tree.firstEntry());
+      }
+      publish();
+   }
+
+   /**
+    * Returns the number of solutions in this population.
+    */
+   @Override
+   public synchronized int size() {
+      return size;
+   }
+
+   /**
+    * Returns an array containing the solutions in this population, ordered best to worst.
+    */
+   @Override
+   public Object[] toArray() {
+      return snapshot().toArray();
+   }
+
+   /**
+    * Returns an array containing the solutions in this population, ordered best to worst; the runtime type of the returned array is that of the specified array.
+    */
+   @Override
+   public <T> T[] toArray(T[] a) {
+      return snapshot().toArray(a);
+   }
+}
@@ -0,0 +1,36 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * DeltaChange.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * Optional interface for changes that can determine the evaluation of the changed solution without evaluating it entirely.
+ * This interface can also be implemented by a <code>RecordingChanger</code>, in which case it refers to the last change the changer made.
+ * When a change implements this interface, the search algorithms use it instead of <code>Problem.evaluate</code>,
+ *    falling back to a full evaluation if it returns <code>null</code>.
+ * @see LocalSearch#evaluate(SearchState, Changer.Change, Comparable)
+ */
+public interface DeltaChange<E extends Comparable<E>> {
+   /**
+    * Returns the evaluation of the solution after this change was made, given its evaluation before the change.
+    * This method is called right after the change was made, before any other change.
+    * @return The new evaluation, or <code>null</code> if it cannot be determined from the change alone.
+    */
+   public E evaluation(E before);
+}
@@ -0,0 +1,198 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * EvaluationCache.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of solution evaluations, keyed by the identity and modification stamp of the solutions.
+ * Only solutions implementing <code>StampedSolution</code> are cached; others are always evaluated.
+ * When the cache is full, the least recently used evaluation is evicted.
+ * The lock of this cache only guards the map and the recency list; the counters are <code>LongAdder</code>s, so evaluations bypassing the cache take no lock at all.
+ * @see StampedSolution
+ */
+public class EvaluationCache<S extends Solution, E extends Comparable<E>> {
+   protected class Node {
+      protected S    solution;
+      protected long stamp;
+      protected E    eval;
+      protected Node prev, next;
+   }
+
+   protected final Problem<S, E>            problem;
+   protected final IdentityHashMap<S, Node> nodes;
+   protected final int                      capacity;
+   protected final LongAdder                hits     = new LongAdder(),
+                                            misses   = new LongAdder(),
+                                            bypasses = new LongAdder();
+   protected       Node                     first    = null,
+                                            last     = null;
+
+   /**
+    * EvaluationCache constructor.
+    * @param problem  The problem used to evaluate solutions that are not in the cache.
+    * @param capacity The maximum number of evaluations kept.
+    */
+   public EvaluationCache(Problem<S, E> problem, int capacity) {
+      if(capacity < 1)
+         throw new IllegalArgumentException("capacity should be > 0");
+      this.problem  = problem;
+      this.capacity = capacity;
+      nodes         = new IdentityHashMap<S, Node>(capacity);
+   }
+
+   /**
+    * Returns the evaluation of the given solution, evaluating it only if it is not in the cache or was modified since.
+    * The lock of this cache is not held while the problem evaluates a solution, so concurrent evaluations do not wait for each other.
+    * O(1) + O(problem.evaluate) on a miss.
+    */
+   public E evaluate(S s) {
+      if(!(s instanceof StampedSolution)) {
+         bypasses.increment();
+         return problem.evaluate(s);
+      }
+
+      long stamp = ((StampedSolution) s).modificationStamp();
+      E    eval  = lookup(s, stamp);
+      if(eval != null) {
+         hits.increment();
+         return eval;
+      }
+
+      misses.increment();
+      eval = problem.evaluate(s);
+      store(s, stamp, eval);
+      return eval;
+   }
+
+   /**
+    * Returns the cached evaluation of the given solution with the given stamp, marking it as most recently used, or <code>null</code> if it is not cached.
+    * O(1).
+    */
+   protected synchronized E lookup(S s, long stamp) {
+      Node node = nodes.get(s);
+      if(node == null || node.stamp != stamp)
+         return null;
+      unlink(node);
+      linkFirst(node);
+      return node.eval;
+   }
+
+   /**
+    * Stores the given evaluation of the given solution, evicting the least recently used evaluation if this cache is full.
+    * O(1).
+    */
+   protected synchronized void store(S s, long stamp, E eval) {
+      Node node = nodes.get(s);
+      if(node != null)
+         unlink(node);
+      else if(nodes.size() >= capacity) {
+         // Recycle the least recently used node
+         node = last;
+         unlink(node);
+         nodes.remove(node.solution);
+      }
+      else
+         node = new Node();
+
+      node.solution = s;
+      node.stamp    = stamp;
+      node.eval     = eval;
+      nodes.put(s, node);
+      linkFirst(node);
+   }
+
+   /**
+    * Removes all evaluations from this cache.
+    */
+   public synchronized void clear() {
+      nodes.clear();
+      first = last = null;
+   }
+
+   /**
+    * Resets the hit, miss and bypass counters.
+    */
+   public void resetCounters() {
+      hits.reset();
+      misses.reset();
+      bypasses.reset();
+   }
+
+   /**
+    * Returns the number of evaluations that were answered from this cache.
+    */
+   public long hits() {
+      return hits.sum();
+   }
+
+   /**
+    * Returns the number of evaluations of stamped solutions that were not in this cache.
+    */
+   public long misses() {
+      return misses.sum();
+   }
+
+   /**
+    * Returns the number of evaluations of solutions that could not be cached, as they do not implement <code>StampedSolution</code>.
+    */
+   public long bypasses() {
+      return bypasses.sum();
+   }
+
+   /**
+    * Returns the fraction of evaluations of stamped solutions that were answered from this cache.
+    */
+   public double hitRate() {
+      long h = hits.sum(),
+           m = misses.sum();
+      return (h + m == 0 ? 0d : (double) h / (h + m));
+   }
+
+   /**
+    * Returns the number of evaluations in this cache.
+    */
+   public synchronized int size() {
+      return nodes.size();
+   }
+
+   protected void linkFirst(Node node) {
+      node.prev = null;
+      node.next = first;
+      if(first != null)
+         first.prev = node;
+      first = node;
+      if(last == null)
+         last = node;
+   }
+
+   protected void unlink(Node node) {
+      if(node.prev != null)
+         node.prev.next = node.next;
+      else
+         first = node.next;
+      if(node.next != null)
+         node.next.prev = node.prev;
+      else
+         last = node.prev;
+      node.prev = node.next = null;
+   }
+}
@@ -19,7 +19,14 @@
 
 package dvrlib.localsearch;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * GeneticLS implements a genetic search algorithm in the localsearch framework.
@@ -34,10 +41,21 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
       protected long                 lastImprovement;
 
       protected SearchState(GeneticProblem<S, E> problem, GeneticPopulation<S> population) {
-         super(problem);
+         super(problem, newRandom());
          this.population = population;
       }
 
+      /**
+       * Creates a copy of the given state that shares its population, but uses the given source of randomness.
+       */
+      protected SearchState(SearchState state, SplittableRandom random) {
+         super(state.problem, random);
+         population      = state.population;
+         solution        = state.solution;
+         lastImprovement = state.lastImprovement;
+         iteration       = state.iteration;
+      }
+
       public GeneticPopulation<S> population() {
          return population;
       }
@@ -56,6 +74,9 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
                                      stopCount;
    protected ParentSelector<S>       parentSelector;
    protected OffspringSelector<S, E> offspringSelector;
+   protected ExecutorService         executor           = null;
+   protected Checkpointer<S>         checkpointer       = null;
+   protected long                    checkpointInterval = 0;
 
    /**
     * GeneticLS constructor.
@@ -87,6 +108,18 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
       this.additionalSelectionCount = additionalSelectionCount;
    }
 
+   /**
+    * Sets the checkpointer to which a snapshot of the search state is handed every <code>interval</code> generations.
+    * A <code>null</code> checkpointer disables checkpointing.
+    * @see GeneticLS#resume(GeneticProblem, Checkpoint)
+    */
+   public void setCheckpointer(Checkpointer<S> checkpointer, long interval) {
+      if(checkpointer != null && interval < 1)
+         throw new IllegalArgumentException("interval should be > 0");
+      this.checkpointer       = checkpointer;
+      this.checkpointInterval = interval;
+   }
+
    /**
     * Sets the number of best solutions that are copied over into the next generation without alteration, bypassing the combination and mutation.
     */
@@ -96,6 +129,19 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
       this.elitistSelectionCount = elitistSelectionCount;
    }
 
+   /**
+    * Sets the executor on which the offspring of a generation are created, or <code>null</code> to create them one after another.
+    * When an executor is set, all pairs of parents of a generation are combined and their offspring selected concurrently,
+    *    so the combiner, the offspring selector and the evaluation of the problem should be thread-safe.
+    * The offspring selector then gets the worst solution in the population at the start of the generation as bound.
+    * The offspring are still inserted into the population one after another in the order of the selected parents, so the result does not depend on scheduling.
+    * If the searching thread is interrupted while it waits for the offspring, the search stops, keeping the population of the previous generation.
+    * A <code>java.util.concurrent.ForkJoinPool</code> is a suitable executor.
+    */
+   public void setExecutor(ExecutorService executor) {
+      this.executor = executor;
+   }
+
    /**
     * Sets the maximum number of solutions to keep.
     */
@@ -119,8 +165,26 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
     * @see GeneticLS#search(GeneticLS.GLSSearchState)
     */
    @Override
-   protected S doSearch(GeneticProblem<S, E> problem, E bound, long maxTimeMillis, S solution) {
-      return iterate(newState(problem, solution), bound, maxTimeMillis).solution();
+   protected S doSearch(GeneticProblem<S, E> problem, E bound, Budget budget, S solution) {
+      return iterate(newState(problem, solution), bound, budget).solution();
+   }
+
+   /**
+    * Returns a search state resumed from the given checkpoint, with the checkpointed population and iteration counters.
+    * The solution pool of the problem is restored as well.
+    * @see GeneticLS#iterate(GeneticLS.SearchState, Comparable, Budget)
+    */
+   public SearchState resume(GeneticProblem<S, E> problem, Checkpoint<S> checkpoint) {
+      assert (problem    != null) : "Problem should not be null";
+      assert (checkpoint != null) : "Checkpoint should not be null";
+      if(checkpoint.kind() != Checkpoint.Kind.Genetic)
+         throw new IllegalArgumentException("Not a checkpoint of a genetic search: " + checkpoint.kind());
+
+      checkpoint.restorePool(problem);
+      SearchState state = newState(problem, checkpoint.solutions());
+      state.iteration       = checkpoint.iteration();
+      state.lastImprovement = checkpoint.lastImprovement();
+      return state;
    }
 
    /**
@@ -129,17 +193,25 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
     * @see GeneticLS#iterate(GeneticLS.GLSSearchState, Object, long, int)
     */
    public SearchState iterate(SearchState state, E bound, long maxTimeMillis) {
+      return iterate(state, bound, Budget.untilMillis(maxTimeMillis));
+   }
+
+   /**
+    * Searches for an optimal solution using the given search state until the budget is exhausted or no improvements are found, after which the best found solution is saved and the state is returned.
+    * @see GeneticLS#iterate(GeneticLS.SearchState, Comparable, long)
+    */
+   public SearchState iterate(SearchState state, E bound, Budget budget) {
       assert (state != null) : "State should not be null";
       assert (bound != null) : "Bound should not be null";
 
       combiner.reinitialise(state.problem);
       long n = stopCount;
       while(n > 0 && !state.problem.betterEq(state.solution(), bound)) {
-         iterate(state, bound, maxTimeMillis, n);
+         iterate(state, bound, budget, n);
          n = stopCount - (state.iteration - state.lastImprovement);
 
-         // Check the time limit
-         if(System.currentTimeMillis() >= maxTimeMillis)
+         // Check the time limit, and whether the search was interrupted
+         if(budget.exhausted() || Thread.currentThread().isInterrupted())
             break;
       }
       state.solution().setIterationCount(state.iterationCount());
@@ -150,56 +222,141 @@ public class GeneticLS<S extends Solution, E extends Comparable<E>> extends Stat
    /**
     * Does <code>n</code> iterations using the given search state, after which it is returned.
     * When a solution is found that is better or equal to the given bound, the search is stopped.
-    * @param maxTimeMillis The bound on System.currentTimeMillis().
+    * @param budget The budget of the search, which records an evaluation for every offspring.
     */
    @Override
-   public SearchState iterate(SearchState state, E bound, long maxTimeMillis, long n) {
-      E overallBestEval = (state.population.size() > 0 ? state.problem.evaluate(state.population.peekBest()) : null);
+   public SearchState iterate(SearchState state, E bound, Budget budget, long n) {
+      E overallBestEval = (state.population.size() > 0 ? evaluate(state.problem, state.population.peekBest()) : null);
       for(long stop = state.iteration + n; state.iteration < stop && !state.problem.betterEq(overallBestEval, bound); state.iteration++) {
+         // Take a snapshot of the state every checkpointInterval generations
+         if(checkpointer != null && state.iteration % checkpointInterval == 0)
+            checkpointer.save(state);
+
          // Select parent solutions for the next generation
          Iterable<S> parents = parentSelector.select(state, 2 * (populationSize + additionalSelectionCount - elitistSelectionCount));
 
+         // Generate new solutions concurrently, before the population is cleared, so it is kept when the search is interrupted
+         Iterator<S> offspring = (executor == null ? null : parallelOffspring(state, parents));
+         if(executor != null && offspring == null)
+            break;
+
          // Clear population, keeping only the elitists
          state.population.retainBest(elitistSelectionCount);
          E generationBestEval = (savingCriterion == LocalSearch.SavingCriterion.EveryImprovement &&
-                                 state.population.size() > 0 ? state.problem.evaluate(state.population.peekBest()) : null);
+                                 state.population.size() > 0 ? evaluate(state.problem, state.population.peekBest()) : null);
 
-         // Generate new solutions by combining the parents
-         java.util.Iterator<S> it = parents.iterator();
-         while(it.hasNext()) {
-            state.solution = offspringSelector.select(state, combiner.combine(state, it.next(), it.next()), (state.population.size() < populationSize ? null : state.population.peekWorst()));
+         // Generate new solutions one after another by combining the parents
+         if(offspring == null)
+            offspring = offspring(state, parents);
+         while(offspring.hasNext()) {
+            state.solution = offspring.next();
+            budget.evaluated();
             if(state.solution == null || state.population.contains(state.solution))
                continue;
+            E eval = evaluate(state.problem, state.solution);
 
             // Save the solution
-            if(savingCriterion == LocalSearch.SavingCriterion.EveryImprovement && state.problem.better(state.solution, generationBestEval)) {
+            if(savingCriterion == LocalSearch.SavingCriterion.EveryImprovement && state.problem.better(eval, generationBestEval)) {
                state.saveSolution();
-               generationBestEval = state.problem.evaluate(state.solution);
+               generationBestEval = eval;
             }
-            if(state.problem.better(state.solution, overallBestEval)) {
-               overallBestEval = state.problem.evaluate(state.solution);
+            if(state.problem.better(eval, overallBestEval)) {
+               overallBestEval = eval;
                state.lastImprovement = state.iteration;
                if(savingCriterion == LocalSearch.SavingCriterion.NewBest)
                   state.saveSolution();
             }
             if(state.population.add(state.solution)) {
+               state.accepted++;
                if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
                   state.saveSolution();
             }
 
             // Check the time limit
-            if(System.currentTimeMillis() >= maxTimeMillis)
+            if(budget.exhausted())
                break;
          }
+         report(state, overallBestEval, overallBestEval, Double.NaN);
 
          // Check the time limit
-         if(System.currentTimeMillis() >= maxTimeMillis)
+         if(budget.exhausted())
             break;
       }
       state.solution = null;
       return state;
    }
 
+   /**
+    * Returns an iterator over the offspring of the given parents, which combines the next pair of parents whenever the next offspring is requested.
+    * The offspring selector gets the worst solution in the population at that moment as bound.
+    */
+   protected Iterator<S> offspring(final SearchState state, Iterable<S> parents) {
+      final Iterator<S> it = parents.iterator();
+      return new Iterator<S>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public S next() {
+               return offspringSelector.select(state, combiner.combine(state, it.next(), it.next()), (state.population.size() < populationSize ? null : state.population.peekWorst()));
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+   }
+
+   /**
+    * Combines all pairs of the given parents concurrently on the executor, and returns an iterator over their offspring in the order of the parents.
+    * Every pair is combined using a copy of the state with its own source of randomness, split off in the order of the parents, so the offspring do not depend on scheduling.
+    * This method is called before the population is cleared for the next generation, so the offspring selector gets the worst solution that will be kept as bound.
+    * @return The iterator over the offspring, or <code>null</code> if the calling thread was interrupted, in which case its interrupt status is restored.
+    * @see GeneticLS#setExecutor(ExecutorService)
+    */
+   protected Iterator<S> parallelOffspring(final SearchState state, Iterable<S> parents) {
+      final S bound = (Math.min(state.population.size(), elitistSelectionCount) < populationSize ? null : state.population.peekWorst());
+      ArrayList<Callable<S>> tasks = new ArrayList<Callable<S>>();
+      Iterator<S> it = parents.iterator();
+      while(it.hasNext()) {
+         final S           p1   = it.next(),
+                           p2   = it.next();
+         final SearchState fork = new SearchState(state, state.random.split());
+         tasks.add(new Callable<S>() {
+               @Override
+               public S call() {
+                  return offspringSelector.select(fork, combiner.combine(fork, p1, p2), bound);
+               }
+            });
+      }
+
+      ArrayList<S> offspring = new ArrayList<S>(tasks.size());
+      try {
+         for(Future<S> f : executor.invokeAll(tasks)) {
+            offspring.add(f.get());
+         }
+      }
+      catch(InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         return null;
+      }
+      catch(ExecutionException ex) {
+         throw new IllegalStateException("Unable to create offspring", ex.getCause());
+      }
+      return offspring.iterator();
+   }
+
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations, or whether the search was interrupted.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount || Thread.currentThread().isInterrupted());
+   }
+
    @Override
    public SearchState newState(GeneticProblem<S, E> problem, S solution) {
       LinkedList<S> solutions = new LinkedList<S>();
@@ -19,16 +19,34 @@
 
 package dvrlib.localsearch;
 
+import java.util.SplittableRandom;
+
 public abstract class GeneticPopulation<S extends Solution> extends Population<S> {
    /**
     * Returns but does not remove a random solution from this population.
     * The chance a solution is chosen is equal for all solutions.
+    * @deprecated The choice cannot be reproduced; use <code>peekRandom(SplittableRandom)</code> with the source of randomness of the search state instead.
     */
+   @Deprecated
    public abstract S peekRandom();
 
+   /**
+    * Returns but does not remove a random solution from this population, chosen using the given source of randomness.
+    * The chance a solution is chosen is equal for all solutions.
+    */
+   public abstract S peekRandom(SplittableRandom random);
+
    /**
     * Returns but does not remove a random solution from this population.
     * The chance a solution is chosen is directly proportionate to its fitness score.
+    * @deprecated The choice cannot be reproduced; use <code>peekWeighted(SplittableRandom)</code> with the source of randomness of the search state instead.
     */
+   @Deprecated
    public abstract S peekWeighted();
+
+   /**
+    * Returns but does not remove a random solution from this population, chosen using the given source of randomness.
+    * The chance a solution is chosen is directly proportionate to its fitness score.
+    */
+   public abstract S peekWeighted(SplittableRandom random);
 }
@@ -19,107 +19,269 @@
 
 package dvrlib.localsearch;
 
-// TODO: Fix implementation and remove abstract modifier
-public abstract class GreatDelugeLS<P extends Problem<S, E>, S extends Solution, E extends Comparable<E>> extends StatefulLocalSearch<P, S, E, GreatDelugeLS<P, S, E>.SearchState> {
+/**
+ * GreatDelugeLS implements the great deluge algorithm in the localsearch framework.
+ * Changes are accepted if they improve the current solution, or if the resulting solution is at least as good as the water level.
+ * Every iteration, the water level is moved towards the bound by the <code>Decay</code> schedule, so the search gradually turns into a descent.
+ * To run several deluges concurrently from different starting solutions, use a <code>ParallelMultiStartLS</code> whose workers each create their own GreatDelugeLS.
+ * @see GreatDelugeLS.Decay
+ * @see ParallelMultiStartLS
+ */
+public class GreatDelugeLS<P extends Problem<S, E>, S extends Solution, E extends Number & Comparable<E>> extends StatefulLocalSearch<P, S, E, GreatDelugeLS<P, S, E>.SearchState> {
+   /**
+    * Schedule by which the water level is moved towards the bound.
+    */
+   public interface Decay {
+      /**
+       * Returns the water level for the next iteration of the given search state.
+       */
+      public double decay(GreatDelugeLS<?, ?, ?>.SearchState state);
+   }
+
+   /**
+    * Decay that moves the water level towards the bound by a fixed amount every iteration.
+    */
+   public static class LinearDecay implements Decay {
+      protected final double rate;
+
+      /**
+       * LinearDecay constructor.
+       * @param rate The amount by which the water level is moved every iteration.
+       */
+      public LinearDecay(double rate) {
+         if(rate < 0d)
+            throw new IllegalArgumentException("rate should be >= 0");
+         this.rate = rate;
+      }
+
+      @Override
+      public double decay(GreatDelugeLS<?, ?, ?>.SearchState state) {
+         double distance = state.target() - state.level();
+         return (Math.abs(distance) <= rate ? state.target() : state.level() + Math.signum(distance) * rate);
+      }
+   }
+
+   /**
+    * Decay that multiplies the distance between the water level and the bound by a fixed factor every iteration.
+    */
+   public static class ExponentialDecay implements Decay {
+      protected final double factor;
+
+      /**
+       * ExponentialDecay constructor.
+       * @param factor The factor by which the distance to the bound is multiplied every iteration, in the range [0,1].
+       */
+      public ExponentialDecay(double factor) {
+         if(factor < 0d || factor > 1d)
+            throw new IllegalArgumentException("factor should be in the range [0,1]");
+         this.factor = factor;
+      }
+
+      @Override
+      public double decay(GreatDelugeLS<?, ?, ?>.SearchState state) {
+         return state.target() + (state.level() - state.target()) * factor;
+      }
+   }
+
+   /**
+    * Decay that moves the water level linearly from its initial value to the bound over the budget of the search.
+    * The used fraction of the budget is only measured when the budget checks its limits, so this decay does not read the clock every iteration.
+    * If the budget has no limits, the water level is left unchanged.
+    */
+   public static class TimeBudgetDecay implements Decay {
+      @Override
+      public double decay(GreatDelugeLS<?, ?, ?>.SearchState state) {
+         return state.initialLevel() + (state.target() - state.initialLevel()) * state.progress();
+      }
+   }
+
    public class SearchState extends SingularSearchState<P, S> {
-      protected ChangeList<P, S> changes;
-      protected E                tolerance;
+      protected final ChangeList<P, S> changes         = new ChangeList<P, S>();
+      protected       E                eval,
+                                       bestEval;
+      protected       S                best            = null;
+      protected       boolean          keepBest        = false;
+      protected       double           initialLevel,
+                                       level,
+                                       progress        = 0d,
+                                       target          = 0d;
+      protected       long             lastImprovement = 0;
+
+      protected SearchState(P problem, S solution) {
+         super(problem, solution, newRandom());
+         eval         = problem.evaluate(this);
+         bestEval     = eval;
+         initialLevel = eval.doubleValue();
+         level        = initialLevel;
+      }
 
-      protected SearchState(P problem, S solution, E tolerance) {
-         super(problem, solution);
-         this.tolerance = tolerance;
+      /**
+       * Returns the water level at the start of the search.
+       */
+      public double initialLevel() {
+         return initialLevel;
+      }
+
+      /**
+       * Returns the current water level.
+       */
+      public double level() {
+         return level;
+      }
+
+      /**
+       * Returns the fraction of the budget of the search that was used when it was last checked, or 0 if it has no limits.
+       * @see Budget#checkedProgress()
+       */
+      public double progress() {
+         return progress;
+      }
+
+      /**
+       * Returns the value towards which the water level decays, which is the bound of the search.
+       */
+      public double target() {
+         return target;
       }
    }
 
    protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changer;
-   protected final E                                                initTolerance;
+   protected       Decay                                            decay;
+   protected       int                                              stopCount;
 
    /**
     * GreatDelugeLS constructor.
-    * @param changer The changer used when searching for a solution.
+    * @param changer   The changer used when searching for a solution.
+    * @param decay     The schedule by which the water level is moved towards the bound.
+    * @param stopCount The number of iterations in which no better solution was found after which the search will stop.
     * O(1).
     */
-   public GreatDelugeLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, E initTolerance) {
-      this.changer       = changer;
-      this.initTolerance = initTolerance;
+   public GreatDelugeLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, Decay decay, int stopCount) {
+      this.changer = changer;
+      setDecay(decay);
+      setStopCount(stopCount);
+   }
+
+   /**
+    * Sets the schedule by which the water level is moved towards the bound.
+    */
+   public void setDecay(Decay decay) {
+      if(decay == null)
+         throw new IllegalArgumentException("decay should not be null");
+      this.decay = decay;
    }
 
    /**
-    * Decays the tolerance value in the given state.
+    * Sets the number of iterations in which no better solution was found after which the search will stop.
     */
-   public abstract void decay(SearchState state); // TODO: This method should be moved to a sub-interface of Problem
+   public void setStopCount(int stopCount) {
+      if(stopCount < 1)
+         throw new IllegalArgumentException("stopCount should be > 0");
+      this.stopCount = stopCount;
+   }
 
    /**
     * Searches for an optimal solution for the given problem, starting from the given solution, which is saved and returned.
-    * This algorithm keeps generating changes for the solution while it can be improved over the tolerance.
+    * This algorithm keeps generating changes for the solution until no better solution was found in <code>stopCount</code> iterations.
     * When a solution is found that is better or equal to the given bound, the search is stopped.
-    * @see GreatDelugeLS#iterate(GreatDelugeLS.GDSearchState, int)
+    * @see GreatDelugeLS#iterate(GreatDelugeLS.SearchState, Number, Budget, long)
     */
    @Override
-   protected S doSearch(P problem, E bound, long maxTimeMillis, S solution) {
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
       SearchState state = newState(problem, solution);
-      iterate(state, bound, maxTimeMillis, -1).saveSolution(); // TODO: Determine a good stopping criterium for this LS method.
+      iterate(state, bound, budget, -1);
+
+      // Undo the changes since the last improvement, reverting to the best known solution
+      state.changes.undoAll(state);
+      state.eval = state.bestEval;
+
+      state.saveSolution();
       state.solution.setIterationCount(state.iterationCount());
       return state.solution();
    }
 
    /**
     * Searches for an optimal solution using the given search state, with a maximum of <code>n</code> iterations, after which the state is returned.
-    * @see GreatDelugeLS#iterate(Solution)
+    * A negative value of <code>n</code> indicates the search continues until no improvement was found in <code>stopCount</code> iterations.
+    * The current solution and the water level are kept in the state, so a search that is continued by another call resumes where it left off.
+    * @see GreatDelugeLS#bestSolution(GreatDelugeLS.SearchState)
     */
    @Override
-   public SearchState iterate(SearchState state, E bound, long maxTimeMillis, long n) {
-      if(n < 0)
-         throw new IllegalArgumentException("The number of requested operations should not be less than zero");
-
-      E best = state.problem.evaluate(state), current = best;
+   public SearchState iterate(SearchState state, E bound, Budget budget, long n) {
+      int direction = LocalSearch.asNumber(state.problem.direction());
+      state.target  = bound.doubleValue();
 
       try {
-         // Keep mutating as long as the maximum number of iterations has not been reached
-         // TODO: Add another stopping criterium, in order to support n < 0
-         for(int i = 0; i < n && !state.problem.betterEq(current, bound); i++, state.iteration++) {
-            state.changes.add(changer.makeChange(state));
-            current = state.problem.evaluate(state);
+         for(long stop = state.iteration + n; (n < 0 ? state.iteration - state.lastImprovement < stopCount : state.iteration < stop) && !state.problem.betterEq(state.bestEval, bound); state.iteration++) {
+            Changer<P, S, ?>.Change change = makeChange(changer, state, state.changes);
+            E newEval = evaluate(state, state.changes, state.eval);
+            budget.evaluated();
 
             if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
                state.saveSolution();
 
-            if(state.problem.better(current, state.tolerance)) { // Keep the change
-               if(savingCriterion == LocalSearch.SavingCriterion.EveryImprovement)
+            boolean improved = state.problem.better(newEval, state.eval);
+            changer.feedback(change, improved);
+            if(improved || (newEval.doubleValue() - state.level) * direction >= 0d) { // Keep the change
+               state.eval = newEval;
+               state.accepted++;
+               moved(changer, true);
+               if(improved && savingCriterion == LocalSearch.SavingCriterion.EveryImprovement)
                   state.saveSolution();
 
-               if(state.problem.better(current, best)) {
-                  best = current;
+               if(state.problem.betterEq(newEval, state.bestEval)) {
                   state.changes.clear();
-
-                  if(savingCriterion == LocalSearch.SavingCriterion.NewBest)
-                     state.saveSolution();
+                  if(state.problem.better(newEval, state.bestEval)) {
+                     state.bestEval        = newEval;
+                     state.lastImprovement = state.iteration;
+                     if(state.keepBest)
+                        state.best = state.problem.cloneSolution(state.solution);
+                     if(savingCriterion == LocalSearch.SavingCriterion.NewBest)
+                        state.saveSolution();
+                  }
                }
-
-               decay(state);
             }
-            else // Revert the change
+            else { // Revert the change
                state.changes.undoLast(state);
+               moved(changer, false);
+            }
 
-            // Check the time limit
-            if(System.currentTimeMillis() >= maxTimeMillis)
+            // Check the time limit, and move the water level using the fraction of the budget that was used
+            boolean exhausted = budget.exhausted();
+            state.progress    = budget.checkedProgress();
+            state.level       = decay.decay(state);
+            report(state, state.eval, state.bestEval, state.level);
+            if(exhausted)
                break;
          }
       }
       catch(CannotChangeException _) { }
 
-      // Undo the changes since the last improvement, reverting to the best known solution
-      state.iteration -= state.changes.size();
-      state.changes.undoAll(state);
+      return state;
+   }
 
-      state.saveSolution();
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount);
+   }
 
-      return state;
+   /**
+    * Returns the best solution of the given state.
+    * As the current solution of the state may have moved away from the best solution, the state keeps a copy of every new best solution from the first call of this method on;
+    *    the asynchronous search calls it as soon as it created the state.
+    */
+   @Override
+   protected S bestSolution(SearchState state) {
+      state.keepBest = true;
+      return (state.changes.size() == 0 || state.best == null ? state.solution : state.best);
    }
 
    @Override
    public SearchState newState(P problem, S solution) {
       changer.reinitialise(problem);
-      return new SearchState(problem, solution, initTolerance);
+      return new SearchState(problem, solution);
    }
 }
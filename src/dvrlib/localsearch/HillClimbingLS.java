@@ -20,6 +20,17 @@
 package dvrlib.localsearch;
 
 public class HillClimbingLS<P extends BoundableProblem<S, E>, S extends Solution, E extends Comparable<E>> extends StatefulLocalSearch<P, S, E, SingularSearchState<P, S>> {
+   /**
+    * Search state of a hill climber, which owns the change list that is reused for every change.
+    */
+   public class SearchState extends SingularSearchState<P, S> {
+      protected final ChangeList<P, S> changes = new ChangeList<P, S>(1, 8);
+
+      protected SearchState(P problem, S solution) {
+         super(problem, solution, newRandom());
+      }
+   }
+
    protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changer;
 
    /**
@@ -38,9 +49,9 @@ public class HillClimbingLS<P extends BoundableProblem<S, E>, S extends Solution
     * @see LocalSearch#search(Problem, Comparable, Solution)
     */
    @Override
-   protected S doSearch(P problem, E bound, long maxTimeMillis, S solution) {
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
       SingularSearchState<P, S> state = newState(problem, solution);
-      iterate(state, bound, maxTimeMillis, -1).saveSolution();
+      iterate(state, bound, budget, -1).saveSolution();
       state.solution.setIterationCount(state.iterationCount());
       return state.solution();
    }
@@ -50,26 +61,31 @@ public class HillClimbingLS<P extends BoundableProblem<S, E>, S extends Solution
     *    after which the state is returned.
     * A negative value of <code>n</code> indicates there is no limit to the number of iterations.
     * When a solution is found that is better or equal to the given bound, the search is stopped.
+    * Changes are made into the change list of the state, if it was created by <code>newState</code>, so a <code>RecordingChanger</code> does not allocate.
     * @see StatefulLocalSearch#iterate(SearchState, Comparable, int)
     */
    @Override
-   public SingularSearchState<P, S> iterate(SingularSearchState<P, S> state, E bound, long maxTimeMillis, long n) {
-      Changer<P, S, ?>.Change change = null;
+   @SuppressWarnings("unchecked")
+   public SingularSearchState<P, S> iterate(SingularSearchState<P, S> state, E bound, Budget budget, long n) {
+      ChangeList<P, S> changes = (state instanceof HillClimbingLS.SearchState ? ((SearchState) state).changes : new ChangeList<P, S>(1, 8));
       E eOld = null, eNew = state.problem.evaluate(state);
 
       try {
          // Keep mutating as long as it improves the solution and the maximum number of iterations has not been reached
          for(long iMax = state.iteration + n; n < 0 || state.iteration < iMax; state.iteration++) {
             eOld = eNew;
-            // Change the solution
-            change = changer.makeChange(state);
+            // Change the solution, forgetting the previous change that was kept
+            changes.clear();
+            Changer<P, S, ?>.Change change = makeChange(changer, state, changes);
 
             // If the solution cannot be better that the current, break here
             if(!state.problem.better(state.problem.evaluationBound(state), eOld))
                break;
 
             // Evaluate the solution
-            eNew = state.problem.evaluate(state);
+            eNew = evaluate(state, changes, eOld);
+            budget.evaluated();
+            changer.feedback(change, state.problem.better(eNew, eOld));
 
             // Depending on the saving criterion, save the current solution
             if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
@@ -82,24 +98,37 @@ public class HillClimbingLS<P extends BoundableProblem<S, E>, S extends Solution
             // Depending on the saving criterion, save the current solution
             if(savingCriterion == LocalSearch.SavingCriterion.EveryImprovement || savingCriterion == LocalSearch.SavingCriterion.NewBest)
                state.saveSolution();
+            state.accepted++;
+            moved(changer, true);
+            report(state, eNew, eNew, Double.NaN);
 
             // Check the time limit
-            if(System.currentTimeMillis() >= maxTimeMillis)
+            if(budget.exhausted())
                break;
          }
       }
       catch(CannotChangeException _) { }
 
       // Undo the last change
-      if(state.problem.better(eOld, eNew))
-         change.undo(state);
+      if(state.problem.better(eOld, eNew)) {
+         changes.undoLast(state);
+         moved(changer, false);
+      }
 
       return state;
    }
 
+   /**
+    * Returns whether the last call of <code>iterate</code> stopped before doing the requested number of iterations, which it only does when a change did not improve the solution.
+    */
+   @Override
+   protected boolean converged(SingularSearchState<P, S> state, long iterations) {
+      return (iterations < chunkSize);
+   }
+
    @Override
    public SingularSearchState<P, S> newState(P problem, S solution) {
       changer.reinitialise(problem);
-      return new SingularSearchState<P, S>(problem, solution);
+      return new SearchState(problem, solution);
    }
 }
@@ -27,8 +27,6 @@ public abstract class IncrementalChanger<P extends Problem<S, ? extends Comparab
        */
       @Override
       protected final void undo(SingularSearchState<P, S> ss) {
-         if(next != null)
-            next.undo(ss);
          undoChange(ss, this);
       }
    }
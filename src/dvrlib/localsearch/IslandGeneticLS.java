@@ -0,0 +1,294 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * IslandGeneticLS.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * IslandGeneticLS evolves a number of populations concurrently, each with its own genetic search algorithm.
+ * Every <code>migrationInterval</code> generations the islands are paused, and clones of the <code>migrationCount</code> best solutions of every island
+ *    are added to the populations of its neighbours, as defined by the migration topology.
+ * Apart from this migration step, which is executed by the calling thread, the islands share no mutable state.
+ * The saving criterion of the island searches is set to <code>EndOnly</code>; solutions are saved to the problem by this class instead.
+ */
+public class IslandGeneticLS<S extends Solution, E extends Comparable<E>> extends StatefulLocalSearch<GeneticProblem<S, E>, S, E, IslandGeneticLS<S, E>.SearchState> {
+   /**
+    * Defines to which islands the best solutions of an island migrate.
+    *   Ring:           to the next island;
+    *   FullyConnected: to all other islands;
+    *   Random:         to a randomly chosen other island, every migration;
+    */
+   public enum Topology { Ring, FullyConnected, Random };
+
+   public class SearchState extends AbstractSearchState<GeneticProblem<S, E>, S> {
+      protected final ArrayList<GeneticLS<S, E>.SearchState> islands;
+      protected       S                                      best            = null;
+      protected       long                                   lastImprovement = 0;
+
+      protected SearchState(GeneticProblem<S, E> problem, ArrayList<GeneticLS<S, E>.SearchState> islands, SplittableRandom random) {
+         super(problem, random);
+         this.islands = islands;
+         for(GeneticLS<S, E>.SearchState island : islands) {
+            if(problem.better(island.solution(), best))
+               best = island.solution();
+         }
+      }
+
+      /**
+       * Returns the search state of the island with the given index.
+       */
+      public GeneticLS<S, E>.SearchState island(int i) {
+         return islands.get(i);
+      }
+
+      /**
+       * Returns the best solution found on any of the islands.
+       */
+      @Override
+      public S solution() {
+         return best;
+      }
+   }
+
+   protected final GeneticLS<S, E> searches[];
+   protected final ExecutorService executor;
+   protected       Topology        topology;
+   protected       int             migrationCount,
+                                   migrationInterval,
+                                   stopCount;
+
+   /**
+    * IslandGeneticLS constructor.
+    * @param searches          The genetic search algorithms of the islands; one for every island, so their selectors and combiners are not shared.
+    * @param executor          The executor the islands are run on, or <code>null</code> to run them one after another on the calling thread.
+    * @param topology          The migration topology.
+    * @param migrationInterval The number of generations between two migrations.
+    * @param migrationCount    The number of best solutions that migrate from every island.
+    * @param stopCount         The number of migration intervals in which no better solution was found after which the search will stop.
+    */
+   public IslandGeneticLS(GeneticLS<S, E> searches[], ExecutorService executor, Topology topology, int migrationInterval, int migrationCount, int stopCount) {
+      if(searches.length < 1)
+         throw new IllegalArgumentException("At least one island is needed");
+      this.searches = searches;
+      this.executor = executor;
+      for(GeneticLS<S, E> ls : searches) {
+         ls.setSavingCriterion(LocalSearch.SavingCriterion.EndOnly);
+      }
+      setTopology(topology);
+      setMigrationInterval(migrationInterval);
+      setMigrationCount(migrationCount);
+      setStopCount(stopCount);
+   }
+
+   /**
+    * Sets the number of best solutions that migrate from every island.
+    */
+   public void setMigrationCount(int migrationCount) {
+      if(migrationCount < 0)
+         throw new IllegalArgumentException("migrationCount should be >= 0");
+      this.migrationCount = migrationCount;
+   }
+
+   /**
+    * Sets the number of generations between two migrations.
+    */
+   public void setMigrationInterval(int migrationInterval) {
+      if(migrationInterval < 1)
+         throw new IllegalArgumentException("migrationInterval should be > 0");
+      this.migrationInterval = migrationInterval;
+   }
+
+   /**
+    * Sets the number of migration intervals in which no better solution was found after which the search will stop.
+    */
+   public void setStopCount(int stopCount) {
+      if(stopCount < 1)
+         throw new IllegalArgumentException("stopCount should be > 0");
+      this.stopCount = stopCount;
+   }
+
+   /**
+    * Sets the migration topology.
+    * @see IslandGeneticLS.Topology
+    */
+   public void setTopology(Topology topology) {
+      if(topology == null)
+         throw new IllegalArgumentException("topology should not be null");
+      this.topology = topology;
+   }
+
+   /**
+    * Searches for an optimal solution for the given problem, which is saved and returned.
+    * @see IslandGeneticLS#iterate(IslandGeneticLS.SearchState, Comparable, Budget, long)
+    */
+   @Override
+   protected S doSearch(GeneticProblem<S, E> problem, E bound, Budget budget, S solution) {
+      SearchState state = iterate(newState(problem, solution), bound, budget, -1);
+      state.best.setIterationCount(state.iterationCount());
+      state.saveSolution();
+      return state.solution();
+   }
+
+   /**
+    * Does <code>n</code> migration intervals using the given search state, after which it is returned.
+    * A negative value of <code>n</code> indicates the search continues until no improvement was found in <code>stopCount</code> intervals.
+    * When a solution is found that is better or equal to the given bound, the search is stopped.
+    */
+   @Override
+   public SearchState iterate(final SearchState state, final E bound, final Budget budget, long n) {
+      ArrayList<Callable<Object>> evolutions = new ArrayList<Callable<Object>>(searches.length);
+      for(int i = 0; i < searches.length; i++) {
+         final GeneticLS<S, E>             ls     = searches[i];
+         final GeneticLS<S, E>.SearchState island = state.islands.get(i);
+         final Budget                      fork   = budget.fork();
+         evolutions.add(new Callable<Object>() {
+               @Override
+               public Object call() {
+                  ls.iterate(island, bound, fork, migrationInterval);
+                  return null;
+               }
+            });
+      }
+
+      for(long interval = 0; (n < 0 ? state.iteration - state.lastImprovement < stopCount : interval < n) && !state.problem.betterEq(state.best, bound); interval++) {
+         // Evolve the islands
+         if(executor == null) {
+            for(int i = 0; i < searches.length; i++) {
+               searches[i].iterate(state.islands.get(i), bound, budget, migrationInterval);
+            }
+         }
+         else {
+            try {
+               for(Future<Object> f : executor.invokeAll(evolutions)) {
+                  f.get();
+               }
+            }
+            catch(InterruptedException ex) {
+               Thread.currentThread().interrupt();
+               break;
+            }
+            catch(ExecutionException ex) {
+               throw new IllegalStateException("An island of IslandGeneticLS failed", ex.getCause());
+            }
+         }
+         state.iteration++;
+
+         // Collect the best solution
+         for(GeneticLS<S, E>.SearchState island : state.islands) {
+            if(state.problem.better(island.solution(), state.best)) {
+               state.best            = island.solution();
+               state.lastImprovement = state.iteration;
+               if(savingCriterion == LocalSearch.SavingCriterion.NewBest || savingCriterion == LocalSearch.SavingCriterion.EveryImprovement)
+                  state.saveSolution();
+            }
+            if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
+               island.saveSolution();
+         }
+
+         // Exchange the best solutions between the islands
+         migrate(state);
+
+         // Check the time limit
+         if(budget.exhausted())
+            break;
+      }
+      return state;
+   }
+
+   /**
+    * Adds clones of the <code>migrationCount</code> best solutions of every island to the populations of its neighbours.
+    * All emigrants are selected before any of them is added, so solutions do not travel more than one island per migration.
+    */
+   protected void migrate(SearchState state) {
+      int count = state.islands.size();
+      if(count < 2 || migrationCount == 0)
+         return;
+
+      ArrayList<ArrayList<S>> emigrants = new ArrayList<ArrayList<S>>(count);
+      for(GeneticLS<S, E>.SearchState island : state.islands) {
+         ArrayList<S> es = new ArrayList<S>(migrationCount);
+         Iterator<S>  it = island.population.iterator();
+         for(int i = 0; i < migrationCount && it.hasNext(); i++) {
+            es.add(it.next());
+         }
+         emigrants.add(es);
+      }
+
+      for(int i = 0; i < count; i++) {
+         switch(topology) {
+            case Ring:
+               immigrate(state, emigrants.get(i), (i + 1) % count);
+               break;
+            case FullyConnected:
+               for(int j = 0; j < count; j++) {
+                  if(j != i)
+                     immigrate(state, emigrants.get(i), j);
+               }
+               break;
+            case Random:
+               int j = state.random.nextInt(count - 1);
+               immigrate(state, emigrants.get(i), (j < i ? j : j + 1));
+               break;
+            default:
+               throw new IllegalStateException("Unknown instance of IslandGeneticLS.Topology: " + topology);
+         }
+      }
+   }
+
+   /**
+    * Adds clones of the given solutions to the population of the indicated island.
+    */
+   protected void immigrate(SearchState state, Iterable<S> solutions, int island) {
+      GeneticPopulation<S> population = state.islands.get(island).population;
+      for(S s : solutions) {
+         population.add(state.problem.cloneSolution(s));
+      }
+   }
+
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount);
+   }
+
+   /**
+    * Returns a new search state, in which the first island starts from the given solution and the others from clones of it.
+    * The island searches are seeded from the source of randomness of the new state, so every island uses its own source.
+    */
+   @Override
+   public SearchState newState(GeneticProblem<S, E> problem, S solution) {
+      SplittableRandom                       random  = newRandom();
+      ArrayList<GeneticLS<S, E>.SearchState> islands = new ArrayList<GeneticLS<S, E>.SearchState>(searches.length);
+      for(int i = 0; i < searches.length; i++) {
+         searches[i].setSeed(random.nextLong());
+         searches[i].combiner.reinitialise(problem);
+         islands.add(searches[i].newState(problem, (i == 0 ? solution : problem.cloneSolution(solution))));
+      }
+      return new SearchState(problem, islands, random);
+   }
+}
@@ -0,0 +1,176 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * LateAcceptanceLS.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Arrays;
+
+/**
+ * LateAcceptanceLS implements late acceptance hill climbing in the localsearch framework.
+ * A change is accepted if the resulting solution is at least as good as the current solution, or as the current solution was <code>historyLength</code> iterations ago.
+ * Its only parameter is the length of this history, which is kept in a ring buffer of primitive values.
+ */
+public class LateAcceptanceLS<P extends Problem<S, E>, S extends Solution, E extends Number & Comparable<E>> extends StatefulLocalSearch<P, S, E, LateAcceptanceLS<P, S, E>.SearchState> {
+   public class SearchState extends SingularSearchState<P, S> {
+      protected final ChangeList<P, S> changes         = new ChangeList<P, S>();
+      protected final double           history[];
+      protected       E                eval,
+                                       bestEval;
+      protected       S                best            = null;
+      protected       boolean          keepBest        = false;
+      protected       long             lastImprovement = 0;
+
+      protected SearchState(P problem, S solution) {
+         super(problem, solution, newRandom());
+         eval     = problem.evaluate(this);
+         bestEval = eval;
+         history  = new double[historyLength];
+         Arrays.fill(history, eval.doubleValue());
+      }
+   }
+
+   protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changer;
+   protected final int                                              historyLength;
+   protected       int                                              stopCount;
+
+   /**
+    * LateAcceptanceLS constructor.
+    * @param changer       The changer used when searching for a solution.
+    * @param historyLength The number of iterations after which an evaluation is used for accepting changes.
+    * @param stopCount     The number of iterations in which no better solution was found after which the search will stop.
+    * O(1).
+    */
+   public LateAcceptanceLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, int historyLength, int stopCount) {
+      if(historyLength < 1)
+         throw new IllegalArgumentException("historyLength should be > 0");
+      this.changer       = changer;
+      this.historyLength = historyLength;
+      setStopCount(stopCount);
+   }
+
+   /**
+    * Sets the number of iterations in which no better solution was found after which the search will stop.
+    */
+   public void setStopCount(int stopCount) {
+      if(stopCount < 1)
+         throw new IllegalArgumentException("stopCount should be > 0");
+      this.stopCount = stopCount;
+   }
+
+   /**
+    * Searches for an optimal solution for the given problem, starting from the given solution, which is saved and returned.
+    * @see LateAcceptanceLS#iterate(LateAcceptanceLS.SearchState, Number, Budget, long)
+    */
+   @Override
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
+      SearchState state = newState(problem, solution);
+      iterate(state, bound, budget, -1);
+
+      // Undo the changes since the last improvement, reverting to the best known solution
+      state.changes.undoAll(state);
+      state.eval = state.bestEval;
+
+      state.saveSolution();
+      state.solution.setIterationCount(state.iterationCount());
+      return state.solution();
+   }
+
+   /**
+    * Searches for an optimal solution using the given search state, with a maximum of <code>n</code> iterations, after which the state is returned.
+    * A search never runs past <code>stopCount</code> iterations without improvement, so a negative value of <code>n</code> indicates the search continues until then.
+    * When a solution is found that is better or equal to the given bound, the search is stopped.
+    * The current solution and the history are kept in the state, so a search that is continued by another call resumes where it left off.
+    * @see LateAcceptanceLS#bestSolution(LateAcceptanceLS.SearchState)
+    */
+   @Override
+   public SearchState iterate(SearchState state, E bound, Budget budget, long n) {
+      int direction = LocalSearch.asNumber(state.problem.direction());
+
+      try {
+         for(long stop = state.iteration + n; state.iteration - state.lastImprovement < stopCount && (n < 0 || state.iteration < stop) && !state.problem.betterEq(state.bestEval, bound); state.iteration++) {
+            Changer<P, S, ?>.Change change = makeChange(changer, state, state.changes);
+            E newEval = evaluate(state, state.changes, state.eval);
+            budget.evaluated();
+            changer.feedback(change, state.problem.better(newEval, state.eval));
+
+            if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
+               state.saveSolution();
+
+            int v = (int) (state.iteration % historyLength);
+            if(state.problem.betterEq(newEval, state.eval) || (newEval.doubleValue() - state.history[v]) * direction >= 0d) { // Keep the change
+               if(savingCriterion == LocalSearch.SavingCriterion.EveryImprovement && state.problem.better(newEval, state.eval))
+                  state.saveSolution();
+               state.eval = newEval;
+               state.accepted++;
+               moved(changer, true);
+
+               if(state.problem.betterEq(newEval, state.bestEval)) {
+                  state.changes.clear();
+                  if(state.problem.better(newEval, state.bestEval)) {
+                     state.bestEval        = newEval;
+                     state.lastImprovement = state.iteration;
+                     if(state.keepBest)
+                        state.best = state.problem.cloneSolution(state.solution);
+                     if(savingCriterion == LocalSearch.SavingCriterion.NewBest)
+                        state.saveSolution();
+                  }
+               }
+            }
+            else { // Revert the change
+               state.changes.undoLast(state);
+               moved(changer, false);
+            }
+            state.history[v] = state.eval.doubleValue();
+            report(state, state.eval, state.bestEval, Double.NaN);
+
+            // Check the time limit
+            if(budget.exhausted())
+               break;
+         }
+      }
+      catch(CannotChangeException _) { }
+
+      return state;
+   }
+
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount);
+   }
+
+   /**
+    * Returns the best solution of the given state.
+    * As the current solution of the state may have moved away from the best solution, the state keeps a copy of every new best solution from the first call of this method on;
+    *    the asynchronous search calls it as soon as it created the state.
+    */
+   @Override
+   protected S bestSolution(SearchState state) {
+      state.keepBest = true;
+      return (state.changes.size() == 0 || state.best == null ? state.solution : state.best);
+   }
+
+   @Override
+   public SearchState newState(P problem, S solution) {
+      changer.reinitialise(problem);
+      return new SearchState(problem, solution);
+   }
+}
@@ -19,11 +19,17 @@
 
 package dvrlib.localsearch;
 
+import java.util.SplittableRandom;
+
 public abstract class LocalSearch<P extends Problem<S, E>, S extends Solution, E extends Comparable<E>> {
    public enum SavingCriterion { EveryIteration, EveryImprovement, NewBest, EndOnly };
    public enum SearchDirection { Maximisation, Minimisation };
 
-   protected SavingCriterion savingCriterion = SavingCriterion.NewBest;
+   protected SavingCriterion  savingCriterion = SavingCriterion.NewBest;
+   protected SplittableRandom random          = null;
+   protected long             seed            = 0l;
+   protected SearchMonitor<E> monitor         = null;
+   protected SearchMetrics    metrics         = null;
 
    public static final int asNumber(SearchDirection direction) {
       switch(direction) {
@@ -36,6 +42,138 @@ public abstract class LocalSearch<P extends Problem<S, E>, S extends Solution, E
       }
    }
 
+   /**
+    * Returns the evaluation of the current solution of the given search state, right after the given change was made to it.
+    * If the change implements <code>DeltaChange</code>, the evaluation is derived from the given evaluation before the change;
+    *    otherwise the solution is evaluated entirely.
+    * @see DeltaChange
+    */
+   protected E evaluate(SearchState<P, S> ss, Changer<P, S, ?>.Change change, E before) {
+      return evaluate(ss, (Object) change, before);
+   }
+
+   /**
+    * Returns the evaluation of the current solution of the given search state, right after the last entry of the given change list was made.
+    * @see LocalSearch#evaluate(SearchState, Changer.Change, Comparable)
+    */
+   protected E evaluate(SearchState<P, S> ss, ChangeList<P, S> changes, E before) {
+      return evaluate(ss, changes.lastEntry(), before);
+   }
+
+   /**
+    * Returns the evaluation of the given solution, which is counted if metrics are enabled.
+    * Search algorithms that evaluate solutions themselves, rather than changes, use this method so the evaluations show up in the metrics.
+    */
+   protected E evaluate(P problem, S s) {
+      long start = (metrics == null ? 0l : metrics.start());
+      E    e     = problem.evaluate(s);
+      if(metrics != null)
+         metrics.evaluated(start);
+      return e;
+   }
+
+   @SuppressWarnings("unchecked")
+   private E evaluate(SearchState<P, S> ss, Object change, E before) {
+      long start = (metrics == null ? 0l : metrics.start());
+      E    e     = null;
+      if(before != null && change instanceof DeltaChange)
+         e = ((DeltaChange<E>) change).evaluation(before);
+      if(e == null)
+         e = ss.problem().evaluate(ss);
+      if(metrics != null)
+         metrics.evaluated(start);
+      return e;
+   }
+
+   /**
+    * Lets the given changer make a change to the solution of the given search state, adding it to the given change list unless that is <code>null</code>.
+    * If metrics are enabled, the change or the failure to make one is counted.
+    * @see Changer#makeChange(SingularSearchState, ChangeList)
+    */
+   protected Changer<P, S, ?>.Change makeChange(Changer<P, S, ?> changer, SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      if(metrics == null)
+         return (changes == null ? changer.makeChange(ss) : changer.makeChange(ss, changes));
+      long start = metrics.start();
+      try {
+         Changer<P, S, ?>.Change change = (changes == null ? changer.makeChange(ss) : changer.makeChange(ss, changes));
+         metrics.proposed(changer, start);
+         return change;
+      }
+      catch(CannotChangeException ex) {
+         metrics.cannotChange(changer, start);
+         throw ex;
+      }
+   }
+
+   /**
+    * Records that a change made by the given changer was accepted, or undone, if metrics are enabled.
+    */
+   protected void moved(Changer<P, S, ?> changer, boolean accepted) {
+      if(metrics != null)
+         metrics.moved(changer, accepted);
+   }
+
+   /**
+    * Publishes an event describing the progress of the given search state to the monitor, if there is one and a sample is due after the current iteration.
+    * Search algorithms call this method at the end of every iteration, before the iteration counter is incremented; without a monitor it costs a single comparison.
+    * @param current The evaluation of the current solution.
+    * @param best    The evaluation of the best solution found.
+    * @param control The control parameter of the search, or <code>NaN</code> if it has none.
+    * @see SearchMonitor
+    */
+   protected void report(AbstractSearchState<P, S> ss, E current, E best, double control) {
+      if(monitor != null && monitor.due(ss.iteration + 1))
+         monitor.publish(new SearchEvent<E>(ss, ss.iteration + 1, ss.accepted, ss.elapsedNanos(), current, best, control));
+   }
+
+   /**
+    * Returns a new source of randomness for a search state.
+    * It is split off the seeded source, so searches started in the same order are reproducible.
+    * If no seed was set, an arbitrary seed is chosen and set first, which can be retrieved to reproduce the searches.
+    * This method should only be called by the thread that started the search.
+    * @see LocalSearch#setSeed(long)
+    * @see LocalSearch#seed()
+    */
+   protected SplittableRandom newRandom() {
+      if(random == null)
+         setSeed(new SplittableRandom().nextLong());
+      return random.split();
+   }
+
+   /**
+    * Returns the seed that was set last, or the arbitrary seed that was chosen if none was set; <code>0</code> before either happened.
+    * Setting it again makes the subsequent searches repeat the searches since it was set.
+    * @see LocalSearch#setSeed(long)
+    */
+   public long seed() {
+      return seed;
+   }
+
+   /**
+    * Sets the metrics to which subsequent searches report what they spend their time on, or <code>null</code> to disable metrics.
+    * @see SearchMetrics
+    */
+   public void setMetrics(SearchMetrics metrics) {
+      this.metrics = metrics;
+   }
+
+   /**
+    * Sets the monitor to which the progress of subsequent searches is reported, or <code>null</code> to stop reporting.
+    * @see SearchMonitor
+    */
+   public void setMonitor(SearchMonitor<E> monitor) {
+      this.monitor = monitor;
+   }
+
+   /**
+    * Sets the seed from which the sources of randomness of subsequent searches are derived.
+    * Given the same seed, and changers, combiners and problems that only use the randomness of the search state, a search yields the same results.
+    */
+   public void setSeed(long seed) {
+      this.seed = seed;
+      random    = new SplittableRandom(seed);
+   }
+
    /**
     * Sets the criterion for deciding when to save a solution back to the problem.
     * @see LocalSearch.SavingCriterion
@@ -69,16 +207,38 @@ public abstract class LocalSearch<P extends Problem<S, E>, S extends Solution, E
       assert (problem  != null) : "Problem should not be null";
       assert (bound    != null) : "Bound should not be null";
       assert (solution != null) : "Solution should not be null";
-      return doSearch(problem, bound, (timeLimit >= 0 ? timeLimit + System.currentTimeMillis() : Long.MAX_VALUE), solution);
+      return search(problem, bound, Budget.ofMillis(timeLimit), solution);
+   }
+
+   /**
+    * Searches for a solution for the given problem, starting from the given solution, until it reaches the bound or the given budget is exhausted.
+    * A budget can limit the time and the number of evaluations of a search, and can be used to cancel it from another thread.
+    * @param problem  The problem instance.
+    * @param bound    The target evaluation value.
+    * @param budget   The budget of the search.
+    * @param solution The starting solution.
+    * @see Budget
+    */
+   public S search(P problem, E bound, Budget budget, S solution) {
+      assert (problem  != null) : "Problem should not be null";
+      assert (bound    != null) : "Bound should not be null";
+      assert (budget   != null) : "Budget should not be null";
+      assert (solution != null) : "Solution should not be null";
+      if(metrics == null)
+         return doSearch(problem, bound, budget, solution);
+      long start = metrics.start();
+      S    s     = doSearch(problem, bound, budget, solution);
+      metrics.searched(start);
+      return s;
    }
 
    /**
     * Implementation of search(), overwritten by subclasses.
-    * @param problem       The problem instance.
-    * @param bound         The target value of the search.
-    * @param maxTimeMillis The time limit, i.e. the bound on System.currentTimeMillis().
-    * @param solution      The solution to start the search from.
-    * @see LocalSearch#search(Problem, Comparable, long, Solution)
+    * @param problem  The problem instance.
+    * @param bound    The target value of the search.
+    * @param budget   The budget of the search, which is checked every iteration.
+    * @param solution The solution to start the search from.
+    * @see LocalSearch#search(Problem, Comparable, Budget, Solution)
     */
-   protected abstract S doSearch(P problem, E bound, long maxTimeMillis, S solution);
+   protected abstract S doSearch(P problem, E bound, Budget budget, S solution);
 }
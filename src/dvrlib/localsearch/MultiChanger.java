@@ -19,12 +19,15 @@
 
 package dvrlib.localsearch;
 
-import dvrlib.container.WeightedTree;
+import dvrlib.container.FenwickSampler;
 
-import java.util.Hashtable;
+import java.util.ArrayList;
 
 public class MultiChanger<P extends Problem<S, ? extends Comparable<?>>, S extends Solution, C extends Changer<P, S, ?>.Change> extends Changer<P, S, C> {
-   protected final Hashtable<Changer<P, S, C>, Double> changers;
+   protected final ArrayList<Changer<P, S, C>> changers;
+   protected final FenwickSampler              sampler;
+   protected       Changer<P, S, C>            lastChanger = null;
+   protected       C                           lastChange  = null;
 
    /**
     * MultiChanger constructor.
@@ -32,39 +35,94 @@ public class MultiChanger<P extends Problem<S, ? extends Comparable<?>>, S exten
     * @see MultiChanger#add(Changer, double)
     */
    public MultiChanger() {
-      changers = new Hashtable<Changer<P, S, C>, Double>();
+      changers = new ArrayList<Changer<P, S, C>>();
+      sampler  = new FenwickSampler(4);
    }
 
    /**
     * Adds the given changer with the given weight to the set of underlying changers.
+    * If the changer was already added, its weight is updated instead.
+    * O(c), where c is the number of underlying changers.
     */
    public void add(Changer<P, S, C> changer, Double weight) {
-      changers.put(changer, weight);
+      int i = changers.indexOf(changer);
+      if(i < 0) {
+         changers.add(changer);
+         sampler.add(weight);
+      }
+      else
+         sampler.set(i, weight);
+   }
+
+   /**
+    * Forwards the feedback on the given change to the underlying changer that made it, if it was the last change made.
+    * @see Changer#feedback(Changer.Change, boolean)
+    */
+   @Override
+   public void feedback(Changer<P, S, ?>.Change change, boolean improved) {
+      if(change == lastChange && lastChanger != null)
+         lastChanger.feedback(change, improved);
    }
 
    /**
     * Generates, executes and returns a new change, by invoking one of its underlying changers.
+    * Changers that are unable to make a change are left out until another changer succeeds, or all changers failed.
+    * O(log c) per attempted changer, where c is the number of underlying changers.
+    * Changers are drawn from a Fenwick tree of their weights, in which the weights of changers that failed are temporarily set to zero.
     * @throws CannotChangeException To indicate none of the underlying changers were able to change the given search state.
     */
    @Override
    public C makeChange(SingularSearchState<P, S> ss) throws CannotChangeException {
-      WeightedTree<Changer<P, S, C>> tree = new WeightedTree<Changer<P, S, C>>();
-      for(java.util.Map.Entry<Changer<P, S, C>, Double> e : changers.entrySet()) {
-         tree.add(e.getValue(), e.getKey());
-      }
+      return invoke(ss, null);
+   }
 
-      while(tree.size() > 0) {
-         Changer<P, S, C> c = tree.getWeighted(Math.random()).b;
-         try {
-            return c.makeChange(ss);
+   /**
+    * Generates and executes a new change by invoking one of its underlying changers, and adds it to the given list.
+    * @see MultiChanger#makeChange(SingularSearchState)
+    * @throws CannotChangeException To indicate none of the underlying changers were able to change the given search state.
+    */
+   @Override
+   public C makeChange(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      return invoke(ss, changes);
+   }
+
+   /**
+    * Invokes one of the underlying changers, passing it the given change list if it is not <code>null</code>.
+    */
+   protected C invoke(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      int    failed[] = null,
+             f        = 0;
+      double saved[]  = null;
+      try {
+         while(f < changers.size() && sampler.totalWeight() > 0d) {
+            int              i = sampler.sample(ss.random());
+            Changer<P, S, C> c = changers.get(i);
+            try {
+               lastChange  = (changes == null ? c.makeChange(ss) : c.makeChange(ss, changes));
+               lastChanger = c;
+               return lastChange;
+            }
+            catch(CannotChangeException ex) {
+               assert (c == ex.changer);
+               if(failed == null) {
+                  failed = new int[changers.size()];
+                  saved  = new double[changers.size()];
+               }
+               failed[f]  = i;
+               saved[f++] = sampler.weight(i);
+               sampler.set(i, 0d);
+            }
          }
-         catch(CannotChangeException ex) {
-            assert (c == ex.changer);
-            if(!tree.remove(changers.get(c), c))
-               throw new IllegalStateException("Unable to remove changer");
+         lastChange  = null;
+         lastChanger = null;
+         throw new CannotChangeException(this, "No eligible changers to choose from");
+      }
+      finally {
+         // Restore the changers that failed
+         for(int j = 0; j < f; j++) {
+            sampler.set(failed[j], saved[j]);
          }
       }
-      throw new CannotChangeException(this, "No eligible changers to choose from");
    }
 
    /**
@@ -73,8 +131,10 @@ public class MultiChanger<P extends Problem<S, ? extends Comparable<?>>, S exten
     */
    @Override
    public void reinitialise(P problem) {
-      for(Changer<P, S, C> c : changers.keySet()) {
+      for(Changer<P, S, C> c : changers) {
          c.reinitialise(problem);
       }
+      lastChanger = null;
+      lastChange  = null;
    }
 }
@@ -47,10 +47,16 @@ public class MultiStartLS<S extends Solution, E extends Comparable<E>> extends L
     */
    @Override
    public S search(Problem<S, E> problem, E bound, long timeLimit) {
+      return search(problem, bound, Budget.ofMillis(timeLimit));
+   }
+
+   /**
+    * Searches for a solution for the given problem by applying the predefined search algorithm to multiple random solutions, sharing the given budget between the searches.
+    */
+   public S search(Problem<S, E> problem, E bound, Budget budget) {
       S bestSolution = problem.randomSolution();
-      long maxTimeMillis = (timeLimit >= 0 ? timeLimit + System.currentTimeMillis() : Long.MAX_VALUE);
-      for(int i = 0; i < count && !problem.betterEq(bestSolution, bound); i++) {
-         S newSolution = ls.search(problem, bound, maxTimeMillis - System.currentTimeMillis());
+      for(int i = 0; i < count && !problem.betterEq(bestSolution, bound) && !budget.exhausted(); i++) {
+         S newSolution = ls.search(problem, bound, budget, problem.randomSolution());
          if(problem.better(newSolution, bestSolution))
             bestSolution = newSolution;
       }
@@ -62,21 +68,20 @@ public class MultiStartLS<S extends Solution, E extends Comparable<E>> extends L
     */
    @Override
    public S search(Problem<S, E> problem, E bound, long timeLimit, S startSolution) {
-      S bestSolution = startSolution;
-      long maxTimeMillis = (timeLimit >= 0 ? timeLimit + System.currentTimeMillis() : Long.MAX_VALUE);
-      for(int i = 0; i < count && !problem.betterEq(bestSolution, bound); i++) {
-         S newSolution = ls.search(problem, bound, maxTimeMillis - System.currentTimeMillis(), problem.cloneSolution(startSolution));
-         if(problem.better(newSolution, bestSolution))
-            bestSolution = newSolution;
-      }
-      return bestSolution;
+      return doSearch(problem, bound, Budget.ofMillis(timeLimit), startSolution);
    }
 
    /**
-    * Required method for LocalSearch subclasses, not needed for this search strategy.
+    * Searches for a solution for the given problem by applying the predefined search algorithm to the given solution, sharing the given budget between the searches.
     */
    @Override
-   protected S doSearch(Problem<S, E> problem, E bound, long maxTimeMillis, S solution) {
-      throw new IllegalStateException();
+   protected S doSearch(Problem<S, E> problem, E bound, Budget budget, S startSolution) {
+      S bestSolution = startSolution;
+      for(int i = 0; i < count && !problem.betterEq(bestSolution, bound) && !budget.exhausted(); i++) {
+         S newSolution = ls.search(problem, bound, budget, problem.cloneSolution(startSolution));
+         if(problem.better(newSolution, bestSolution))
+            bestSolution = newSolution;
+      }
+      return bestSolution;
    }
 }
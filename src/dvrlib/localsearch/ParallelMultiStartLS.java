@@ -0,0 +1,182 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * ParallelMultiStartLS.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ParallelMultiStartLS runs the restarts of a multi-start search concurrently on an executor.
+ * Each worker obtains its own search algorithm and problem instance from a <code>WorkerFactory</code>, so changers and solution pools are never shared.
+ * All workers share one budget and one target bound; as soon as one of them reaches the bound, the budget is cancelled and the others stop as well.
+ * The best solution of every worker is saved to the original problem by the calling thread.
+ * Every restart is seeded with its own seed, drawn in advance from the source of randomness of this search, so a restart does not depend on the worker that runs it.
+ * A random start solution is derived from that seed as well if the problem implements <code>SeededProblem</code>;
+ *    otherwise it is generated by <code>randomSolution()</code> of the problem of the worker, and a seeded search is only reproducible if that is.
+ * @see LocalSearch#setSeed(long)
+ * @see SeededProblem
+ */
+public class ParallelMultiStartLS<S extends Solution, E extends Comparable<E>> extends LocalSearch<Problem<S, E>, S, E> {
+   public interface WorkerFactory<S extends Solution, E extends Comparable<E>> {
+      /**
+       * Returns a new search algorithm for a worker, with its own changer state.
+       */
+      public LocalSearch<Problem<S, E>, S, E> createSearch();
+
+      /**
+       * Returns the problem instance a worker will search on.
+       * Implementations may return the given problem if it can safely be used by multiple threads at once.
+       */
+      public Problem<S, E> createProblem(Problem<S, E> problem);
+   }
+
+   protected final WorkerFactory<S, E> factory;
+   protected final ExecutorService     executor;
+   protected final int                 count,
+                                       workerCount;
+
+   /**
+    * ParallelMultiStartLS constructor.
+    * @param factory     The factory used to create the search algorithm and problem of each worker.
+    * @param executor    The executor the workers are run on; a fixed thread pool, or a virtual-thread-per-task executor on JVMs that support it.
+    *                    The caller remains responsible for shutting it down.
+    * @param count       The total number of times to search for a solution.
+    * @param workerCount The number of workers that search concurrently.
+    */
+   public ParallelMultiStartLS(WorkerFactory<S, E> factory, ExecutorService executor, int count, int workerCount) {
+      if(count < 1)
+         throw new IllegalArgumentException("count should be > 0");
+      if(workerCount < 1)
+         throw new IllegalArgumentException("workerCount should be > 0");
+      this.factory     = factory;
+      this.executor    = executor;
+      this.count       = count;
+      this.workerCount = workerCount;
+   }
+
+   /**
+    * Searches for a solution for the given problem by applying the search algorithms of the workers to multiple random solutions.
+    */
+   @Override
+   public S search(Problem<S, E> problem, E bound, long timeLimit) {
+      assert (problem != null) : "Problem should not be null";
+      assert (bound   != null) : "Bound should not be null";
+      return doSearch(problem, bound, Budget.ofMillis(timeLimit), null);
+   }
+
+   /**
+    * Searches for a solution for the given problem, running every restart on a clone of the given solution.
+    * If <code>startSolution</code> is <code>null</code>, every restart starts from a random solution instead.
+    * The workers search with forks of the given budget; once the bound is reached, the forks are cancelled so the other workers stop immediately.
+    */
+   @Override
+   protected S doSearch(final Problem<S, E> problem, final E bound, Budget budget, final S startSolution) {
+      final AtomicInteger    remaining = new AtomicInteger(count);
+      final Budget           shared    = budget.fork();
+      final long             seeds[]   = new long[count];
+      final SplittableRandom random    = newRandom();
+      for(int i = 0; i < count; i++) {
+         seeds[i] = random.nextLong();
+      }
+
+      CompletionService<S> completion = new ExecutorCompletionService<S>(executor);
+      ArrayList<Future<S>> futures    = new ArrayList<Future<S>>(workerCount);
+      for(int i = 0; i < Math.min(count, workerCount); i++) {
+         final Budget fork = shared.fork();
+         futures.add(completion.submit(new Callable<S>() {
+               @Override
+               public S call() {
+                  return work(problem, bound, fork, startSolution, seeds, remaining);
+               }
+            }));
+      }
+
+      S bestSolution = startSolution;
+      try {
+         for(int i = 0; i < futures.size(); i++) {
+            S solution = completion.take().get();
+            if(solution == null)
+               continue;
+            problem.saveSolution(solution);
+            if(problem.better(solution, bestSolution))
+               bestSolution = solution;
+            if(problem.betterEq(bestSolution, bound))
+               shared.cancel();
+         }
+      }
+      catch(InterruptedException ex) {
+         shared.cancel();
+         for(Future<S> f : futures) {
+            f.cancel(true);
+         }
+         Thread.currentThread().interrupt();
+      }
+      catch(ExecutionException ex) {
+         shared.cancel();
+         for(Future<S> f : futures) {
+            f.cancel(true);
+         }
+         throw new IllegalStateException("A worker of ParallelMultiStartLS failed", ex.getCause());
+      }
+
+      if(bestSolution == null)
+         bestSolution = problem.bestSolution();
+      return bestSolution;
+   }
+
+   /**
+    * Keeps taking restarts from the shared counter until none are left or the given budget is exhausted, which happens when another worker reached the bound.
+    * Every restart seeds the search algorithm, and its random start solution, with the seed that belongs to it.
+    * @return The best solution found by this worker, or <code>null</code> if it did not get to search.
+    */
+   protected S work(Problem<S, E> original, E bound, Budget budget, S startSolution, long seeds[], AtomicInteger remaining) {
+      LocalSearch<Problem<S, E>, S, E> ls      = factory.createSearch();
+      Problem<S, E>                    problem = factory.createProblem(original);
+      ls.setSavingCriterion(savingCriterion);
+
+      S bestSolution = null;
+      int restart;
+      while(!budget.checkNow() && !Thread.currentThread().isInterrupted() && (restart = remaining.getAndDecrement()) > 0) {
+         SplittableRandom random = new SplittableRandom(seeds[restart - 1]);
+         ls.setSeed(random.nextLong());
+         S newSolution = ls.search(problem, bound, budget, (startSolution == null ? randomSolution(problem, random) : problem.cloneSolution(startSolution)));
+         if(problem.better(newSolution, bestSolution))
+            bestSolution = newSolution;
+         if(problem.betterEq(bestSolution, bound))
+            break;
+      }
+      return bestSolution;
+   }
+
+   /**
+    * Returns a random solution for the given problem, generated using the given source of randomness if the problem implements <code>SeededProblem</code>.
+    */
+   @SuppressWarnings("unchecked")
+   protected S randomSolution(Problem<S, E> problem, SplittableRandom random) {
+      return (problem instanceof SeededProblem ? ((SeededProblem<S>) problem).randomSolution(random) : problem.randomSolution());
+   }
+}
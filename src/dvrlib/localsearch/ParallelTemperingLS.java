@@ -0,0 +1,324 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * ParallelTemperingLS.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelTemperingLS implements replica exchange: a number of Metropolis chains, one for every rung of a ladder of fixed temperatures.
+ * Every round, each chain does <code>swapInterval</code> iterations at its current temperature, concurrently on the given executor.
+ * Afterwards, chains on neighbouring rungs are swapped according to the Metropolis criterion, alternating between even and odd pairs of rungs.
+ * Every chain uses its own changer, so changers are never shared between threads; the problem should support concurrent evaluation.
+ */
+public class ParallelTemperingLS<P extends Problem<S, E>, S extends Solution, E extends Number & Comparable<E>> extends StatefulLocalSearch<P, S, E, ParallelTemperingLS<P, S, E>.SearchState> {
+   public class Replica extends SingularSearchState<P, S> {
+      protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changer;
+      protected final ChangeList<P, S>                                 changes = new ChangeList<P, S>();
+      protected       E                                                eval;
+      protected       S                                                best    = null;
+      protected       int                                              rung;
+
+      protected Replica(P problem, S solution, Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, int rung) {
+         super(problem, solution, newRandom());
+         this.changer = changer;
+         this.rung    = rung;
+         eval         = problem.evaluate(this);
+      }
+
+      /**
+       * Returns the rung of the temperature ladder this replica is currently on.
+       */
+      public int rung() {
+         return rung;
+      }
+   }
+
+   public class SearchState extends AbstractSearchState<P, S> {
+      protected final ArrayList<Replica> replicas;
+      protected final int                ladder[];
+      protected final long               swapAttempts[],
+                                         swapAccepts[];
+      protected       S                  best;
+      protected       E                  bestEval;
+      protected       long               lastImprovement = 0;
+
+      protected SearchState(P problem, ArrayList<Replica> replicas) {
+         super(problem, newRandom());
+         this.replicas = replicas;
+         ladder        = new int[replicas.size()];
+         swapAttempts  = new long[Math.max(0, replicas.size() - 1)];
+         swapAccepts   = new long[swapAttempts.length];
+         for(int i = 0; i < replicas.size(); i++) {
+            Replica r = replicas.get(i);
+            ladder[r.rung] = i;
+            if(best == null || problem.better(r.eval, bestEval)) {
+               best     = problem.cloneSolution(r.solution);
+               bestEval = r.eval;
+            }
+         }
+      }
+
+      /**
+       * Returns the replica that is currently on the given rung of the temperature ladder.
+       */
+      public Replica replica(int rung) {
+         return replicas.get(ladder[rung]);
+      }
+
+      /**
+       * Returns the fraction of attempted swaps between the given rung and the next that were accepted.
+       */
+      public double swapAcceptanceRate(int rung) {
+         return (swapAttempts[rung] == 0 ? 0d : (double) swapAccepts[rung] / swapAttempts[rung]);
+      }
+
+      /**
+       * Returns the swap acceptance rates of all pairs of neighbouring rungs.
+       * @see ParallelTemperingLS.SearchState#swapAcceptanceRate(int)
+       */
+      public double[] swapAcceptanceRates() {
+         double rates[] = new double[swapAttempts.length];
+         for(int r = 0; r < rates.length; r++) {
+            rates[r] = swapAcceptanceRate(r);
+         }
+         return rates;
+      }
+
+      /**
+       * Returns the best solution found so far.
+       */
+      @Override
+      public S solution() {
+         return best;
+      }
+   }
+
+   protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changers[];
+   protected final double                                           temperatures[];
+   protected final ExecutorService                                  executor;
+   protected final int                                              swapInterval,
+                                                                    stopCount;
+
+   /**
+    * ParallelTemperingLS constructor.
+    * @param changers     The changers used by the chains; one for every temperature.
+    * @param temperatures The ladder of temperatures, from coldest to hottest.
+    * @param swapInterval The number of iterations every chain does between two exchange phases.
+    * @param stopCount    The number of rounds without improvement after which the search is stopped.
+    * @param executor     The executor the chains are run on, or <code>null</code> to run them one after another on the calling thread.
+    * @see ParallelTemperingLS#geometricLadder(double, double, int)
+    */
+   public ParallelTemperingLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changers[], double temperatures[], int swapInterval, int stopCount, ExecutorService executor) {
+      if(changers.length != temperatures.length)
+         throw new IllegalArgumentException("The number of changers should equal the number of temperatures");
+      if(temperatures.length < 1)
+         throw new IllegalArgumentException("At least one temperature is needed");
+      if(swapInterval < 1)
+         throw new IllegalArgumentException("swapInterval should be > 0");
+      if(stopCount < 1)
+         throw new IllegalArgumentException("stopCount should be > 0");
+      this.changers     = changers;
+      this.temperatures = temperatures;
+      this.swapInterval = swapInterval;
+      this.stopCount    = stopCount;
+      this.executor     = executor;
+   }
+
+   /**
+    * Returns a ladder of <code>n</code> temperatures between <code>min</code> and <code>max</code>, spaced geometrically.
+    */
+   public static double[] geometricLadder(double min, double max, int n) {
+      if(min <= 0d || max < min || n < 1)
+         throw new IllegalArgumentException("Invalid temperature ladder: [" + min + "," + max + "] in " + n + " steps");
+      double ladder[] = new double[n];
+      for(int i = 0; i < n; i++) {
+         ladder[i] = (n == 1 ? min : min * Math.pow(max / min, (double) i / (n - 1)));
+      }
+      return ladder;
+   }
+
+   /**
+    * Searches for a solution for the given problem, starting all chains from the given solution.
+    * The search stops after <code>stopCount</code> rounds without improvement, or when the bound or the time limit is reached.
+    */
+   @Override
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
+      SearchState state = newState(problem, solution);
+      iterate(state, bound, budget, -1);
+      state.best.setIterationCount(state.iterationCount());
+      state.saveSolution();
+      return state.solution();
+   }
+
+   /**
+    * Does <code>n</code> rounds of iterations and exchanges using the given search state, after which it is returned.
+    * A negative value of <code>n</code> indicates the search continues until no improvement was found in <code>stopCount</code> rounds.
+    * When a solution is found that is better or equal to the given bound, the search is stopped.
+    */
+   @Override
+   public SearchState iterate(final SearchState state, final E bound, final Budget budget, long n) {
+      ArrayList<Callable<Object>> sweeps = new ArrayList<Callable<Object>>(state.replicas.size());
+      for(final Replica r : state.replicas) {
+         final Budget fork = budget.fork();
+         sweeps.add(new Callable<Object>() {
+               @Override
+               public Object call() {
+                  sweep(r, state.bestEval, bound, fork);
+                  return null;
+               }
+            });
+      }
+
+      for(long round = 0; (n < 0 ? state.iteration - state.lastImprovement < stopCount : round < n) && !state.problem.betterEq(state.bestEval, bound); round++) {
+         // Let every chain do its iterations
+         if(executor == null) {
+            for(Replica r : state.replicas) {
+               sweep(r, state.bestEval, bound, budget);
+            }
+         }
+         else {
+            try {
+               for(Future<Object> f : executor.invokeAll(sweeps)) {
+                  f.get();
+               }
+            }
+            catch(InterruptedException ex) {
+               Thread.currentThread().interrupt();
+               break;
+            }
+            catch(ExecutionException ex) {
+               throw new IllegalStateException("A chain of ParallelTemperingLS failed", ex.getCause());
+            }
+         }
+         state.iteration++;
+
+         // Collect the best solutions found by the chains
+         for(Replica r : state.replicas) {
+            if(r.best != null) {
+               if(state.problem.better(r.best, state.bestEval)) {
+                  state.best            = r.best;
+                  state.bestEval        = state.problem.evaluate(r.best);
+                  state.lastImprovement = state.iteration;
+                  if(savingCriterion == LocalSearch.SavingCriterion.NewBest || savingCriterion == LocalSearch.SavingCriterion.EveryImprovement)
+                     state.saveSolution();
+               }
+               r.best = null;
+            }
+         }
+         if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
+            state.problem.saveSolution(state.replica(0).solution);
+
+         // Exchange neighbouring chains
+         exchange(state, (int) (state.iteration % 2));
+         report(state, state.replica(0).eval, state.bestEval, temperatures[0]);
+
+         // Check the time limit
+         if(budget.exhausted())
+            break;
+      }
+      return state;
+   }
+
+   /**
+    * Attempts to swap the chains on the rungs <code>r</code> and <code>r + 1</code>, for every <code>r</code> starting from <code>offset</code> in steps of two.
+    * A swap is accepted with probability <code>min(1, exp((f(a) - f(b)) * (1 / T(a) - 1 / T(b))))</code>, where <code>f</code> is the evaluation in the direction of minimisation.
+    */
+   protected void exchange(SearchState state, int offset) {
+      int direction = LocalSearch.asNumber(state.problem.direction());
+      for(int r = offset; r + 1 < temperatures.length; r += 2) {
+         Replica a = state.replica(r),
+                 b = state.replica(r + 1);
+         double delta = (b.eval.doubleValue() - a.eval.doubleValue()) * direction * (1d / temperatures[r] - 1d / temperatures[r + 1]);
+         state.swapAttempts[r]++;
+         if(delta >= 0d || state.random.nextDouble() < Math.exp(delta)) {
+            state.swapAccepts[r]++;
+            int i               = state.ladder[r];
+            state.ladder[r]     = state.ladder[r + 1];
+            state.ladder[r + 1] = i;
+            a.rung = r + 1;
+            b.rung = r;
+         }
+      }
+   }
+
+   /**
+    * Does <code>swapInterval</code> Metropolis iterations on the given replica, at the temperature of its current rung.
+    * Rejected changes are undone using the change list of the replica.
+    * If a solution better than <code>bestEval</code> is found, a clone of it is stored in the replica.
+    */
+   protected void sweep(Replica r, E bestEval, E bound, Budget budget) {
+      double temperature = temperatures[r.rung];
+      int    direction   = LocalSearch.asNumber(r.problem.direction());
+      try {
+         for(int i = 0; i < swapInterval; i++, r.iteration++) {
+            Changer<P, S, ?>.Change change = makeChange(r.changer, r, r.changes);
+            E newEval = evaluate(r, r.changes, r.eval);
+            budget.evaluated();
+            r.changer.feedback(change, r.problem.better(newEval, r.eval));
+
+            if(r.problem.betterEq(newEval, r.eval) || r.random.nextDouble() < Math.exp((newEval.doubleValue() - r.eval.doubleValue()) * direction / temperature)) {
+               r.changes.clear();
+               r.eval = newEval;
+               moved(r.changer, true);
+               if(r.problem.better(newEval, bestEval)) {
+                  r.best   = r.problem.cloneSolution(r.solution);
+                  bestEval = newEval;
+                  if(r.problem.betterEq(newEval, bound))
+                     break;
+               }
+            }
+            else {
+               r.changes.undoLast(r);
+               moved(r.changer, false);
+            }
+
+            // Check the time limit
+            if(budget.exhausted())
+               break;
+         }
+      }
+      catch(CannotChangeException _) { }
+   }
+
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount);
+   }
+
+   /**
+    * Returns a new search state, in which the first chain starts from the given solution and the others from clones of it.
+    */
+   @Override
+   public SearchState newState(P problem, S solution) {
+      ArrayList<Replica> replicas = new ArrayList<Replica>(changers.length);
+      for(int i = 0; i < changers.length; i++) {
+         changers[i].reinitialise(problem);
+         replicas.add(new Replica(problem, (i == 0 ? solution : problem.cloneSolution(solution)), changers[i], i));
+      }
+      return new SearchState(problem, replicas);
+   }
+}
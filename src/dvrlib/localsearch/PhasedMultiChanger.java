@@ -22,7 +22,8 @@ package dvrlib.localsearch;
 import dvrlib.generic.Pair;
 
 public class PhasedMultiChanger<P extends Problem<S, ? extends Comparable<?>>, S extends Solution, C extends Changer<P, S, ?>.Change> extends Changer<P, S, PhasedMultiChanger<P, S, C>.Change> {
-   protected class Change extends Changer<P, S, ?>.Change {
+   @SuppressWarnings("rawtypes")
+   protected class Change extends Changer<P, S, ?>.Change implements DeltaChange {
       protected C   change;
       protected int phase;
 
@@ -36,6 +37,16 @@ public class PhasedMultiChanger<P extends Problem<S, ? extends Comparable<?>>, S
          change.undo(ss);
          PhasedMultiChanger.this.phase = phase;
       }
+
+      /**
+       * Returns the evaluation after the underlying change, if it is able to determine it.
+       * @see DeltaChange#evaluation(Comparable)
+       */
+      @Override
+      @SuppressWarnings("unchecked")
+      public Comparable evaluation(Comparable before) {
+         return (change instanceof DeltaChange ? ((DeltaChange) change).evaluation(before) : null);
+      }
    }
 
    protected Changer<P, S, C>[] changers;
@@ -50,6 +61,20 @@ public class PhasedMultiChanger<P extends Problem<S, ? extends Comparable<?>>, S
    }
 
    // dvrlib.localsearch.Changer methods
+   /**
+    * Forwards the feedback on the given change to the phase that made it.
+    * @see Changer#feedback(Changer.Change, boolean)
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   public void feedback(Changer<P, S, ?>.Change change, boolean improved) {
+      Object o = change;
+      if(o instanceof PhasedMultiChanger<?, ?, ?>.Change) {
+         Change c = (Change) o;
+         changers[c.phase].feedback(c.change, improved);
+      }
+   }
+
    /**
     * Generates, executes and returns a new change, by invoking the current phase.
     * @see Changer#undoChange(SingularSearchState, Change)
@@ -22,6 +22,18 @@ package dvrlib.localsearch;
 import java.util.Collection;
 
 public abstract class Population<S extends Solution> implements Collection<S> {
+   protected SearchMetrics metrics = null;
+
+   /**
+    * Adds a copy of the given solution, made by the given problem, to this population.
+    * The default implementation always copies the solution; implementations may reject it before copying.
+    * @return A boolean indicating whether the copy was actually added.
+    * @see Problem#cloneSolution(Solution)
+    */
+   public boolean addCopy(S solution, Problem<S, ?> copier) {
+      return add(copier.cloneSolution(solution));
+   }
+
    /**
     * Iterates over the given solutions, adding them to this population if they are not already present.
     * If this population is full, each solution is compared to the current worst, replacing it if better.
@@ -116,4 +128,12 @@ public abstract class Population<S extends Solution> implements Collection<S> {
          it.remove();
       }
    }
+
+   /**
+    * Sets the metrics to which insertions into and rejections from this population are reported, or <code>null</code> to disable metrics.
+    * @see SearchMetrics
+    */
+   public void setMetrics(SearchMetrics metrics) {
+      this.metrics = metrics;
+   }
 }
@@ -0,0 +1,91 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * RecordingChanger.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Arrays;
+
+/**
+ * RecordingChanger is a changer that describes its changes by a few integers, instead of change objects.
+ * When it is invoked with a change list, the integers are written into the reusable buffer of that list, so making and undoing changes does not allocate.
+ * A RecordingChanger may implement <code>DeltaChange</code>, in which case <code>evaluation</code> refers to the last change it made.
+ * @see ChangeList#record(RecordingChanger)
+ */
+public abstract class RecordingChanger<P extends Problem<S, ? extends Comparable<?>>, S extends Solution> extends Changer<P, S, RecordingChanger<P, S>.Change> {
+   public class Change extends Changer<P, S, ?>.Change {
+      protected final int data[];
+
+      /**
+       * RecordingChanger.Change constructor.
+       * @param data The record describing the change.
+       */
+      protected Change(int data[]) {
+         this.data = data;
+      }
+
+      /**
+       * Undoes this change by replaying its record.
+       * @see RecordingChanger#undoChange(SingularSearchState, int[], int, int)
+       */
+      @Override
+      protected final void undo(SingularSearchState<P, S> ss) {
+         undoChange(ss, data, 0, data.length);
+      }
+   }
+
+   /**
+    * Generates and executes a new change, writing the integers needed to undo it to the given list.
+    * @see ChangeList#write(int)
+    * @throws CannotChangeException To indicate this changer was unable to change the given search state.
+    */
+   protected abstract void record(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException;
+
+   /**
+    * Undoes the change described by the record in <code>data[from..to)</code>.
+    */
+   public abstract void undoChange(SingularSearchState<P, S> ss, int data[], int from, int to);
+
+   /**
+    * Generates, executes and returns a new change, copying its record into a change object.
+    * This allocates; search algorithms should prefer <code>makeChange(ss, changes)</code>.
+    */
+   @Override
+   public Change makeChange(SingularSearchState<P, S> ss) throws CannotChangeException {
+      ChangeList<P, S> changes = new ChangeList<P, S>(1, 8);
+      makeChange(ss, changes);
+      return new Change(Arrays.copyOf(changes.data, changes.dataSize));
+   }
+
+   /**
+    * Generates and executes a new change, recording it at the end of the given list without allocating.
+    * @return <code>null</code>, as no change object is created.
+    */
+   @Override
+   public Change makeChange(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      changes.record(this);
+      try {
+         record(ss, changes);
+      }
+      catch(CannotChangeException ex) {
+         changes.dropLast();
+         throw ex;
+      }
+      return null;
+   }
+}
@@ -0,0 +1,34 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * RepeatableChange.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * Optional interface for change objects that can be made again after they were undone, as used by <code>TabuSearchLS</code>.
+ * Repeating a change should have the same effect as making it did, also when it is repeated on another copy of the solution it was made to;
+ *    the change should therefore describe what it changes, rather than refer to the solution it changed.
+ * Search algorithms use this to move to a sampled solution without copying it.
+ * @see TabuSearchLS
+ */
+public interface RepeatableChange<P extends Problem<S, ? extends Comparable<?>>, S extends Solution> {
+   /**
+    * Makes this change again to the solution of the given search state, which should equal the solution it was originally made to.
+    */
+   public void redo(SingularSearchState<P, S> ss);
+}
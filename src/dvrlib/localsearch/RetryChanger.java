@@ -34,6 +34,15 @@ public class RetryChanger<P extends Problem<S, ? extends Comparable<?>>, S exten
    }
 
    // dvrlib.localsearch.Changer methods
+   /**
+    * Forwards the feedback on the given change to the underlying changer.
+    * @see Changer#feedback(Changer.Change, boolean)
+    */
+   @Override
+   public void feedback(Changer<P, S, ?>.Change change, boolean improved) {
+      changer.feedback(change, improved);
+   }
+
    /**
     * Generates, executes and returns a new change, by invoking the underlying changer up to <code>tries</code> times.
     * @see Changer#undoChange(SingularSearchState, Change)
@@ -53,6 +62,25 @@ public class RetryChanger<P extends Problem<S, ? extends Comparable<?>>, S exten
       throw new CannotChangeException(this, ex);
    }
 
+   /**
+    * Generates and executes a new change, by invoking the underlying changer up to <code>tries</code> times, and adds it to the given list.
+    * @see Changer#makeChange(SingularSearchState, ChangeList)
+    * @throws CannotChangeException To indicate the underlying changer was unable to change the given search state within the number of tries.
+    */
+   @Override
+   public Changer<P, S, ?>.Change makeChange(SingularSearchState<P, S> ss, ChangeList<P, S> changes) throws CannotChangeException {
+      CannotChangeException ex = null;
+      for(int i = 0; i < tries; i++) {
+         try {
+            return changer.makeChange(ss, changes);
+         }
+         catch(CannotChangeException e) {
+            ex = e;
+         }
+      }
+      throw new CannotChangeException(this, ex);
+   }
+
    /**
     * Reinitialises the underlying changer.
     * @see Changer#reinitialise(Problem)
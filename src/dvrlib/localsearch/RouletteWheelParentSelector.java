@@ -19,13 +19,29 @@
 
 package dvrlib.localsearch;
 
-import java.util.LinkedList;
+import dvrlib.container.AliasSampler;
+
+import java.util.ArrayList;
 
 public class RouletteWheelParentSelector<S extends Solution> implements ParentSelector<S> {
+   /**
+    * Selects the given number of parents from the population, where the chance a solution is chosen is directly proportionate to its fitness score.
+    * As the population does not change while parents are selected, the weights are frozen in an alias sampler, so every parent is drawn in O(1).
+    * O(n + count), where n is the size of the population.
+    * @see dvrlib.container.AliasSampler
+    */
    public Iterable<S> select(GeneticLS<S, ?>.SearchState ss, int count) {
-      LinkedList<S> ls = new LinkedList<S>();
+      ArrayList<S> solutions = new ArrayList<S>(ss.population);
+      double       weights[] = new double[solutions.size()];
+      for(int i = 0; i < weights.length; i++) {
+         weights[i] = ss.problem.weight(solutions.get(i));
+      }
+      AliasSampler sampler = new AliasSampler(weights);
+
+      ArrayList<S> ls = new ArrayList<S>(count);
       for(int i = 0; i < count; i++) {
-         ls.add(ss.population.peekWeighted());
+         // Without positive weights, every solution is equally likely
+         ls.add(sampler.totalWeight() > 0d ? solutions.get(sampler.sample(ss.random())) : ss.population.peekRandom(ss.random()));
       }
       return ls;
    }
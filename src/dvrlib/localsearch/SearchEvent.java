@@ -0,0 +1,116 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchEvent.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * SearchEvent is a sample of the progress of a search, taken by the search algorithm and published to a <code>SearchMonitor</code>.
+ * @see SearchMonitor
+ */
+public class SearchEvent<E extends Comparable<E>> {
+   protected final SearchState<?, ?> state;
+   protected final long              iteration,
+                                     accepted,
+                                     elapsedNanos;
+   protected final E                 current,
+                                     best;
+   protected final double            control;
+
+   /**
+    * SearchEvent constructor.
+    * @param state        The state of the search that is sampled.
+    * @param iteration    The number of iterations done.
+    * @param accepted     The number of changes accepted.
+    * @param elapsedNanos The number of nanoseconds passed since the search started.
+    * @param current      The evaluation of the current solution.
+    * @param best         The evaluation of the best solution found.
+    * @param control      The control parameter of the search, e.g. its temperature or water level, or <code>NaN</code> if it has none.
+    */
+   public SearchEvent(SearchState<?, ?> state, long iteration, long accepted, long elapsedNanos, E current, E best, double control) {
+      this.state        = state;
+      this.iteration    = iteration;
+      this.accepted     = accepted;
+      this.elapsedNanos = elapsedNanos;
+      this.current      = current;
+      this.best         = best;
+      this.control      = control;
+   }
+
+   /**
+    * Returns the state of the search that is sampled, which identifies the search. It should not be accessed by listeners, as it is still in use.
+    */
+   public SearchState<?, ?> state() {
+      return state;
+   }
+
+   /**
+    * Returns the number of iterations the search had done.
+    */
+   public long iteration() {
+      return iteration;
+   }
+
+   /**
+    * Returns the number of changes the search had accepted.
+    */
+   public long accepted() {
+      return accepted;
+   }
+
+   /**
+    * Returns the fraction of the iterations in which a change was accepted.
+    */
+   public double acceptanceRate() {
+      return (iteration == 0 ? 0d : (double) accepted / iteration);
+   }
+
+   /**
+    * Returns the number of nanoseconds that had passed since the search started.
+    */
+   public long elapsedNanos() {
+      return elapsedNanos;
+   }
+
+   /**
+    * Returns the evaluation of the current solution of the search.
+    */
+   public E current() {
+      return current;
+   }
+
+   /**
+    * Returns the evaluation of the best solution the search had found.
+    */
+   public E best() {
+      return best;
+   }
+
+   /**
+    * Returns the control parameter of the search, e.g. the temperature of simulated annealing or the water level of great deluge,
+    *    or <code>NaN</code> if the search has none.
+    */
+   public double control() {
+      return control;
+   }
+
+   @Override
+   public String toString() {
+      return "SearchEvent(" + iteration + "," + current + "," + best + "," + acceptanceRate() + "," + control + "," + elapsedNanos + ")";
+   }
+}
@@ -0,0 +1,181 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchHandle.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SearchHandle represents a search running on another thread.
+ * It can be used to cancel the search, to poll the best solution found so far and to wait for the result.
+ * Cancelling a search cancels its budget, so the search stops at its next check; the best solution found so far remains available through <code>best()</code>.
+ * @see StatefulLocalSearch#searchAsync(Problem, Comparable, Budget, Solution, java.util.concurrent.Executor)
+ */
+public class SearchHandle<S extends Solution> implements Future<S> {
+   public interface Listener<S extends Solution> {
+      /**
+       * Called once the search of the given handle has stopped, either normally, by failing, or after it was cancelled.
+       */
+      public void searchCompleted(SearchHandle<S> handle);
+   }
+
+   protected final    Budget                 budget;
+   protected final    CountDownLatch         done      = new CountDownLatch(1);
+   protected final    ArrayList<Listener<S>> listeners = new ArrayList<Listener<S>>();
+   protected volatile S                      best      = null;
+   protected          S                      result    = null;
+   protected          Throwable              error     = null;
+   protected          Thread                 runner    = null;
+   protected          boolean                cancelled = false,
+                                             completed = false;
+
+   /**
+    * SearchHandle constructor.
+    * @param budget The budget of the search, which is cancelled when the search is cancelled.
+    */
+   public SearchHandle(Budget budget) {
+      this.budget = budget;
+   }
+
+   /**
+    * Returns the best solution found so far, or <code>null</code> if the search has not published one yet.
+    * The returned solution is a copy, so it is safe to use while the search continues.
+    */
+   public S best() {
+      return best;
+   }
+
+   /**
+    * Returns the budget of the search.
+    */
+   public Budget budget() {
+      return budget;
+   }
+
+   /**
+    * Adds a listener that is called once the search has stopped.
+    * The listener is called by the thread that ran the search, or immediately by the calling thread if the search has already stopped.
+    */
+   public void addListener(Listener<S> listener) {
+      synchronized(this) {
+         if(!completed) {
+            listeners.add(listener);
+            return;
+         }
+      }
+      listener.searchCompleted(this);
+   }
+
+   /**
+    * Cancels the search, if it has not completed yet.
+    * If <code>mayInterruptIfRunning</code> is true, the thread running the search is also interrupted.
+    */
+   @Override
+   public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+      if(completed || cancelled)
+         return false;
+      cancelled = true;
+      budget.cancel();
+      if(mayInterruptIfRunning && runner != null)
+         runner.interrupt();
+      return true;
+   }
+
+   @Override
+   public synchronized boolean isCancelled() {
+      return cancelled;
+   }
+
+   @Override
+   public synchronized boolean isDone() {
+      return (completed || cancelled);
+   }
+
+   /**
+    * Waits for the search to stop, and returns its result.
+    * @throws CancellationException If the search was cancelled.
+    * @throws ExecutionException    If the search failed.
+    */
+   @Override
+   public S get() throws InterruptedException, ExecutionException {
+      if(!isCancelled())
+         done.await();
+      return result();
+   }
+
+   /**
+    * Waits at most the given time for the search to stop, and returns its result.
+    * @throws CancellationException If the search was cancelled.
+    * @throws ExecutionException    If the search failed.
+    * @throws TimeoutException      If the search did not stop in time.
+    */
+   @Override
+   public S get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if(!isCancelled() && !done.await(timeout, unit))
+         throw new TimeoutException();
+      return result();
+   }
+
+   protected synchronized S result() throws ExecutionException {
+      if(cancelled)
+         throw new CancellationException();
+      if(error != null)
+         throw new ExecutionException(error);
+      return result;
+   }
+
+   /**
+    * Registers the thread that runs the search.
+    */
+   protected synchronized void start(Thread thread) {
+      runner = thread;
+   }
+
+   /**
+    * Publishes a copy of the best solution found so far.
+    */
+   protected void publish(S solution) {
+      best = solution;
+   }
+
+   /**
+    * Stores the result of the search and calls the listeners.
+    */
+   protected void complete(S result, Throwable error) {
+      ArrayList<Listener<S>> ls;
+      synchronized(this) {
+         this.result = result;
+         this.error  = error;
+         runner      = null;
+         completed   = true;
+         ls          = new ArrayList<Listener<S>>(listeners);
+         listeners.clear();
+      }
+      done.countDown();
+      for(Listener<S> l : ls) {
+         l.searchCompleted(this);
+      }
+   }
+}
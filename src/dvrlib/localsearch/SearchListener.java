@@ -0,0 +1,31 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchListener.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * SearchListener is notified of the progress of searches, through a <code>SearchMonitor</code>.
+ * @see SearchMonitor#addListener(SearchListener)
+ */
+public interface SearchListener<E extends Comparable<E>> {
+   /**
+    * Called by the dispatching thread of the monitor for every sampled event, in the order they were published.
+    */
+   public void searchProgressed(SearchEvent<E> event);
+}
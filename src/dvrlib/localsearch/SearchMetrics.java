@@ -0,0 +1,249 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchMetrics.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * SearchMetrics counts what search algorithms spend their time on: evaluations, changes proposed, accepted and undone per changer,
+ *    failed attempts to change a solution, insertions into and rejections from populations, and optionally the time spent generating changes and evaluating them.
+ * All counters are <code>LongAdder</code>s, so a single instance can be shared by searches running concurrently at little cost.
+ * Metrics are off by default; they are enabled by passing an instance to <code>LocalSearch.setMetrics</code> and <code>Population.setMetrics</code>.
+ * @see LocalSearch#setMetrics(SearchMetrics)
+ * @see Population#setMetrics(SearchMetrics)
+ */
+public class SearchMetrics implements SearchMetricsMXBean {
+   protected class ChangerCounters {
+      protected final String    name;
+      protected final LongAdder proposed     = new LongAdder(),
+                                accepted     = new LongAdder(),
+                                undone       = new LongAdder(),
+                                cannotChange = new LongAdder();
+
+      protected ChangerCounters(String name) {
+         this.name = name;
+      }
+   }
+
+   protected final ConcurrentHashMap<Changer<?, ?, ?>, ChangerCounters> changers        = new ConcurrentHashMap<Changer<?, ?, ?>, ChangerCounters>();
+   protected final AtomicInteger                                        ids             = new AtomicInteger(0);
+   protected final LongAdder                                            evaluations     = new LongAdder(),
+                                                                        inserts         = new LongAdder(),
+                                                                        rejects         = new LongAdder(),
+                                                                        searchNanos     = new LongAdder(),
+                                                                        generationNanos = new LongAdder(),
+                                                                        evaluationNanos = new LongAdder();
+   protected final boolean                                              timed;
+
+   /**
+    * SearchMetrics constructor.
+    * @param timed Whether the time spent generating and evaluating changes is measured, which costs two reads of the clock per measurement.
+    */
+   public SearchMetrics(boolean timed) {
+      this.timed = timed;
+   }
+
+   /**
+    * Returns whether this instance measures time.
+    */
+   public boolean isTimed() {
+      return timed;
+   }
+
+   /**
+    * Returns the current time if this instance measures time, or 0 otherwise.
+    * O(1).
+    */
+   public long start() {
+      return (timed ? System.nanoTime() : 0l);
+   }
+
+   /**
+    * Returns the counters of the given changer, creating them on first use.
+    * O(1).
+    */
+   protected ChangerCounters counters(Changer<?, ?, ?> changer) {
+      ChangerCounters cs = changers.get(changer);
+      if(cs == null) {
+         ChangerCounters created = new ChangerCounters(changer.getClass().getSimpleName() + "#" + ids.getAndIncrement());
+         cs = changers.putIfAbsent(changer, created);
+         if(cs == null)
+            cs = created;
+      }
+      return cs;
+   }
+
+   /**
+    * Records that the given changer made a change, which was started at the given time.
+    * O(1).
+    */
+   public void proposed(Changer<?, ?, ?> changer, long start) {
+      counters(changer).proposed.increment();
+      if(timed)
+         generationNanos.add(System.nanoTime() - start);
+   }
+
+   /**
+    * Records that the given changer was unable to make a change, which was attempted from the given time.
+    * O(1).
+    */
+   public void cannotChange(Changer<?, ?, ?> changer, long start) {
+      counters(changer).cannotChange.increment();
+      if(timed)
+         generationNanos.add(System.nanoTime() - start);
+   }
+
+   /**
+    * Records that a change made by the given changer was either accepted, or undone.
+    * O(1).
+    */
+   public void moved(Changer<?, ?, ?> changer, boolean accepted) {
+      ChangerCounters cs = counters(changer);
+      (accepted ? cs.accepted : cs.undone).increment();
+   }
+
+   /**
+    * Records an evaluation, which was started at the given time.
+    * O(1).
+    */
+   public void evaluated(long start) {
+      evaluations.increment();
+      if(timed)
+         evaluationNanos.add(System.nanoTime() - start);
+   }
+
+   /**
+    * Records whether a solution was inserted into a population, or rejected by it.
+    * O(1).
+    */
+   public void inserted(boolean inserted) {
+      (inserted ? inserts : rejects).increment();
+   }
+
+   /**
+    * Records the duration of a search, which was started at the given time.
+    * O(1).
+    */
+   public void searched(long start) {
+      if(timed)
+         searchNanos.add(System.nanoTime() - start);
+   }
+
+   @Override
+   public long getEvaluations() {
+      return evaluations.sum();
+   }
+
+   @Override
+   public double getCannotChangeRate() {
+      long attempts = 0, failures = 0;
+      for(ChangerCounters cs : changers.values()) {
+         long f = cs.cannotChange.sum();
+         attempts += cs.proposed.sum() + f;
+         failures += f;
+      }
+      return (attempts == 0 ? 0d : (double) failures / attempts);
+   }
+
+   /**
+    * Returns the current values of all counters and timers, by name.
+    * The time spent on bookkeeping is the duration of the searches minus the time spent generating and evaluating changes;
+    *    it is only meaningful for searches that run on a single thread.
+    * O(changers).
+    */
+   @Override
+   public Map<String, Long> getSnapshot() {
+      TreeMap<String, Long> map = new TreeMap<String, Long>();
+      map.put("evaluations", evaluations.sum());
+      map.put("population.inserts", inserts.sum());
+      map.put("population.rejects", rejects.sum());
+      for(ChangerCounters cs : changers.values()) {
+         map.put("changer." + cs.name + ".proposed", cs.proposed.sum());
+         map.put("changer." + cs.name + ".accepted", cs.accepted.sum());
+         map.put("changer." + cs.name + ".undone", cs.undone.sum());
+         map.put("changer." + cs.name + ".cannotChange", cs.cannotChange.sum());
+      }
+      if(timed) {
+         long search     = searchNanos.sum(),
+              generation = generationNanos.sum(),
+              evaluation = evaluationNanos.sum();
+         map.put("nanos.search", search);
+         map.put("nanos.generation", generation);
+         map.put("nanos.evaluation", evaluation);
+         map.put("nanos.bookkeeping", Math.max(0l, search - generation - evaluation));
+      }
+      return map;
+   }
+
+   /**
+    * Returns a snapshot of the counters and timers.
+    * @see SearchMetrics#getSnapshot()
+    */
+   public Map<String, Long> snapshot() {
+      return getSnapshot();
+   }
+
+   @Override
+   public void reset() {
+      changers.clear();
+      evaluations.reset();
+      inserts.reset();
+      rejects.reset();
+      searchNanos.reset();
+      generationNanos.reset();
+      evaluationNanos.reset();
+   }
+
+   /**
+    * Registers this instance with the platform MBean server, under the name <code>dvrlib.localsearch:type=SearchMetrics,name=</code><i>name</i>.
+    * @return The name under which it was registered.
+    * @throws IllegalStateException If registration failed, e.g. because the name is already in use.
+    */
+   public ObjectName register(String name) {
+      try {
+         ObjectName objectName = new ObjectName("dvrlib.localsearch:type=SearchMetrics,name=" + ObjectName.quote(name));
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+         return objectName;
+      }
+      catch(JMException ex) {
+         throw new IllegalStateException("Unable to register SearchMetrics as " + name, ex);
+      }
+   }
+
+   /**
+    * Unregisters the instance with the given name from the platform MBean server.
+    * @see SearchMetrics#register(String)
+    */
+   public static void unregister(ObjectName objectName) {
+      try {
+         ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      }
+      catch(JMException ex) {
+         throw new IllegalStateException("Unable to unregister " + objectName, ex);
+      }
+   }
+}
@@ -0,0 +1,48 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchMetricsMXBean.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Map;
+
+/**
+ * Management interface of <code>SearchMetrics</code>, through which its counters can be read over JMX.
+ * @see SearchMetrics#register(String)
+ */
+public interface SearchMetricsMXBean {
+   /**
+    * Returns the current values of all counters and timers, by name.
+    */
+   public Map<String, Long> getSnapshot();
+
+   /**
+    * Returns the number of evaluations performed.
+    */
+   public long getEvaluations();
+
+   /**
+    * Returns the fraction of attempts to make a change that failed with a <code>CannotChangeException</code>.
+    */
+   public double getCannotChangeRate();
+
+   /**
+    * Resets all counters and timers to zero.
+    */
+   public void reset();
+}
@@ -0,0 +1,195 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchMonitor.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SearchMonitor collects progress events of searches and passes them on to its listeners.
+ * Search algorithms publish an event every <code>sampleInterval</code> iterations into a bounded ring buffer without taking locks,
+ *    and a single dispatching thread drains the buffer and calls the listeners.
+ * When the buffer is full, events are dropped rather than waited for, so slow listeners never slow down a search.
+ * A monitor may be shared by multiple searches running concurrently.
+ * @see LocalSearch#setMonitor(SearchMonitor)
+ */
+public class SearchMonitor<E extends Comparable<E>> implements AutoCloseable {
+   protected final CopyOnWriteArrayList<SearchListener<E>> listeners = new CopyOnWriteArrayList<SearchListener<E>>();
+   protected final AtomicReferenceArray<SearchEvent<E>>    events;
+   protected final AtomicLongArray                         sequences;
+   protected final AtomicLong                              tail      = new AtomicLong(0l),
+                                                           dropped   = new AtomicLong(0l);
+   protected final int                                     mask;
+   protected final long                                    sampleInterval;
+   protected       long                                    head      = 0l;
+   protected       Thread                                  dispatcher;
+   protected volatile boolean                              running   = false;
+
+   /**
+    * SearchMonitor constructor.
+    * @param capacity       The number of events the buffer can hold, which is rounded up to a power of two.
+    * @param sampleInterval The number of iterations between two events of a search.
+    */
+   public SearchMonitor(int capacity, long sampleInterval) {
+      if(capacity < 1 || capacity > (1 << 30))
+         throw new IllegalArgumentException("capacity should be in [1," + (1 << 30) + "]");
+      if(sampleInterval < 1)
+         throw new IllegalArgumentException("sampleInterval should be > 0");
+      int size            = Math.max(1, Integer.highestOneBit(capacity - 1) << 1);
+      this.events         = new AtomicReferenceArray<SearchEvent<E>>(size);
+      this.sequences      = new AtomicLongArray(size);
+      this.mask           = size - 1;
+      this.sampleInterval = sampleInterval;
+      for(int i = 0; i < size; i++) {
+         sequences.set(i, i);
+      }
+   }
+
+   /**
+    * Adds a listener, which is called for every event dispatched from then on.
+    */
+   public void addListener(SearchListener<E> listener) {
+      listeners.add(listener);
+   }
+
+   /**
+    * Removes the given listener.
+    */
+   public void removeListener(SearchListener<E> listener) {
+      listeners.remove(listener);
+   }
+
+   /**
+    * Returns whether a search should publish an event at the given iteration.
+    * O(1).
+    */
+   public boolean due(long iteration) {
+      return (iteration % sampleInterval == 0);
+   }
+
+   /**
+    * Adds the given event to the buffer, or drops it if the buffer is full. This method may be called by any thread.
+    * @return <code>true</code> if the event was added.
+    * O(1), lock-free.
+    */
+   public boolean publish(SearchEvent<E> event) {
+      while(true) {
+         long t    = tail.get();
+         int  i    = (int) t & mask;
+         long diff = sequences.get(i) - t;
+         if(diff == 0) {
+            // The slot is free; claim it
+            if(tail.compareAndSet(t, t + 1)) {
+               events.lazySet(i, event);
+               sequences.lazySet(i, t + 1);
+               return true;
+            }
+         }
+         else if(diff < 0) {
+            // The slot still holds an event that was not dispatched
+            dropped.incrementAndGet();
+            return false;
+         }
+      }
+   }
+
+   /**
+    * Removes the oldest event from the buffer. Only one thread at a time may call this method.
+    * @return The event, or <code>null</code> if the buffer is empty.
+    */
+   protected SearchEvent<E> poll() {
+      int i = (int) head & mask;
+      if(sequences.get(i) != head + 1)
+         return null;
+      SearchEvent<E> event = events.get(i);
+      events.lazySet(i, null);
+      sequences.lazySet(i, head + mask + 1);
+      head++;
+      return event;
+   }
+
+   /**
+    * Passes all events in the buffer on to the listeners.
+    * This method is called by the dispatching thread; it should only be called directly if that thread was not started.
+    * @return The number of events dispatched.
+    */
+   public synchronized int dispatch() {
+      int n = 0;
+      for(SearchEvent<E> event = poll(); event != null; event = poll(), n++) {
+         for(SearchListener<E> l : listeners) {
+            l.searchProgressed(event);
+         }
+      }
+      return n;
+   }
+
+   /**
+    * Starts a daemon thread that dispatches events, polling the buffer every millisecond while it is empty.
+    */
+   public synchronized void start() {
+      if(running)
+         throw new IllegalStateException("This monitor was already started");
+      running    = true;
+      dispatcher = new Thread("SearchMonitor") {
+            @Override
+            public void run() {
+               while(running) {
+                  if(dispatch() == 0)
+                     LockSupport.parkNanos(1000000l);
+               }
+            }
+         };
+      dispatcher.setDaemon(true);
+      dispatcher.start();
+   }
+
+   /**
+    * Stops the dispatching thread, after which the remaining events are dispatched by the calling thread. If the calling
+    * thread is interrupted while waiting for the dispatcher, its interrupt status is restored.
+    */
+   @Override
+   public void close() {
+      Thread t;
+      synchronized(this) {
+         running    = false;
+         t          = dispatcher;
+         dispatcher = null;
+      }
+      if(t != null) {
+         try {
+            t.join();
+         }
+         catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      dispatch();
+   }
+
+   /**
+    * Returns the number of events that were dropped because the buffer was full.
+    */
+   public long dropped() {
+      return dropped.get();
+   }
+}
@@ -19,6 +19,8 @@
 
 package dvrlib.localsearch;
 
+import java.util.SplittableRandom;
+
 public interface SearchState<P extends Problem<S, ? extends Comparable<?>>, S extends Solution> {
    /**
     * Returns the problem of this search.
@@ -39,4 +41,9 @@ public interface SearchState<P extends Problem<S, ? extends Comparable<?>>, S ex
     * Returns the number of iterations this search has done.
     */
    public long iterationCount();
+
+   /**
+    * Returns the source of randomness of this search, which should only be used by the thread working on this state.
+    */
+   public SplittableRandom random();
 }
@@ -0,0 +1,34 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SeededProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.SplittableRandom;
+
+/**
+ * Optional interface for problems that can generate random solutions using a given source of randomness.
+ * Search algorithms that start from random solutions use it when a seed was set, so that seeded searches starting from random solutions are reproducible as well.
+ * @see ParallelMultiStartLS
+ */
+public interface SeededProblem<S extends Solution> {
+   /**
+    * Generates a random solution to this problem, using only the given source of randomness.
+    */
+   public S randomSolution(SplittableRandom random);
+}
@@ -19,13 +19,20 @@
 
 package dvrlib.localsearch;
 
-public class SimulatedAnnealingLS<P extends Problem<S, E>, S extends Solution, E extends Number & Comparable<E>> extends LocalSearch<P, S, E> {
+public class SimulatedAnnealingLS<P extends Problem<S, E>, S extends Solution, E extends Number & Comparable<E>> extends StatefulLocalSearch<P, S, E, SimulatedAnnealingLS<P, S, E>.SearchState> {
    public class SearchState extends SingularSearchState<P, S> {
       protected ChangeList<P, S> changes     = new ChangeList<P, S>();
       protected double           temperature = initTemp;
+      protected E                curEval     = null,
+                                 bestEval    = null;
+      protected S                best        = null;
+      protected boolean          improved    = false,
+                                 keepBest    = false;
+      protected int              retry       = 0;
+      protected long             idle        = 0;
 
       public SearchState(P problem, S solution) {
-         super(problem, solution);
+         super(problem, solution, newRandom());
          iteration = 1; // Start at 1, otherwise the temperature would be decreased at the first iteration
       }
    }
@@ -43,6 +50,8 @@ public class SimulatedAnnealingLS<P extends Problem<S, E>, S extends Solution, E
                                                                     stopCount;
    protected final double                                           initTemp,
                                                                     tempMod;
+   protected       Checkpointer<S>                                  checkpointer       = null;
+   protected       long                                             checkpointInterval = 0;
 
    /**
     * SimulatedAnnealingLS constructor, using the default values for initTemp and tempMod.
@@ -88,6 +97,18 @@ public class SimulatedAnnealingLS<P extends Problem<S, E>, S extends Solution, E
       this.tempMod    = tempMod;
    }
 
+   /**
+    * Sets the checkpointer to which a snapshot of the search state is handed every <code>interval</code> iterations.
+    * A <code>null</code> checkpointer disables checkpointing.
+    * @see SimulatedAnnealingLS#resume(Problem, Checkpoint)
+    */
+   public void setCheckpointer(Checkpointer<S> checkpointer, long interval) {
+      if(checkpointer != null && interval < 1)
+         throw new IllegalArgumentException("interval should be > 0");
+      this.checkpointer       = checkpointer;
+      this.checkpointInterval = interval;
+   }
+
    /**
     * Searches for a solution for the given problem, starting from the given solution.
     * This algorithm repeatedly generates changes for the current solution and applies them if they improve it.
@@ -97,55 +118,117 @@ public class SimulatedAnnealingLS<P extends Problem<S, E>, S extends Solution, E
     * When a solution is found that is better or equal to the given bound, the search is stopped.
     */
    @Override
-   protected S doSearch(P problem, E bound, long maxTimeMillis, S solution) {
-      SearchState state = newState(problem, solution);
-      E curEval  = problem.evaluate(state),
-        bestEval = curEval;
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
+      return anneal(newState(problem, solution), bound, budget);
+   }
+
+   /**
+    * Returns a search state resumed from the given checkpoint, with the checkpointed solution, temperature and iteration counter.
+    * The solution pool of the problem is restored as well.
+    * The retries of the original search are not recorded, so the resumed search starts with all <code>retryCount</code> retries.
+    * @see SimulatedAnnealingLS#iterate(SimulatedAnnealingLS.SearchState, Number, Budget, long)
+    */
+   public SearchState resume(P problem, Checkpoint<S> checkpoint) {
+      assert (problem    != null) : "Problem should not be null";
+      assert (checkpoint != null) : "Checkpoint should not be null";
+      if(checkpoint.kind() != Checkpoint.Kind.Annealing)
+         throw new IllegalArgumentException("Not a checkpoint of a simulated annealing search: " + checkpoint.kind());
+
+      checkpoint.restorePool(problem);
+      SearchState state = newState(problem, checkpoint.solutions().get(0));
+      state.temperature = checkpoint.temperature();
+      state.iteration   = checkpoint.iteration();
+      return state;
+   }
+
+   /**
+    * Anneals the solution of the given search state, as described at <code>doSearch</code>, after which the best solution is saved and returned.
+    * @see SimulatedAnnealingLS#doSearch(Problem, Number, Budget, Solution)
+    */
+   protected S anneal(SearchState state, E bound, Budget budget) {
+      iterate(state, bound, budget, -1);
+      state.saveSolution();
+      return state.solution();
+   }
+
+   /**
+    * Does <code>n</code> iterations using the given search state, after which it is returned.
+    * A negative value of <code>n</code> indicates the search continues until all retries are used up, as described at <code>doSearch</code>.
+    * The current retry is kept in the state, so a search that is continued by another call resumes where it left off.
+    * When a solution is found that is better or equal to the given bound, the search is stopped.
+    */
+   @Override
+   public SearchState iterate(SearchState state, E bound, Budget budget, long n) {
+      P problem = state.problem;
+      if(state.curEval == null)
+         state.curEval = state.bestEval = problem.evaluate(state);
 
-      for(int r = 0; r < retryCount && !problem.betterEq(bestEval, bound); r++) {
-         boolean improved = false;
+      for(long i = 0; state.retry < retryCount && !problem.betterEq(state.bestEval, bound); ) {
+         boolean exhausted = false;
          try {
-            for(int sc = 0; sc < stopCount && !problem.betterEq(bestEval, bound); sc++, state.iteration++) {
+            for(; state.idle < stopCount && !problem.betterEq(state.bestEval, bound); state.idle++, state.iteration++) {
+               // Stop after n iterations, in the middle of the current retry
+               if(n >= 0 && i++ >= n)
+                  return state;
+
+               // Take a snapshot of the state every checkpointInterval iterations
+               if(checkpointer != null && state.iteration % checkpointInterval == 0)
+                  checkpointer.save(state);
+
                // Change the solution
-               state.changes.add(changer.makeChange(state));
-               E newEval = problem.evaluate(state);
+               Changer<P, S, ?>.Change change = makeChange(changer, state, state.changes);
+               E newEval = evaluate(state, state.changes, state.curEval);
+               budget.evaluated();
+               changer.feedback(change, problem.better(newEval, state.curEval));
 
                if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
                   state.saveSolution();
 
-               if(problem.better(newEval, curEval)) {
-                  sc = 0;
-                  curEval = newEval;
+               if(problem.better(newEval, state.curEval)) {
+                  state.idle    = 0;
+                  state.curEval = newEval;
+                  state.accepted++;
+                  moved(changer, true);
 
                   if(savingCriterion == LocalSearch.SavingCriterion.EveryImprovement)
                      state.saveSolution();
 
                   // If the new solution is at least as good as the best solution found, clear the list of changes
-                  if(problem.betterEq(newEval, bestEval)) {
+                  if(problem.betterEq(newEval, state.bestEval)) {
                      state.changes.clear();
 
-                     if(problem.better(newEval, bestEval)) {
-                        improved = true;
-                        bestEval = newEval;
+                     if(problem.better(newEval, state.bestEval)) {
+                        state.improved = true;
+                        state.bestEval = newEval;
+                        if(state.keepBest)
+                           state.best = problem.cloneSolution(state.solution);
                         if(savingCriterion == LocalSearch.SavingCriterion.NewBest)
                            state.saveSolution();
                      }
                   }
                }
-               else if(Math.random() < Math.exp((newEval.doubleValue() - curEval.doubleValue()) * LocalSearch.asNumber(problem.direction()) / state.temperature)) {
+               else if(state.random.nextDouble() < Math.exp((newEval.doubleValue() - state.curEval.doubleValue()) * LocalSearch.asNumber(problem.direction()) / state.temperature)) {
                   // Accept the change, even though it's not an improvement
-                  curEval = newEval;
+                  state.curEval = newEval;
+                  state.accepted++;
+                  moved(changer, true);
                }
-               else
+               else {
                   state.changes.undoLast(state);
+                  moved(changer, false);
+               }
 
                // Decrease the temperature according to the schedule
                if(state.iteration % coolCount == 0)
                   state.temperature *= tempMod;
 
+               report(state, state.curEval, state.bestEval, state.temperature);
+
                // Check the time limit
-               if(System.currentTimeMillis() >= maxTimeMillis)
+               if(budget.exhausted()) {
+                  exhausted = true;
                   break;
+               }
             }
          }
          catch(CannotChangeException _) { }
@@ -153,20 +236,41 @@ public class SimulatedAnnealingLS<P extends Problem<S, E>, S extends Solution, E
          // Undo the changes since the last improvement, reverting to the best known solution
          state.iteration -= state.changes.size();
          state.changes.undoAll(state);
+         state.curEval = state.bestEval;
 
-         if(improved)
-            r = -1;
+         // Start the next retry, or start counting the retries again after an improvement
+         state.retry    = (state.improved ? 0 : state.retry + 1);
+         state.improved = false;
+         state.idle     = 0;
 
          // Check the time limit
-         if(System.currentTimeMillis() >= maxTimeMillis)
+         if(exhausted)
             break;
       }
+      return state;
+   }
 
-      state.saveSolution();
-      return state.solution();
+   /**
+    * Returns whether all retries of the search with the given state are used up.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.retry >= retryCount);
    }
 
-   protected SearchState newState(P problem, S solution) {
+   /**
+    * Returns the best solution of the given state.
+    * As the current solution of the state may have moved away from the best solution, the state keeps a copy of every new best solution from the first call of this method on;
+    *    the asynchronous search calls it as soon as it created the state.
+    */
+   @Override
+   protected S bestSolution(SearchState state) {
+      state.keepBest = true;
+      return (state.changes.size() == 0 || state.best == null ? state.solution : state.best);
+   }
+
+   @Override
+   public SearchState newState(P problem, S solution) {
       changer.reinitialise(problem);
       return new SearchState(problem, solution);
    }
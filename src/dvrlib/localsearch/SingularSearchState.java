@@ -19,11 +19,23 @@
 
 package dvrlib.localsearch;
 
+import java.util.SplittableRandom;
+
 public class SingularSearchState<P extends Problem<S, ? extends Comparable<?>>, S extends Solution> extends AbstractSearchState<P, S> {
    protected S solution;
 
+   /**
+    * SingularSearchState constructor, using an arbitrarily seeded source of randomness.
+    * @deprecated Searches using this state cannot be reproduced; use <code>SingularSearchState(P, S, SplittableRandom)</code> instead.
+    */
+   @Deprecated
    public SingularSearchState(P problem, S solution) {
-      super(problem);
+      super(problem, new SplittableRandom());
+      this.solution = solution;
+   }
+
+   public SingularSearchState(P problem, S solution, SplittableRandom random) {
+      super(problem, random);
       this.solution = solution;
    }
 
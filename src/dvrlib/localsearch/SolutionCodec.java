@@ -0,0 +1,41 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SolutionCodec.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts solutions to and from a compact binary representation, as used in checkpoints.
+ * @see Checkpointer
+ */
+public interface SolutionCodec<S extends Solution> {
+   /**
+    * Writes the given solution to the given output.
+    */
+   public void write(S solution, DataOutput out) throws IOException;
+
+   /**
+    * Reads a solution, as written by <code>write</code>, from the given input.
+    * @see SolutionCodec#write(Solution, DataOutput)
+    */
+   public S read(DataInput in) throws IOException;
+}
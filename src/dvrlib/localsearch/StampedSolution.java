@@ -0,0 +1,32 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * StampedSolution.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * A solution that keeps track of its modifications, which allows its evaluation to be cached.
+ * @see EvaluationCache
+ */
+public interface StampedSolution extends Solution {
+   /**
+    * Returns the modification stamp of this solution.
+    * The stamp should change every time this solution is modified in a way that may change its evaluation.
+    */
+   public long modificationStamp();
+}
@@ -19,15 +19,120 @@
 
 package dvrlib.localsearch;
 
+import java.util.concurrent.Executor;
+
 public abstract class StatefulLocalSearch<P extends Problem<S, E>, S extends Solution, E extends Comparable<E>, SS extends SearchState<P, S>> extends LocalSearch<P, S, E> {
+   protected long chunkSize = 1000;
+
    /**
     * Does <code>n</code> iterations on the given solution, and returns the best solution found.
     * When a solution is found that is better or equal to the given bound, the search is stopped.
     */
-   public abstract SS iterate(SS state, E bound, long maxTimeMillis, long n);
+   public abstract SS iterate(SS state, E bound, Budget budget, long n);
+
+   /**
+    * Does <code>n</code> iterations on the given solution, and returns the best solution found.
+    * The search is also stopped when <code>System.currentTimeMillis()</code> reaches <code>maxTimeMillis</code>.
+    * @see StatefulLocalSearch#iterate(SearchState, Comparable, Budget, long)
+    */
+   public SS iterate(SS state, E bound, long maxTimeMillis, long n) {
+      return iterate(state, bound, Budget.untilMillis(maxTimeMillis), n);
+   }
 
    /**
     * Returns a new search state.
     */
    public abstract SS newState(P problem, S solution);
+
+   /**
+    * Returns whether the search with the given state stopped by itself, i.e. whether <code>iterate</code> with a negative <code>n</code> would do no more iterations,
+    *    after a call of <code>iterate</code> that did the given number of iterations.
+    * The asynchronous search uses this to follow the stopping rule of the search algorithm, while it iterates in chunks.
+    * The default implementation considers the search stopped once a call did no iterations at all; search algorithms with a stopping rule of their own should override it.
+    * @see StatefulLocalSearch#searchAsync(Problem, Comparable, Budget, Solution, Executor)
+    */
+   protected boolean converged(SS state, long iterations) {
+      return (iterations == 0);
+   }
+
+   /**
+    * Returns the best solution found by the search with the given state, which the asynchronous search publishes after every chunk.
+    * The default implementation returns the solution of the state.
+    */
+   protected S bestSolution(SS state) {
+      return state.solution();
+   }
+
+   /**
+    * Sets the number of iterations an asynchronous search does between two publications of its best solution.
+    * @see StatefulLocalSearch#searchAsync(Problem, Comparable, Budget, Solution, Executor)
+    */
+   public void setChunkSize(long chunkSize) {
+      if(chunkSize < 1)
+         throw new IllegalArgumentException("chunkSize should be > 0");
+      this.chunkSize = chunkSize;
+   }
+
+   /**
+    * Starts a search for a solution for the given problem on the given executor, starting from the given solution.
+    * @param timeLimit The number of milliseconds the search may take, or a negative value for no time limit.
+    * @see StatefulLocalSearch#searchAsync(Problem, Comparable, Budget, Solution, Executor)
+    */
+   public SearchHandle<S> searchAsync(P problem, E bound, long timeLimit, S solution, Executor executor) {
+      return searchAsync(problem, bound, Budget.ofMillis(timeLimit), solution, executor);
+   }
+
+   /**
+    * Starts a search for a solution for the given problem on the given executor, starting from the given solution, and returns a handle to it.
+    * The search does chunks of <code>chunkSize</code> iterations, after each of which a copy of the best solution is published to the handle.
+    * It stops when the bound is reached, the budget is exhausted or the handle is cancelled, or when the search algorithm would stop by itself.
+    * Finally, the best solution is saved to the problem and becomes the result of the handle.
+    * Many searches can run concurrently on one executor, e.g. a thread pool, or a virtual-thread-per-task executor on JVMs that support it.
+    * @param executor The executor the search is run on; the caller remains responsible for shutting it down.
+    * @see SearchHandle
+    */
+   public SearchHandle<S> searchAsync(final P problem, final E bound, final Budget budget, final S solution, Executor executor) {
+      assert (problem  != null) : "Problem should not be null";
+      assert (bound    != null) : "Bound should not be null";
+      assert (budget   != null) : "Budget should not be null";
+      assert (solution != null) : "Solution should not be null";
+      final SearchHandle<S> handle = new SearchHandle<S>(budget);
+      executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               handle.start(Thread.currentThread());
+               try {
+                  handle.complete(searchChunked(handle, problem, bound, solution), null);
+               }
+               catch(Throwable ex) {
+                  handle.complete(null, ex);
+               }
+            }
+         });
+      return handle;
+   }
+
+   /**
+    * Implementation of the asynchronous search, run by the thread of the executor.
+    * @see StatefulLocalSearch#searchAsync(Problem, Comparable, Budget, Solution, Executor)
+    */
+   protected S searchChunked(SearchHandle<S> handle, P problem, E bound, S solution) {
+      Budget budget = handle.budget();
+      SS     state  = newState(problem, solution);
+      handle.publish(problem.cloneSolution(bestSolution(state)));
+      while(!problem.betterEq(handle.best(), bound) && !budget.checkNow()) {
+         long start = state.iterationCount();
+         iterate(state, bound, budget, chunkSize);
+         S best = bestSolution(state);
+         if(problem.better(best, handle.best()))
+            handle.publish(problem.cloneSolution(best));
+         if(converged(state, state.iterationCount() - start))
+            break;
+      }
+
+      S best = handle.best();
+      best.setIterationCount(state.iterationCount());
+      problem.saveSolution(best);
+      return best;
+   }
 }
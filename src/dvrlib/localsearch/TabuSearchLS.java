@@ -0,0 +1,399 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * TabuSearchLS.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * TabuSearchLS implements tabu search in the localsearch framework.
+ * Every iteration, <code>candidateCount</code> changes are sampled from the neighbourhood of the current solution, and the best admissible one is applied,
+ *    even if it makes the solution worse.
+ * The attribute of an applied change is tabu for the next <code>tenure</code> iterations; changes with a tabu attribute are not admissible,
+ *    unless they satisfy the aspiration criterion.
+ * Changes implementing <code>AttributedChange</code> supply their own attributes; for other changes the evaluation of the resulting solution is used.
+ * When multiple changers and an executor are given, the candidates are sampled and evaluated concurrently, each changer working on its own copy of the current solution.
+ * Changes implementing <code>RepeatableChange</code> are made again to move to the chosen candidate; for other changes every better candidate is copied while sampling.
+ * @see AttributedChange
+ * @see RepeatableChange
+ */
+public class TabuSearchLS<P extends Problem<S, E>, S extends Solution, E extends Comparable<E>> extends StatefulLocalSearch<P, S, E, TabuSearchLS<P, S, E>.SearchState> {
+   /**
+    * Defines when a change with a tabu attribute is admissible nonetheless.
+    *   None:        never;
+    *   NewBest:     when it results in a solution better than the best solution found so far;
+    *   Improvement: when it results in a solution better than the current solution;
+    */
+   public enum Aspiration { None, NewBest, Improvement };
+
+   public class Worker extends SingularSearchState<P, S> {
+      protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changer;
+      protected final ChangeList<P, S>                                 changes = new ChangeList<P, S>();
+      protected final int                                              candidateCount;
+
+      protected Worker(P problem, S solution, Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, int candidateCount) {
+         super(problem, solution, newRandom());
+         this.changer        = changer;
+         this.candidateCount = candidateCount;
+      }
+   }
+
+   protected class Candidate {
+      protected final S                      solution;
+      protected final RepeatableChange<P, S> change;
+      protected final E                      eval;
+      protected final Object                 attribute;
+
+      /**
+       * Candidate constructor.
+       * @param solution  A copy of the resulting solution, or <code>null</code> if the change is given.
+       * @param change    The change that results in the candidate, or <code>null</code> if the solution is given.
+       * @param eval      The evaluation of the resulting solution.
+       * @param attribute The attribute of the change.
+       */
+      protected Candidate(S solution, RepeatableChange<P, S> change, E eval, Object attribute) {
+         this.solution  = solution;
+         this.change    = change;
+         this.eval      = eval;
+         this.attribute = attribute;
+      }
+   }
+
+   public class SearchState extends AbstractSearchState<P, S> {
+      protected final ArrayList<Worker>     workers;
+      protected final HashMap<Object, Long> tabu            = new HashMap<Object, Long>();
+      protected       E                     eval;
+      protected       S                     best;
+      protected       E                     bestEval;
+      protected       long                  lastImprovement = 0;
+
+      protected SearchState(P problem, ArrayList<Worker> workers) {
+         super(problem, newRandom());
+         this.workers = workers;
+         eval         = problem.evaluate(workers.get(0).solution);
+         best         = problem.cloneSolution(workers.get(0).solution);
+         bestEval     = eval;
+      }
+
+      /**
+       * Returns the current solution, which is not necessarily the best solution found so far.
+       */
+      public S current() {
+         return workers.get(0).solution;
+      }
+
+      /**
+       * Returns whether the given attribute is currently tabu.
+       */
+      public boolean isTabu(Object attribute) {
+         Long expiry = tabu.get(attribute);
+         return (expiry != null && expiry > iteration);
+      }
+
+      /**
+       * Returns the best solution found so far.
+       */
+      @Override
+      public S solution() {
+         return best;
+      }
+   }
+
+   protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changers[];
+   protected final ExecutorService                                  executor;
+   protected       Aspiration                                       aspiration = Aspiration.NewBest;
+   protected       int                                              candidateCount,
+                                                                    stopCount,
+                                                                    tenure;
+
+   /**
+    * TabuSearchLS constructor, sampling all candidates on the calling thread.
+    * @param changer        The changer that is used to sample changes to the current solution.
+    * @param candidateCount The number of changes that are sampled every iteration.
+    * @param tenure         The number of iterations an attribute remains tabu after a change with that attribute was applied.
+    * @param stopCount      The number of iterations in which no better solution was found after which the search will stop.
+    * @see TabuSearchLS#TabuSearchLS(Changer[], ExecutorService, int, int, int)
+    */
+   @SuppressWarnings("unchecked")
+   public TabuSearchLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, int candidateCount, int tenure, int stopCount) {
+      this((Changer<P, S, ? extends Changer<P, S, ?>.Change>[]) new Changer<?, ?, ?>[] { changer }, null, candidateCount, tenure, stopCount);
+   }
+
+   /**
+    * TabuSearchLS constructor.
+    * @param changers       The changers that are used to sample changes; the candidates of every iteration are divided evenly among them.
+    * @param executor       The executor the changers are run on, or <code>null</code> to run them one after another on the calling thread.
+    *                       When an executor is given, the evaluation of the problem should be thread-safe.
+    * @param candidateCount The number of changes that are sampled every iteration.
+    * @param tenure         The number of iterations an attribute remains tabu after a change with that attribute was applied.
+    * @param stopCount      The number of iterations in which no better solution was found after which the search will stop.
+    */
+   public TabuSearchLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changers[], ExecutorService executor, int candidateCount, int tenure, int stopCount) {
+      if(changers.length < 1)
+         throw new IllegalArgumentException("At least one changer is needed");
+      this.changers = changers;
+      this.executor = executor;
+      setCandidateCount(candidateCount);
+      setTenure(tenure);
+      setStopCount(stopCount);
+   }
+
+   /**
+    * Sets the aspiration criterion, which is <code>NewBest</code> by default.
+    * @see TabuSearchLS.Aspiration
+    */
+   public void setAspiration(Aspiration aspiration) {
+      if(aspiration == null)
+         throw new IllegalArgumentException("aspiration should not be null");
+      this.aspiration = aspiration;
+   }
+
+   /**
+    * Sets the number of changes that are sampled every iteration.
+    * This takes effect when a new search state is created.
+    */
+   public void setCandidateCount(int candidateCount) {
+      if(candidateCount < changers.length)
+         throw new IllegalArgumentException("candidateCount should be >= the number of changers");
+      this.candidateCount = candidateCount;
+   }
+
+   /**
+    * Sets the number of iterations in which no better solution was found after which the search will stop.
+    */
+   public void setStopCount(int stopCount) {
+      if(stopCount < 1)
+         throw new IllegalArgumentException("stopCount should be > 0");
+      this.stopCount = stopCount;
+   }
+
+   /**
+    * Sets the number of iterations an attribute remains tabu after a change with that attribute was applied.
+    */
+   public void setTenure(int tenure) {
+      if(tenure < 0)
+         throw new IllegalArgumentException("tenure should be >= 0");
+      this.tenure = tenure;
+   }
+
+   /**
+    * Searches for a solution for the given problem, starting from the given solution.
+    * The search stops after <code>stopCount</code> iterations without improvement, or when the bound or the time limit is reached.
+    */
+   @Override
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
+      SearchState state = iterate(newState(problem, solution), bound, budget, -1);
+      state.best.setIterationCount(state.iterationCount());
+      state.saveSolution();
+      return state.solution();
+   }
+
+   /**
+    * Does <code>n</code> iterations using the given search state, after which it is returned.
+    * A negative value of <code>n</code> indicates the search continues until no improvement was found in <code>stopCount</code> iterations.
+    * When a solution is found that is better or equal to the given bound, the search is stopped.
+    */
+   @Override
+   public SearchState iterate(final SearchState state, final E bound, final Budget budget, long n) {
+      ArrayList<Callable<Candidate>> scans = new ArrayList<Callable<Candidate>>(state.workers.size());
+      for(final Worker w : state.workers) {
+         final Budget fork = budget.fork();
+         scans.add(new Callable<Candidate>() {
+               @Override
+               public Candidate call() {
+                  return scan(state, w, fork);
+               }
+            });
+      }
+
+      for(long stop = state.iteration + n; (n < 0 ? state.iteration - state.lastImprovement < stopCount : state.iteration < stop) && !state.problem.betterEq(state.bestEval, bound); state.iteration++) {
+         // Sample the neighbourhood of the current solution
+         Candidate candidate = null;
+         if(executor == null || state.workers.size() == 1) {
+            for(Worker w : state.workers) {
+               candidate = better(state, candidate, scan(state, w, budget));
+            }
+         }
+         else {
+            try {
+               for(Future<Candidate> f : executor.invokeAll(scans)) {
+                  candidate = better(state, candidate, f.get());
+               }
+            }
+            catch(InterruptedException ex) {
+               Thread.currentThread().interrupt();
+               break;
+            }
+            catch(ExecutionException ex) {
+               throw new IllegalStateException("A worker of TabuSearchLS failed", ex.getCause());
+            }
+         }
+
+         // Apply the best admissible change and make its attribute tabu
+         if(candidate != null) {
+            boolean improved = state.problem.better(candidate.eval, state.eval);
+            moveTo(state, candidate);
+            state.eval = candidate.eval;
+            state.accepted++;
+            if(tenure > 0)
+               state.tabu.put(candidate.attribute, state.iteration + tenure);
+
+            if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration || (improved && savingCriterion == LocalSearch.SavingCriterion.EveryImprovement))
+               state.problem.saveSolution(state.current());
+            if(state.problem.better(candidate.eval, state.bestEval)) {
+               state.best            = state.problem.cloneSolution(state.current());
+               state.bestEval        = candidate.eval;
+               state.lastImprovement = state.iteration;
+               if(savingCriterion == LocalSearch.SavingCriterion.NewBest)
+                  state.saveSolution();
+            }
+         }
+         if(state.tabu.size() > 2 * tenure)
+            expire(state);
+         report(state, state.eval, state.bestEval, Double.NaN);
+
+         // Check the time limit
+         if(budget.exhausted())
+            break;
+      }
+      return state;
+   }
+
+   /**
+    * Returns whether a change to a solution with the given evaluation and attribute is admissible in the given search state.
+    */
+   protected boolean admissible(SearchState state, E eval, Object attribute) {
+      if(!state.isTabu(attribute))
+         return true;
+      switch(aspiration) {
+         case None:
+            return false;
+         case NewBest:
+            return state.problem.better(eval, state.bestEval);
+         case Improvement:
+            return state.problem.better(eval, state.eval);
+         default:
+            throw new IllegalStateException("Unknown instance of TabuSearchLS.Aspiration: " + aspiration);
+      }
+   }
+
+   /**
+    * Returns the better of the given candidates, either of which may be <code>null</code>.
+    */
+   protected Candidate better(SearchState state, Candidate c1, Candidate c2) {
+      if(c1 == null)
+         return c2;
+      if(c2 == null)
+         return c1;
+      return (state.problem.better(c2.eval, c1.eval) ? c2 : c1);
+   }
+
+   /**
+    * Removes the attributes that are no longer tabu from the tabu list.
+    * O(state.tabu.size()).
+    */
+   protected void expire(SearchState state) {
+      for(Iterator<Map.Entry<Object, Long>> it = state.tabu.entrySet().iterator(); it.hasNext(); ) {
+         if(it.next().getValue() <= state.iteration)
+            it.remove();
+      }
+   }
+
+   /**
+    * Makes the solution of the given candidate the current solution of all workers.
+    * A repeatable change is made again to the solution of every worker; otherwise the copy of the candidate is used, and cloned for the other workers.
+    */
+   protected void moveTo(SearchState state, Candidate candidate) {
+      if(candidate.change != null) {
+         for(Worker w : state.workers) {
+            candidate.change.redo(w);
+         }
+         return;
+      }
+
+      state.workers.get(0).solution = candidate.solution;
+      for(int i = 1; i < state.workers.size(); i++) {
+         state.workers.get(i).solution = state.problem.cloneSolution(candidate.solution);
+      }
+   }
+
+   /**
+    * Samples <code>w.candidateCount</code> changes to the solution of the given worker, and returns the best admissible one.
+    * A repeatable change is returned as is, otherwise the candidate holds a copy of the resulting solution.
+    * Every change is undone after it was evaluated, so the solution of the worker is left as it was.
+    * The search state is only read, so multiple workers can scan concurrently.
+    * @return The best admissible candidate, or <code>null</code> if none of the sampled changes was admissible.
+    */
+   @SuppressWarnings("unchecked")
+   protected Candidate scan(SearchState state, Worker w, Budget budget) {
+      Candidate best = null;
+      try {
+         for(int i = 0; i < w.candidateCount; i++) {
+            Changer<P, S, ?>.Change change = makeChange(w.changer, w, w.changes);
+            E      eval      = evaluate(w, w.changes, state.eval);
+            budget.evaluated();
+            w.changer.feedback(change, state.problem.better(eval, state.eval));
+            Object entry     = w.changes.lastEntry(),
+                   attribute = (entry instanceof AttributedChange ? ((AttributedChange) entry).attribute() : eval);
+            if((best == null || state.problem.better(eval, best.eval)) && admissible(state, eval, attribute)) {
+               if(change instanceof RepeatableChange)
+                  best = new Candidate(null, (RepeatableChange<P, S>) change, eval, attribute);
+               else
+                  best = new Candidate(state.problem.cloneSolution(w.solution), null, eval, attribute);
+            }
+            w.changes.undoLast(w);
+
+            // Check the time limit
+            if(budget.exhausted())
+               break;
+         }
+      }
+      catch(CannotChangeException _) { }
+      return best;
+   }
+
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount);
+   }
+
+   /**
+    * Returns a new search state, in which the first worker starts from the given solution and the others from clones of it.
+    */
+   @Override
+   public SearchState newState(P problem, S solution) {
+      ArrayList<Worker> workers = new ArrayList<Worker>(changers.length);
+      for(int i = 0; i < changers.length; i++) {
+         changers[i].reinitialise(problem);
+         workers.add(new Worker(problem, (i == 0 ? solution : problem.cloneSolution(solution)), changers[i],
+                                candidateCount / changers.length + (i < candidateCount % changers.length ? 1 : 0)));
+      }
+      return new SearchState(problem, workers);
+   }
+}
@@ -19,8 +19,8 @@
 
 package dvrlib.localsearch;
 
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedList;
 
 public class TournamentParentSelector<S extends Solution> implements ParentSelector<S> {
    protected final int tournamentSize;
@@ -37,11 +37,11 @@ public class TournamentParentSelector<S extends Solution> implements ParentSelec
     * Selects <code>count</code> solutions from the given population using tournament selection.
     */
    public Iterable<S> select(GeneticLS<S, ?>.SearchState ss, int count) {
-      LinkedList<S> ls = new LinkedList<S>();
+      ArrayList<S> ls = new ArrayList<S>(count);
       for(int i = 0; i < count; i++) {
          S winner = null;
          for(int j = 0; j < tournamentSize; j++) {
-            S candidate = ss.population.peekRandom();
+            S candidate = ss.population.peekRandom(ss.random());
             if(ss.problem.better(candidate, winner))
                winner = candidate;
          }
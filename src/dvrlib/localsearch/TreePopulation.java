@@ -21,6 +21,7 @@ package dvrlib.localsearch;
 
 import dvrlib.generic.IterableOnce;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
@@ -49,15 +50,15 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
    public boolean add(S solution) {
       if(size >= sizeLim)
          popWorst();
-      E eval = problem.evaluate(solution);
+      E eval = evaluate(solution);
       if(!tree.containsKey(eval))
          tree.put(eval, new HashSet<S>());
-      if(tree.get(eval).add(solution)) {
+      boolean added = tree.get(eval).add(solution);
+      if(added)
          size++;
-         return true;
-      }
-      else
-         return false;
+      if(metrics != null)
+         metrics.inserted(added);
+      return added;
    }
 
    /**
@@ -76,10 +77,18 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     */
    @Override
    public boolean contains(S solution) {
-      E e = problem.evaluate(solution);
+      E e = evaluate(solution);
       return (tree.containsKey(e) && tree.get(e).contains(solution));
    }
 
+   /**
+    * Returns the evaluation of the given solution, using the evaluation cache of the problem if it has one.
+    * @see AbstractProblem#evaluateCached(Solution)
+    */
+   protected E evaluate(S solution) {
+      return (problem instanceof AbstractProblem ? ((AbstractProblem<S, E>) problem).evaluateCached(solution) : problem.evaluate(solution));
+   }
+
    /**
     * Returns true if this collection contains no elements.
     */
@@ -95,10 +104,10 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
    public Iterator<S> iterator() {
       return new Iterator<S>() {
             protected Entry<E, HashSet<S>> e = tree.lastEntry();
-            protected Iterator<S> it = e.getValue().iterator();
+            protected Iterator<S> it = (e == null ? Collections.<S>emptyIterator() : e.getValue().iterator());
 
             public boolean hasNext() {
-               return (it.hasNext() || tree.lowerEntry(e.getKey()) != null);
+               return (it.hasNext() || (e != null && tree.lowerEntry(e.getKey()) != null));
             }
 
             public S next() {
@@ -142,7 +151,7 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     * @see TreePopulation#peekBest(E)
     */
    public S peekBest(S ub) {
-      return peekBest(problem.evaluate(ub));
+      return peekBest(evaluate(ub));
    }
 
    /**
@@ -163,7 +172,7 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     * @see TreePopulation#peekBestSet(E)
     */
    public HashSet<S> peekBestSet(S ub) {
-      return peekBestSet(problem.evaluate(ub));
+      return peekBestSet(evaluate(ub));
    }
 
    /**
@@ -186,7 +195,7 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     * @see TreePopulation#peekWorst(E)
     */
    public S peekWorst(S lb) {
-      return peekWorst(problem.evaluate(lb));
+      return peekWorst(evaluate(lb));
    }
 
    /**
@@ -207,7 +216,7 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     * @see TreePopulation#peekWorstSet(E)
     */
    public HashSet<S> peekWorstSet(S lb) {
-      return peekWorstSet(problem.evaluate(lb));
+      return peekWorstSet(evaluate(lb));
    }
 
    /**
@@ -245,7 +254,7 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     * @see TreePopulation#popBest(E)
     */
    public S popBest(S ub) {
-      return popBest(problem.evaluate(ub));
+      return popBest(evaluate(ub));
    }
 
    /**
@@ -268,7 +277,7 @@ public class TreePopulation<S extends Solution, E extends Comparable<E>> extends
     * @see TreePopulation#popWorst(E)
     */
    public S popWorst(S lb) {
-      return popWorst(problem.evaluate(lb));
+      return popWorst(evaluate(lb));
    }
 
    /**
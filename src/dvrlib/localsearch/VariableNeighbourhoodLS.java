@@ -0,0 +1,247 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * VariableNeighbourhoodLS.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * VariableNeighbourhoodLS implements variable neighbourhood search in the localsearch framework.
+ * The neighbourhoods are defined by an ordered list of changers. Every iteration, the current solution is shaken by making <code>shakeCount</code> random changes
+ *    in the current neighbourhood, after which it is improved by a descent in the same neighbourhood, until <code>descentTries</code> consecutive changes fail to improve it.
+ * If the result is better than the solution before shaking, it is kept and the search continues with the first neighbourhood.
+ * Otherwise, all changes are undone and the search escalates to the next neighbourhood, wrapping around after the last one.
+ * The time spent and the successes of every neighbourhood are recorded in the search state.
+ */
+public class VariableNeighbourhoodLS<P extends Problem<S, E>, S extends Solution, E extends Comparable<E>> extends StatefulLocalSearch<P, S, E, VariableNeighbourhoodLS<P, S, E>.SearchState> {
+   public class SearchState extends SingularSearchState<P, S> {
+      protected final ChangeList<P, S> changes         = new ChangeList<P, S>();
+      protected final long             nanos[],
+                                       tries[],
+                                       improvements[];
+      protected       E                eval;
+      protected       int              neighbourhood   = 0;
+      protected       long             lastImprovement = 0;
+
+      protected SearchState(P problem, S solution) {
+         super(problem, solution, newRandom());
+         eval         = problem.evaluate(this);
+         nanos        = new long[changers.length];
+         tries        = new long[changers.length];
+         improvements = new long[changers.length];
+      }
+
+      /**
+       * Returns the index of the neighbourhood the next iteration will use.
+       */
+      public int neighbourhood() {
+         return neighbourhood;
+      }
+
+      /**
+       * Returns the number of nanoseconds spent in the given neighbourhood.
+       */
+      public long nanos(int neighbourhood) {
+         return nanos[neighbourhood];
+      }
+
+      /**
+       * Returns the number of iterations that used the given neighbourhood.
+       */
+      public long tries(int neighbourhood) {
+         return tries[neighbourhood];
+      }
+
+      /**
+       * Returns the number of iterations in which the given neighbourhood improved the solution.
+       */
+      public long improvements(int neighbourhood) {
+         return improvements[neighbourhood];
+      }
+
+      /**
+       * Returns the fraction of iterations in which the given neighbourhood improved the solution.
+       */
+      public double successRate(int neighbourhood) {
+         return (tries[neighbourhood] == 0 ? 0d : (double) improvements[neighbourhood] / tries[neighbourhood]);
+      }
+   }
+
+   protected final Changer<P, S, ? extends Changer<P, S, ?>.Change> changers[];
+   protected       int                                              descentTries,
+                                                                    shakeCount,
+                                                                    stopCount;
+
+   /**
+    * VariableNeighbourhoodLS constructor.
+    * @param changers     The changers defining the neighbourhoods, in the order in which they are used.
+    * @param shakeCount   The number of random changes made when shaking the solution.
+    * @param descentTries The number of consecutive changes that fail to improve the solution after which a descent is stopped.
+    * @param stopCount    The number of iterations in which no better solution was found after which the search will stop.
+    * O(1).
+    */
+   public VariableNeighbourhoodLS(Changer<P, S, ? extends Changer<P, S, ?>.Change> changers[], int shakeCount, int descentTries, int stopCount) {
+      if(changers.length < 1)
+         throw new IllegalArgumentException("At least one changer is needed");
+      this.changers = changers;
+      setShakeCount(shakeCount);
+      setDescentTries(descentTries);
+      setStopCount(stopCount);
+   }
+
+   /**
+    * Sets the number of consecutive changes that fail to improve the solution after which a descent is stopped.
+    */
+   public void setDescentTries(int descentTries) {
+      if(descentTries < 0)
+         throw new IllegalArgumentException("descentTries should be >= 0");
+      this.descentTries = descentTries;
+   }
+
+   /**
+    * Sets the number of random changes made when shaking the solution.
+    */
+   public void setShakeCount(int shakeCount) {
+      if(shakeCount < 0)
+         throw new IllegalArgumentException("shakeCount should be >= 0");
+      this.shakeCount = shakeCount;
+   }
+
+   /**
+    * Sets the number of iterations in which no better solution was found after which the search will stop.
+    */
+   public void setStopCount(int stopCount) {
+      if(stopCount < 1)
+         throw new IllegalArgumentException("stopCount should be > 0");
+      this.stopCount = stopCount;
+   }
+
+   /**
+    * Searches for an optimal solution for the given problem, starting from the given solution, which is saved and returned.
+    * @see VariableNeighbourhoodLS#iterate(VariableNeighbourhoodLS.SearchState, Comparable, Budget, long)
+    */
+   @Override
+   protected S doSearch(P problem, E bound, Budget budget, S solution) {
+      SearchState state = newState(problem, solution);
+      iterate(state, bound, budget, -1).saveSolution();
+      state.solution.setIterationCount(state.iterationCount());
+      return state.solution();
+   }
+
+   /**
+    * Searches for an optimal solution using the given search state, with a maximum of <code>n</code> iterations, after which the state is returned.
+    * A negative value of <code>n</code> indicates the search continues until no improvement was found in <code>stopCount</code> iterations.
+    * When a solution is found that is better or equal to the given bound, the search is stopped.
+    */
+   @Override
+   public SearchState iterate(SearchState state, E bound, Budget budget, long n) {
+      for(long stop = state.iteration + n; (n < 0 ? state.iteration - state.lastImprovement < stopCount : state.iteration < stop) && !state.problem.betterEq(state.eval, bound); state.iteration++) {
+         int  k     = state.neighbourhood;
+         long start = System.nanoTime();
+         E    eval  = explore(state, changers[k], budget);
+         state.nanos[k] += System.nanoTime() - start;
+         state.tries[k]++;
+
+         if(eval != null && state.problem.better(eval, state.eval)) {
+            // Keep the changes and return to the first neighbourhood
+            state.changes.clear();
+            state.eval            = eval;
+            state.neighbourhood   = 0;
+            state.lastImprovement = state.iteration;
+            state.improvements[k]++;
+            state.accepted++;
+            if(savingCriterion == LocalSearch.SavingCriterion.NewBest || savingCriterion == LocalSearch.SavingCriterion.EveryImprovement)
+               state.saveSolution();
+         }
+         else {
+            // Revert to the solution before shaking and escalate to the next neighbourhood
+            state.changes.undoAll(state);
+            state.neighbourhood = (k + 1) % changers.length;
+         }
+         if(savingCriterion == LocalSearch.SavingCriterion.EveryIteration)
+            state.saveSolution();
+         report(state, state.eval, state.eval, Double.NaN);
+
+         // Check the time limit
+         if(budget.exhausted())
+            break;
+      }
+      return state;
+   }
+
+   /**
+    * Shakes the solution of the given state and improves it by a descent, both using the given changer.
+    * All changes are recorded in the change list of the state, so they can be undone.
+    * @return The evaluation of the resulting solution, or <code>null</code> if the changer was unable to shake the solution.
+    */
+   protected E explore(SearchState state, Changer<P, S, ? extends Changer<P, S, ?>.Change> changer, Budget budget) {
+      E eval = state.eval;
+      try {
+         // Shake the solution
+         for(int i = 0; i < shakeCount; i++) {
+            makeChange(changer, state, state.changes);
+            eval = evaluate(state, state.changes, eval);
+            budget.evaluated();
+         }
+      }
+      catch(CannotChangeException _) {
+         return null;
+      }
+
+      try {
+         // Improve the solution until it is a local optimum
+         for(int failures = 0; failures < descentTries; ) {
+            Changer<P, S, ?>.Change change = makeChange(changer, state, state.changes);
+            E newEval = evaluate(state, state.changes, eval);
+            budget.evaluated();
+            changer.feedback(change, state.problem.better(newEval, eval));
+            if(state.problem.better(newEval, eval)) {
+               eval     = newEval;
+               failures = 0;
+               moved(changer, true);
+            }
+            else {
+               state.changes.undoLast(state);
+               failures++;
+               moved(changer, false);
+            }
+
+            // Check the time limit
+            if(budget.exhausted())
+               break;
+         }
+      }
+      catch(CannotChangeException _) { }
+      return eval;
+   }
+
+   /**
+    * Returns whether no better solution was found in the last <code>stopCount</code> iterations.
+    */
+   @Override
+   protected boolean converged(SearchState state, long iterations) {
+      return (state.iteration - state.lastImprovement >= stopCount);
+   }
+
+   @Override
+   public SearchState newState(P problem, S solution) {
+      for(Changer<P, S, ? extends Changer<P, S, ?>.Change> changer : changers) {
+         changer.reinitialise(problem);
+      }
+      return new SearchState(problem, solution);
+   }
+}
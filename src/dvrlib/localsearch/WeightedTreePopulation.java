@@ -21,14 +21,17 @@ package dvrlib.localsearch;
 
 import dvrlib.container.WeightedTree;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map.Entry;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class WeightedTreePopulation<S extends Solution> extends GeneticPopulation<S> {
-   protected static final Random Rnd = new Random();
-
    protected final HashMap<S, Double>   keys    = new HashMap<S, Double>();
    protected final GeneticProblem<S, ?> problem;
    protected final WeightedTree<S>      tree    = new WeightedTree<S>();
@@ -60,17 +63,77 @@ public class WeightedTreePopulation<S extends Solution> extends GeneticPopulatio
          if(size() >= capacity) {
             if(problem.better(solution, peekWorst()))
                popWorst();
-            else
+            else {
+               if(metrics != null)
+                  metrics.inserted(false);
                return false;
+            }
          }
          double key = problem.weight(solution);
          keys.put(solution, key);
          tree.add(key, solution);
+         if(metrics != null)
+            metrics.inserted(true);
          return true;
       }
       return false;
    }
 
+   /**
+    * Adds the given solutions to this population at once, after which it holds the best solutions of its previous contents and the given solutions.
+    * Solutions that are already present get their weight updated.
+    * Rather than adding the solutions one by one, the solutions are sorted by weight and the tree is rebuilt from them.
+    * @return A boolean indicating whether this population was modified in any way.
+    * O((n + m) log(n + m)) for n solutions in this population and m given solutions.
+    * @see dvrlib.container.WeightedTree#build(double[], java.util.List)
+    */
+   @Override
+   public boolean addAll(Collection<? extends S> solutions) {
+      if(solutions.isEmpty())
+         return false;
+
+      ArrayList<S>       changes = new ArrayList<S>();
+      HashMap<S, Double> merged  = new HashMap<S, Double>(keys);
+      boolean            changed = false;
+      for(S s : solutions) {
+         double key = problem.weight(s);
+         Double old = merged.put(s, key);
+         if(old == null)
+            changes.add(s);
+         else
+            changed |= (old != key);
+      }
+      if(changes.isEmpty() && !changed)
+         return false;
+
+      ArrayList<Entry<S, Double>> entries = new ArrayList<Entry<S, Double>>(merged.entrySet());
+      Collections.sort(entries, new Comparator<Entry<S, Double>>() {
+            @Override
+            public int compare(Entry<S, Double> a, Entry<S, Double> b) {
+               return Double.compare(a.getValue(), b.getValue());
+            }
+         });
+      int          from      = Math.max(0, entries.size() - capacity);
+      double       weights[] = new double[entries.size() - from];
+      ArrayList<S> retained  = new ArrayList<S>(weights.length);
+      keys.clear();
+      for(int i = from; i < entries.size(); i++) {
+         Entry<S, Double> e = entries.get(i);
+         weights[i - from] = e.getValue();
+         retained.add(e.getKey());
+         keys.put(e.getKey(), e.getValue());
+      }
+      tree.build(weights, retained);
+
+      for(S s : changes) {
+         boolean added = keys.containsKey(s);
+         changed |= added;
+         if(metrics != null)
+            metrics.inserted(added);
+      }
+      return changed;
+   }
+
    /**
     * Removes all solutions from this population.
     * @see Population#clear()
@@ -113,25 +176,47 @@ public class WeightedTreePopulation<S extends Solution> extends GeneticPopulatio
     */
    @Override
    public S peekBest() {
-      return tree.peekMax().b;
+      return tree.peekMaxValue();
    }
 
    /**
     * Returns but does not remove a random solution from this population.
     * The chance a solution is chosen is equal for all solutions.
+    * @deprecated The choice cannot be reproduced; use <code>peekRandom(SplittableRandom)</code> instead.
     */
    @Override
+   @Deprecated
    public S peekRandom() {
-      return tree.getIndexed(Rnd.nextInt(tree.size())).b;
+      return tree.getIndexedValue(ThreadLocalRandom.current().nextInt(tree.size()));
+   }
+
+   /**
+    * Returns but does not remove a random solution from this population, chosen using the given source of randomness.
+    * The chance a solution is chosen is equal for all solutions.
+    */
+   @Override
+   public S peekRandom(SplittableRandom random) {
+      return tree.getIndexedValue(random.nextInt(tree.size()));
    }
 
    /**
     * Returns but does not remove a random solution from this population.
     * The chance a solution is chosen is directly proportionate to its fitness score.
+    * @deprecated The choice cannot be reproduced; use <code>peekWeighted(SplittableRandom)</code> instead.
     */
    @Override
+   @Deprecated
    public S peekWeighted() {
-      return tree.getWeighted(Rnd.nextDouble()).b;
+      return tree.getWeightedValue(ThreadLocalRandom.current().nextDouble());
+   }
+
+   /**
+    * Returns but does not remove a random solution from this population, chosen using the given source of randomness.
+    * The chance a solution is chosen is directly proportionate to its fitness score.
+    */
+   @Override
+   public S peekWeighted(SplittableRandom random) {
+      return tree.getWeightedValue(random.nextDouble());
    }
 
    /**
@@ -140,8 +225,7 @@ public class WeightedTreePopulation<S extends Solution> extends GeneticPopulatio
     */
    @Override
    public S peekWorst() {
-      dvrlib.generic.Pair<?, S> p = tree.peekMin();
-      return (p == null ? null : p.b);
+      return tree.peekMinValue();
    }
 
    /**
@@ -150,7 +234,7 @@ public class WeightedTreePopulation<S extends Solution> extends GeneticPopulatio
     */
    @Override
    public S popBest() {
-      S best = tree.popMax().b;
+      S best = tree.popMaxValue();
       keys.remove(best);
       return best;
    }
@@ -161,22 +245,21 @@ public class WeightedTreePopulation<S extends Solution> extends GeneticPopulatio
     */
    @Override
    public S popWorst() {
-      S worst = tree.popMin().b;
+      S worst = tree.popMinValue();
       keys.remove(worst);
       return worst;
    }
 
    /**
     * Clears this population, retaining only the given number of best solutions.
+    * Only the keys of the evicted solutions are removed from the key index.
+    * O(e + r) for e evicted and r retained solutions.
+    * @see dvrlib.container.WeightedTree#truncate(int)
     */
    @Override
    public void retainBest(int n) {
-      tree.retainBest(n);
-      Iterator<Entry<S, Double>> it = keys.entrySet().iterator();
-      while(it.hasNext()) {
-         Entry<S, Double> e = it.next();
-         if(!tree.contains(e.getValue(), e.getKey()))
-            it.remove();
+      for(S s : tree.truncate(n)) {
+         keys.remove(s);
       }
    }
 
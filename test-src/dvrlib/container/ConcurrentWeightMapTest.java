@@ -0,0 +1,121 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * ConcurrentWeightMapTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ConcurrentWeightMapTest {
+   @Test
+   public void testWeights() {
+      ConcurrentWeightMap<String> map = new ConcurrentWeightMap<String>(1);
+      assertEquals(0, map.size());
+      assertNull(map.getWeighted(0.5));
+
+      assertNull(map.put("a", 1d));
+      assertNull(map.put("b", 0d));
+      assertNull(map.put("c", 3d));
+      assertEquals(3, map.size());
+      assertEquals(4d, map.totalWeight(), 1e-12);
+      assertEquals((Double) 0d, map.put("b", 4d));
+      map.increase("a", 1d);
+      map.multiply("c", 2d);
+      assertEquals((Double) 2d, map.get("a"));
+      assertEquals((Double) 6d, map.get("c"));
+      assertEquals(12d, map.totalWeight(), 1e-12);
+
+      ConcurrentWeightMap.Snapshot<String> snapshot = map.snapshot();
+      assertEquals((Double) 2d, map.remove("a"));
+      assertNull(map.remove("a"));
+      assertNull(map.get("a"));
+      assertEquals(2, map.size());
+      assertEquals(3, snapshot.size());
+      assertEquals(12d, snapshot.totalWeight(), 1e-12);
+
+      // Only the remaining elements are drawn, in proportion to their weights
+      HashMap<String, Integer> counts = new HashMap<String, Integer>();
+      for(int i = 0; i < 1000; i++) {
+         String s = map.getWeighted(i / 1000d);
+         counts.put(s, (counts.containsKey(s) ? counts.get(s) : 0) + 1);
+      }
+      assertEquals(2, counts.size());
+      assertEquals(400, counts.get("b"), 2);
+      assertEquals(600, counts.get("c"), 2);
+
+      HashMap<String, Double> batch = new HashMap<String, Double>();
+      batch.put("b", 0d);
+      batch.put("d", 1d);
+      map.putAll(batch);
+      assertEquals(3, map.size());
+      map.remove("c");
+      for(int i = 0; i < 100; i++) {
+         assertEquals("d", map.getWeighted(i / 100d));
+      }
+
+      map.clear();
+      assertEquals(0, map.size());
+      assertNull(map.getWeighted(new SplittableRandom(42l)));
+      try {
+         map.put("e", -1d);
+         fail("Expected an IllegalArgumentException");
+      }
+      catch(IllegalArgumentException ex) { }
+   }
+
+   @Test
+   public void testConcurrent() throws InterruptedException {
+      final ConcurrentWeightMap<Integer> map    = new ConcurrentWeightMap<Integer>();
+      final AtomicReference<String>      failed = new AtomicReference<String>();
+      for(int i = 0; i < 10; i++) {
+         map.put(i, (i % 2 == 0 ? 1d : 0d));
+      }
+
+      // Readers should only ever draw even elements, while the writer keeps replacing the odd ones by other odd elements of zero weight
+      Thread threads[] = new Thread[4];
+      for(int t = 0; t < threads.length; t++) {
+         final long seed = t;
+         threads[t] = new Thread() {
+               @Override
+               public void run() {
+                  SplittableRandom random = new SplittableRandom(seed);
+                  for(int i = 0; i < 100000; i++) {
+                     Integer e = map.getWeighted(random);
+                     if(e == null || e % 2 != 0)
+                        failed.set("Drew " + e);
+                  }
+               }
+            };
+         threads[t].start();
+      }
+      for(int i = 0; i < 1000; i++) {
+         int odd = 2 * (i % 5) + 1;
+         map.remove(odd);
+         map.put(odd + 10 * (i % 3), 0d);
+      }
+      for(Thread t : threads) {
+         t.join();
+      }
+      assertNull(failed.get());
+   }
+}
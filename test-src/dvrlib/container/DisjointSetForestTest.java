@@ -21,6 +21,7 @@ package dvrlib.container;
 
 import dvrlib.generic.Pair;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 
@@ -156,4 +157,84 @@ public class DisjointSetForestTest {
       df.remove(1);
       testForest(df, new Integer[][]{{ 2, 3 }, { 6 }, { 7, 9 }});
    }
+
+   @Test
+   public void testIntForest() {
+      IntDisjointSetForest df = new IntDisjointSetForest(10, true);
+      assertEquals(10, df.size());
+      assertEquals(10, df.setCount());
+      assertEquals(10, df.add());
+      assertEquals(11, df.setCount());
+      assertArrayEquals(new int[]{ 3 }, df.members(3));
+
+      // Chain the even elements, and the odd elements up to 9
+      for(int i = 2; i <= 10; i++) {
+         df.union(i - 2, i);
+      }
+      assertEquals(2, df.setCount());
+      assertEquals(df.union(0, 10), df.representative(4));
+      assertTrue(df.sameSet(0, 10));
+      assertFalse(df.sameSet(0, 1));
+      for(int e = 0; e <= 10; e++) {
+         assertEquals(df.representative(e % 2), df.representative(e));
+         int ms[] = df.members(e);
+         assertEquals(e, ms[0]);
+         Arrays.sort(ms);
+         assertArrayEquals((e % 2 == 0 ? new int[]{ 0, 2, 4, 6, 8, 10 } : new int[]{ 1, 3, 5, 7, 9 }), ms);
+      }
+
+      df.union(9, 10);
+      assertEquals(1, df.setCount());
+      assertEquals(11, df.members(5).length);
+      try {
+         df.representative(11);
+         fail("Expected an IndexOutOfBoundsException");
+      }
+      catch(IndexOutOfBoundsException ex) { }
+
+      df.clear();
+      assertEquals(0, df.size());
+      assertEquals(0, df.add());
+      assertEquals(1, df.setCount());
+
+      IntDisjointSetForest lean = new IntDisjointSetForest(3, false);
+      lean.union(0, 2);
+      assertTrue(lean.sameSet(2, 0));
+      try {
+         lean.members(0);
+         fail("Expected an IllegalStateException");
+      }
+      catch(IllegalStateException ex) { }
+   }
+
+   @Test
+   public void testIndexedForest() {
+      IndexedDisjointSetForest<String> df = new IndexedDisjointSetForest<String>(4, true);
+      assertTrue(df.add("a"));
+      assertTrue(df.add("b"));
+      assertTrue(df.add("c"));
+      assertFalse(df.add("a"));
+      assertEquals(3, df.size());
+      assertEquals(1, df.index("b"));
+      assertEquals(-1, df.index("d"));
+      assertEquals("c", df.element(2));
+
+      String r = df.union("a", "c");
+      assertEquals(r, df.representative("a"));
+      assertEquals(r, df.representative("c"));
+      assertEquals("b", df.representative("b"));
+      assertTrue(df.sameSet("c", "a"));
+      assertEquals(2, df.setCount());
+      assertEquals(Arrays.asList("c", "a"), df.members("c"));
+      assertEquals(Arrays.asList("a", "b", "c"), new java.util.ArrayList<String>(df));
+      try {
+         df.union("a", "d");
+         fail("Expected an IllegalArgumentException");
+      }
+      catch(IllegalArgumentException ex) { }
+
+      df.clear();
+      assertTrue(df.isEmpty());
+      assertFalse(df.contains("a"));
+   }
 }
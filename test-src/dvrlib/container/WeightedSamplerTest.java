@@ -0,0 +1,145 @@
+/*
+ * DvRlib - Container
+ * Copyright (C) Duncan van Roermund, 2013
+ * WeightedSamplerTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.container;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class WeightedSamplerTest {
+   @Test
+   public void testFenwick() {
+      testSampler(new FenwickSampler(1));
+      testSampler(new FenwickSampler(new double[0]));
+   }
+
+   @Test
+   public void testAlias() {
+      testSampler(new AliasSampler(1));
+      testSampler(new AliasSampler(new double[0]));
+   }
+
+   @Test
+   public void testSetAll() {
+      double weights[] = new double[]{ 1d, 0d, 3d, 2d, 0d };
+      for(WeightedSampler sampler : new WeightedSampler[]{ new FenwickSampler(weights), new AliasSampler(weights) }) {
+         assertEquals(5, sampler.size());
+         assertEquals(6d, sampler.totalWeight(), 1e-12);
+         testDistribution(sampler);
+         sampler.setAll(new double[]{ 0d, 5d, 0d }, 2);
+         assertEquals(2, sampler.size());
+         for(int i = 0; i < 100; i++) {
+            assertEquals(1, sampler.sample(i / 100d));
+         }
+         sampler.clear();
+         assertEquals(0, sampler.size());
+         try {
+            sampler.sample(0.5);
+            fail("Expected an IllegalStateException");
+         }
+         catch(IllegalStateException ex) { }
+      }
+   }
+
+   @Test
+   public void testPrefixWeight() {
+      FenwickSampler sampler = new FenwickSampler(2);
+      for(int i = 1; i <= 100; i++) {
+         sampler.add(i);
+      }
+      for(int n = 0; n <= 100; n++) {
+         assertEquals(n * (n + 1) / 2d, sampler.prefixWeight(n), 1e-9);
+      }
+      // The weights are laid out in order
+      assertEquals(0, sampler.sample(0d));
+      assertEquals(99, sampler.sample(Math.nextDown(1d)));
+      assertEquals(9, sampler.sample(54.5 / 5050d));
+      assertEquals(10, sampler.sample(55.5 / 5050d));
+
+      sampler.set(49, 0d);
+      assertEquals(5050d - 50d, sampler.prefixWeight(100), 1e-9);
+      assertEquals(5050d - 50d, sampler.totalWeight(), 1e-9);
+   }
+
+   @Test
+   public void testInvalid() {
+      WeightedSampler sampler = new FenwickSampler(4);
+      try {
+         sampler.add(-1d);
+         fail("Expected an IllegalArgumentException");
+      }
+      catch(IllegalArgumentException ex) { }
+      try {
+         sampler.add(Double.NaN);
+         fail("Expected an IllegalArgumentException");
+      }
+      catch(IllegalArgumentException ex) { }
+      sampler.add(1d);
+      try {
+         sampler.sample(1d);
+         fail("Expected an IllegalArgumentException");
+      }
+      catch(IllegalArgumentException ex) { }
+      try {
+         sampler.set(1, 1d);
+         fail("Expected an IndexOutOfBoundsException");
+      }
+      catch(IndexOutOfBoundsException ex) { }
+   }
+
+   protected void testSampler(WeightedSampler sampler) {
+      assertEquals(0, sampler.size());
+      for(int i = 0; i < 10; i++) {
+         assertEquals(i, sampler.add(i % 3 == 0 ? 0d : i));
+      }
+      assertEquals(10, sampler.size());
+      assertEquals(1d + 2d + 4d + 5d + 7d + 8d, sampler.totalWeight(), 1e-12);
+      testDistribution(sampler);
+
+      // Changing weights, including disabling and re-enabling one
+      sampler.set(4, 0d);
+      sampler.set(6, 10d);
+      assertEquals(0d, sampler.weight(4), 0d);
+      assertEquals(10d, sampler.weight(6), 0d);
+      testDistribution(sampler);
+      sampler.set(4, 4d);
+      testDistribution(sampler);
+   }
+
+   /**
+    * Draws many indices, and checks that their frequencies match the weights and that indices with zero weight are never drawn.
+    */
+   protected void testDistribution(WeightedSampler sampler) {
+      SplittableRandom random = new SplittableRandom(42l);
+      int              draws  = 200000,
+                       hits[] = new int[sampler.size()];
+      for(int i = 0; i < draws; i++) {
+         hits[sampler.sample(random)]++;
+      }
+      for(int i = 0; i < hits.length; i++) {
+         double expected = draws * sampler.weight(i) / sampler.totalWeight();
+         if(sampler.weight(i) == 0d)
+            assertEquals(0, hits[i]);
+         else
+            assertEquals(expected, hits[i], 5 * Math.sqrt(expected) + 1);
+      }
+   }
+}
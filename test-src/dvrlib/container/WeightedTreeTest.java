@@ -21,7 +21,10 @@ package dvrlib.container;
 
 import dvrlib.generic.Pair;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -171,6 +174,54 @@ public class WeightedTreeTest {
       assertContains(instance, new Double[]{0.6});
       testBalance(instance, instance.root);
    }
+   @Test
+   public void testBuild() {
+      for(int n = 0; n < 40; n++) {
+         double             keys[] = new double[n];
+         ArrayList<Integer> values = new ArrayList<Integer>();
+         for(int i = 0; i < n; i++) {
+            keys[i] = i / 3;
+            values.add(i);
+         }
+         WeightedTree<Integer> instance = new WeightedTree<Integer>();
+         instance.add(100d, -1);
+         instance.build(keys, values);
+         assertEquals(n, instance.size());
+         testBalance(instance, instance.root);
+         for(int i = 0; i < n; i++) {
+            assertTrue(instance.contains(i / 3, i));
+            assertEquals(i, instance.getIndexedValue(i).intValue());
+         }
+         assertFalse(instance.contains(100d, -1));
+      }
+
+      try {
+         new WeightedTree<Integer>().build(new double[]{ 0.2, 0.1 }, Arrays.asList(1, 2));
+         fail("Expected an IllegalArgumentException");
+      }
+      catch(IllegalArgumentException ex) { }
+   }
+
+   @Test
+   public void testTruncate() {
+      WeightedTree<Number> instance = testAdd(new Double[]{0.5, 0.1, 0.4, 0.2, 0.6, 0.2, 0.3, 0.1});
+      assertTrue(instance.truncate(10).isEmpty());
+      assertEquals(8, instance.size());
+
+      List<Number> evicted = instance.truncate(5);
+      assertEquals(3, evicted.size());
+      assertTrue(evicted.contains(0.1));
+      assertTrue(evicted.contains(0.2));
+      assertContains(instance, new Double[]{0.2, 0.3, 0.4, 0.5, 0.6});
+      testBalance(instance, instance.root);
+      assertEquals(0.2, instance.peekMinKey(), 0d);
+
+      evicted = instance.truncate(0);
+      assertEquals(5, evicted.size());
+      assertTrue(instance.isEmpty());
+      assertNull(instance.root);
+   }
+
    public WeightedTree<Number> testAdd(Number keys[]) {
       WeightedTree<Number> instance = new WeightedTree<Number>();
       assertNull(instance.root);
@@ -313,6 +364,87 @@ public class WeightedTreeTest {
       assertEqualsWeighted(0.5, 25, instance.getWeighted(0.3750001));
       assertEqualsWeighted(0.5, 25, instance.getWeighted(0.9999999));
    }
+
+   @Test
+   public void testValueAccessors() {
+      WeightedTree<Integer> instance = new WeightedTree<Integer>();
+      assertNull(instance.getWeightedValue(0.5));
+      assertTrue(Double.isNaN(instance.getWeightedKey(0.5)));
+      assertNull(instance.peekMinValue());
+      assertNull(instance.peekMaxValue());
+      assertTrue(Double.isNaN(instance.peekMaxKey()));
+
+      instance.add(0.3, 10);
+      instance.add(0.5, 15);
+      instance.add(0.2, 20);
+      instance.add(0.5, 25);
+      instance.add(0.1, 30);
+      for(double x = 0d; x < 1d; x += 0.01) {
+         Pair<Double, Integer> p = instance.getWeighted(x);
+         assertEquals(p.b, instance.getWeightedValue(x));
+         assertEquals(p.a.doubleValue(), instance.getWeightedKey(x), 0d);
+      }
+      for(int i = 0; i < instance.size(); i++) {
+         Pair<Double, Integer> p = instance.getIndexed(i);
+         assertEquals(p.b, instance.getIndexedValue(i));
+         assertEquals(p.a.doubleValue(), instance.getIndexedKey(i), 0d);
+      }
+
+      assertEquals(instance.peekMin().b, instance.peekMinValue());
+      assertEquals(instance.peekMax().b, instance.peekMaxValue());
+      assertEquals(0.1, instance.peekMinKey(), 0d);
+      assertEquals(0.5, instance.peekMaxKey(), 0d);
+
+      assertEquals(30, instance.popMinValue().intValue());
+      assertEquals(25, instance.popMaxValue().intValue());
+      assertEquals(15, instance.popMaxValue().intValue());
+      assertEquals(2, instance.size());
+      assertEquals(0.3, instance.peekMaxKey(), 0d);
+   }
+
+   @Test
+   public void testCursor() {
+      WeightedTree<Integer> instance = new WeightedTree<Integer>();
+      WeightedTree<Integer>.Cursor cursor = instance.cursor();
+      assertFalse(cursor.isValid());
+      assertFalse(cursor.seekMax().isValid());
+      assertFalse(cursor.seekWeighted(0.5).isValid());
+
+      for(int i = 0; i < 20; i++) {
+         instance.add((double) (i % 7), i);
+      }
+      for(int i = 0; i < instance.size(); i++) {
+         Pair<Double, Integer> p = instance.getIndexed(i);
+         cursor.seekIndexed(i);
+         assertEquals(p.a.doubleValue(), cursor.key(), 0d);
+         assertEquals(p.b, cursor.value());
+      }
+      for(double x = 0d; x < 1d; x += 0.01) {
+         Pair<Double, Integer> p = instance.getWeighted(x);
+         cursor.seekWeighted(x);
+         assertEquals(p.a.doubleValue(), cursor.key(), 0d);
+         assertEquals(p.b, cursor.value());
+      }
+
+      // Traversal follows the order of the iterator
+      Iterator<Integer> it = instance.iterator();
+      int n = 0;
+      for(boolean valid = cursor.seekMax().isValid(); valid; valid = cursor.advance(), n++) {
+         assertTrue(it.hasNext());
+         assertEquals(it.next(), cursor.value());
+      }
+      assertFalse(it.hasNext());
+      assertEquals(instance.size(), n);
+      assertEquals(0d, cursor.seekMin().key(), 0d);
+      try {
+         cursor.seekMin();
+         while(cursor.advance()) { }
+         cursor.value();
+         fail("Expected an IllegalStateException");
+      }
+      catch(IllegalStateException ex) { }
+   }
+
    public void assertEqualsWeighted(double k, int v, Pair<Double, Integer> e) {
       assertEquals(k, e.a.doubleValue(), 0.0);
       assertEquals(v, e.b.intValue());
@@ -0,0 +1,64 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2010-2013
+ * AdaptiveMultiChangerTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class AdaptiveMultiChangerTest {
+   @Test
+   public void testProbabilityMatching() throws CannotChangeException {
+      testAdaptation(AdaptiveMultiChanger.Scheme.ProbabilityMatching);
+   }
+
+   @Test
+   public void testAdaptivePursuit() throws CannotChangeException {
+      testAdaptation(AdaptiveMultiChanger.Scheme.AdaptivePursuit);
+   }
+
+   @Test
+   public void testUpperConfidenceBound() throws CannotChangeException {
+      testAdaptation(AdaptiveMultiChanger.Scheme.UpperConfidenceBound);
+   }
+
+   protected void testAdaptation(AdaptiveMultiChanger.Scheme scheme) throws CannotChangeException {
+      TestProblem problem = new TestProblem();
+      AdaptiveMultiChanger<TestProblem, TestSolution, SubstitutionChanger<TestProblem, TestSolution>.Change> amc =
+         new AdaptiveMultiChanger<TestProblem, TestSolution, SubstitutionChanger<TestProblem, TestSolution>.Change>(scheme);
+      amc.add(new TestChanger());
+      amc.add(new TestChanger());
+      amc.reinitialise(problem);
+      SingularSearchState<TestProblem, TestSolution> state = new SingularSearchState<TestProblem, TestSolution>(problem, new TestSolution(100), new SplittableRandom(42l));
+
+      // Only the changes of the first changer are improvements
+      for(int i = 0; i < 1000; i++) {
+         SubstitutionChanger<TestProblem, TestSolution>.Change change = amc.makeChange(state);
+         amc.feedback(change, amc.last == 0);
+      }
+      assertEquals(1000, amc.uses(0) + amc.uses(1));
+      assertEquals(amc.uses(0), amc.improvements(0));
+      assertEquals(0, amc.improvements(1));
+      assertTrue(amc.uses(0) > amc.uses(1));
+      assertTrue(amc.quality(0) > amc.quality(1));
+   }
+}
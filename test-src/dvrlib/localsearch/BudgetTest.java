@@ -0,0 +1,110 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * BudgetTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BudgetTest {
+   @Test
+   public void testEvaluations() {
+      Budget budget = Budget.ofEvaluations(100);
+      int calls = 0;
+      while(!budget.exhausted()) {
+         budget.evaluated();
+         calls++;
+         assertTrue(calls <= 100);
+      }
+      assertEquals(100, calls);
+      assertEquals(100l, budget.evaluations());
+      assertEquals(1d, budget.progress(), 0d);
+      assertTrue(budget.exhausted());
+   }
+
+   @Test
+   public void testCheckedProgress() {
+      Budget budget = Budget.ofEvaluations(4);
+      assertEquals(0d, budget.checkedProgress(), 0d);
+      budget.evaluated();
+      budget.evaluated();
+      assertEquals(0d, budget.checkedProgress(), 0d);
+      assertFalse(budget.checkNow());
+      assertEquals(0.5d, budget.checkedProgress(), 0d);
+      budget.evaluated();
+      budget.evaluated();
+      assertTrue(budget.checkNow());
+      assertEquals(1d, budget.checkedProgress(), 0d);
+   }
+
+   @Test
+   public void testTime() {
+      long   start  = System.nanoTime();
+      Budget budget = Budget.ofMillis(20);
+      while(!budget.exhausted()) { }
+      long elapsed = System.nanoTime() - start;
+      assertTrue(elapsed >= 20000000l);
+      assertTrue(elapsed < 1000000000l);
+      assertEquals(0l, budget.remainingNanos());
+   }
+
+   @Test
+   public void testLargeLimits() {
+      Budget budgets[] = new Budget[]{ Budget.ofMillis(Long.MAX_VALUE), Budget.ofMillis(Long.MAX_VALUE / 1000l), Budget.untilMillis(Long.MAX_VALUE - 1l),
+                                       new Budget(Long.MAX_VALUE, -1l), Budget.unlimited() };
+      for(Budget budget : budgets) {
+         for(int i = 0; i < 1000; i++) {
+            assertFalse(budget.exhausted());
+         }
+         assertFalse(budget.checkNow());
+         assertTrue(budget.remainingNanos() > 0l);
+      }
+   }
+
+   @Test
+   public void testCancel() {
+      Budget budget = Budget.unlimited(),
+             fork   = budget.fork(),
+             nested = fork.fork();
+      for(int i = 0; i < 1000; i++) {
+         assertFalse(budget.exhausted());
+         assertFalse(nested.exhausted());
+      }
+      assertEquals(Long.MAX_VALUE, budget.remainingNanos());
+      assertEquals(0d, budget.progress(), 0d);
+
+      fork.cancel();
+      assertTrue(nested.checkNow());
+      assertFalse(budget.checkNow());
+
+      budget.cancel();
+      assertTrue(budget.checkNow());
+   }
+
+   @Test
+   public void testForkEvaluations() {
+      Budget budget = Budget.ofEvaluations(10),
+             fork   = budget.fork();
+      for(int i = 0; i < 10; i++) {
+         fork.evaluated();
+      }
+      assertTrue(budget.checkNow());
+      assertTrue(fork.exhausted());
+   }
+}
@@ -0,0 +1,173 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * ChangeListTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ChangeListTest extends AbstractProblem<ChangeListTest.TestSolution, Integer> implements BoundableProblem<ChangeListTest.TestSolution, Integer> {
+   protected class TestSolution extends AbstractSolution {
+      protected final int values[];
+
+      public TestSolution(int values[]) {
+         this.values = values;
+      }
+   }
+   protected class SwapChanger extends RecordingChanger<ChangeListTest, TestSolution> {
+      @Override
+      protected void record(SingularSearchState<ChangeListTest, TestSolution> ss, ChangeList<ChangeListTest, TestSolution> changes) throws CannotChangeException {
+         int i = r.nextInt(ss.solution.values.length),
+             j = r.nextInt(ss.solution.values.length);
+         swap(ss.solution.values, i, j);
+         changes.write(i);
+         changes.write(j);
+      }
+
+      @Override
+      public void undoChange(SingularSearchState<ChangeListTest, TestSolution> ss, int data[], int from, int to) {
+         assertEquals(2, to - from);
+         swap(ss.solution.values, data[from], data[from + 1]);
+      }
+
+      @Override
+      public void reinitialise(ChangeListTest p) { }
+   }
+
+   protected final Random r = new Random();
+
+   public ChangeListTest() {
+      super(5);
+   }
+
+   protected static void swap(int values[], int i, int j) {
+      int t     = values[i];
+      values[i] = values[j];
+      values[j] = t;
+   }
+
+   // Problem methods
+   @Override
+   public TestSolution cloneSolution(TestSolution s) {
+      return new TestSolution(s.values.clone());
+   }
+
+   @Override
+   public LocalSearch.SearchDirection direction() {
+      return LocalSearch.SearchDirection.Minimisation;
+   }
+
+   @Override
+   public Integer evaluate(TestSolution s) {
+      return s.values[0];
+   }
+
+   @Override
+   public TestSolution randomSolution() {
+      return new TestSolution(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+   }
+
+   // BoundableProblem methods
+   @Override
+   public Integer evaluationBound(TestSolution s) {
+      return 0;
+   }
+
+   @Override
+   public Integer evaluationBound(TestSolution s, long iterationNumber) {
+      return 0;
+   }
+
+   @Override
+   public Integer evaluationBound(SearchState<? extends Problem<TestSolution, Integer>, TestSolution> ss) {
+      return 0;
+   }
+
+   // Test methods
+   @Test
+   public void testUndoAll() throws CannotChangeException {
+      SingularSearchState<ChangeListTest, TestSolution> ss = new SingularSearchState<ChangeListTest, TestSolution>(this, randomSolution(), new SplittableRandom(1l));
+      ChangeList<ChangeListTest, TestSolution> changes = new ChangeList<ChangeListTest, TestSolution>(2, 2);
+      SwapChanger changer = new SwapChanger();
+      for(int i = 0; i < 100; i++) {
+         assertNull(changer.makeChange(ss, changes));
+      }
+      assertEquals(100, changes.size());
+      changes.undoAll(ss);
+      assertEquals(0, changes.size());
+      assertArrayEquals(randomSolution().values, ss.solution.values);
+   }
+
+   @Test
+   public void testUndoLast() throws CannotChangeException {
+      SingularSearchState<ChangeListTest, TestSolution> ss = new SingularSearchState<ChangeListTest, TestSolution>(this, randomSolution(), new SplittableRandom(1l));
+      ChangeList<ChangeListTest, TestSolution> changes = new ChangeList<ChangeListTest, TestSolution>();
+      SwapChanger changer = new SwapChanger();
+      changer.makeChange(ss, changes);
+      int values[] = ss.solution.values.clone();
+      changer.makeChange(ss, changes);
+      changes.undoLast(ss);
+      assertArrayEquals(values, ss.solution.values);
+      assertSame(changer, changes.lastEntry());
+
+      // A change object is undone in turn with the records
+      changes.add(changer.makeChange(ss));
+      changer.makeChange(ss, changes);
+      changes.undoLast(ss);
+      changes.undoLast(ss);
+      assertArrayEquals(values, ss.solution.values);
+   }
+
+   @Test
+   public void testReuse() throws CannotChangeException {
+      SingularSearchState<ChangeListTest, TestSolution> ss = new SingularSearchState<ChangeListTest, TestSolution>(this, randomSolution(), new SplittableRandom(1l));
+      ChangeList<ChangeListTest, TestSolution> changes = new ChangeList<ChangeListTest, TestSolution>(16, 32);
+      SwapChanger changer = new SwapChanger();
+      Object entries[] = changes.entries;
+      int    data[]    = changes.data;
+      for(int i = 0; i < 1000; i++) {
+         changer.makeChange(ss, changes);
+         if(i % 2 == 0)
+            changes.undoLast(ss);
+         else
+            changes.clear();
+      }
+      assertSame(entries, changes.entries);
+      assertSame(data, changes.data);
+   }
+
+   @Test
+   public void testHillClimbing() {
+      // The hill climber records its changes in the change list of its state, instead of copying them into change objects
+      SwapChanger changer = new SwapChanger() {
+            @Override
+            public Change makeChange(SingularSearchState<ChangeListTest, TestSolution> ss) {
+               throw new AssertionError("A change object was created");
+            }
+         };
+      HillClimbingLS<ChangeListTest, TestSolution, Integer>             ls    = new HillClimbingLS<ChangeListTest, TestSolution, Integer>(changer);
+      HillClimbingLS<ChangeListTest, TestSolution, Integer>.SearchState state = (HillClimbingLS<ChangeListTest, TestSolution, Integer>.SearchState) ls.newState(this, new TestSolution(new int[] { 5, 1, 2, 3, 4, 0, 6, 7, 8, 9 }));
+      Object entries[] = state.changes.entries;
+      ls.iterate(state, -1, Budget.unlimited(), -1);
+      assertSame(entries, state.changes.entries);
+      assertTrue(state.solution().values[0] <= 5);
+   }
+}
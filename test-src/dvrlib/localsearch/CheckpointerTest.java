@@ -0,0 +1,168 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * CheckpointerTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CheckpointerTest {
+   protected static class TestCodec implements SolutionCodec<TestSolution> {
+      @Override
+      public void write(TestSolution solution, DataOutput out) throws IOException {
+         out.writeInt(solution.value);
+      }
+
+      @Override
+      public TestSolution read(DataInput in) throws IOException {
+         return new TestSolution(in.readInt());
+      }
+   }
+
+   protected Checkpointer<TestSolution> checkpointer(Executor executor) throws IOException {
+      Path dir = Files.createTempDirectory("checkpoint");
+      dir.toFile().deleteOnExit();
+      Path path = dir.resolve("search.ckpt");
+      path.toFile().deleteOnExit();
+      return new Checkpointer<TestSolution>(path, new TestCodec(), executor);
+   }
+
+   @Test
+   public void testSaveLoad() throws Exception {
+      TestProblem                                              problem = new TestProblem();
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer> ls      = new SimulatedAnnealingLS<TestProblem, TestSolution, Integer>(new TestChanger(), 100, 10);
+      Checkpointer<TestSolution>                               cp      = checkpointer(null);
+      problem.saveSolution(new TestSolution(33));
+      problem.saveSolution(new TestSolution(22));
+
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(problem, new TestSolution(77));
+      state.temperature = 1.5;
+      state.iteration   = 42;
+      assertEquals(cp.path(), cp.save(state).get());
+
+      Checkpoint<TestSolution> c = cp.load();
+      assertEquals(Checkpoint.Kind.Annealing, c.kind());
+      assertEquals(42l, c.iteration());
+      assertEquals(1.5, c.temperature(), 0d);
+      assertEquals(1, c.solutions().size());
+      assertEquals(77, c.solutions().get(0).value);
+      assertEquals(2, c.pool().size());
+
+      TestProblem fresh = new TestProblem();
+      c.restorePool(fresh);
+      assertEquals(2, fresh.solutions().size());
+   }
+
+   @Test
+   public void testResume() throws Exception {
+      TestProblem                                              problem = new TestProblem();
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer> ls      = new SimulatedAnnealingLS<TestProblem, TestSolution, Integer>(new TestChanger(), 100, 10);
+      Checkpointer<TestSolution>                               cp      = checkpointer(null);
+      ls.setCheckpointer(cp, 10);
+      ls.search(problem, 0, Budget.ofEvaluations(55), new TestSolution(100));
+
+      Checkpoint<TestSolution> c = cp.load();
+      assertEquals(50l, c.iteration());
+      assertEquals(SimulatedAnnealingLS.defaultTemp * Math.pow(SimulatedAnnealingLS.defaultTempMod, 4), c.temperature(), 1e-9);
+
+      TestProblem resumed = new TestProblem();
+      ls.setCheckpointer(null, 0);
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer>.SearchState state = ls.resume(resumed, c);
+      assertEquals(50l, state.iterationCount());
+      assertEquals(c.pool().size(), resumed.solutions().size());
+      ls.iterate(state, 15, Budget.unlimited(), -1);
+      assertEquals(11, state.solution().value);
+      assertTrue(state.iterationCount() >= 50l);
+   }
+
+   @Test
+   public void testAsync() throws Exception {
+      TestProblem                                              problem  = new TestProblem();
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer> ls       = new SimulatedAnnealingLS<TestProblem, TestSolution, Integer>(new TestChanger(), 100, 10);
+      ExecutorService                                          executor = Executors.newSingleThreadExecutor();
+      try {
+         Checkpointer<TestSolution>                                           cp    = checkpointer(executor);
+         SimulatedAnnealingLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(problem, new TestSolution(44));
+         Future<?> f1 = cp.save(state);
+         state.iteration = 7;
+         Future<?> f2 = cp.save(state);
+         f1.get();
+         f2.get();
+         assertEquals(7l, cp.load().iteration());
+         assertFalse(Files.exists(cp.temp));
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testStale() throws Exception {
+      final ArrayList<Runnable>                                            tasks = new ArrayList<Runnable>();
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer>             ls    = new SimulatedAnnealingLS<TestProblem, TestSolution, Integer>(new TestChanger(), 100, 10);
+      Checkpointer<TestSolution>                                           cp    = checkpointer(new Executor() {
+            @Override
+            public void execute(Runnable task) {
+               tasks.add(task);
+            }
+         });
+      SimulatedAnnealingLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(44));
+      Future<?> f1 = cp.save(state);
+      state.iteration = 7;
+      Future<?> f2 = cp.save(state);
+
+      // The first snapshot is overtaken by the second one, so it is not written at all
+      tasks.get(0).run();
+      assertTrue(f1.isDone());
+      assertFalse(Files.exists(cp.path()));
+      tasks.get(1).run();
+      assertTrue(f2.isDone());
+      assertEquals(7l, cp.load().iteration());
+   }
+
+   @Test
+   public void testInvalid() throws Exception {
+      Checkpointer<TestSolution> cp = checkpointer(null);
+      Files.write(cp.path(), new byte[]{1, 2, 3, 4, 5, 6});
+      try {
+         cp.load();
+         fail("Expected an IOException");
+      }
+      catch(IOException ex) { }
+
+      Files.write(cp.path(), new byte[]{0x44, 0x76, 0x52, 0x43, 0, 1, 9});
+      try {
+         cp.load();
+         fail("Expected an IOException");
+      }
+      catch(IOException ex) { }
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * EvaluationCacheTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EvaluationCacheTest extends AbstractProblem<EvaluationCacheTest.TestSolution, Integer> {
+   protected class TestSolution extends AbstractSolution implements StampedSolution {
+      protected int  value;
+      protected long stamp = 0;
+
+      public TestSolution(int value) {
+         this.value = value;
+      }
+
+      public void setValue(int value) {
+         this.value = value;
+         stamp++;
+      }
+
+      @Override
+      public long modificationStamp() {
+         return stamp;
+      }
+   }
+
+   protected int evaluations = 0;
+
+   public EvaluationCacheTest() {
+      super(5);
+   }
+
+   // Problem methods
+   @Override
+   public TestSolution cloneSolution(TestSolution s) {
+      return new TestSolution(s.value);
+   }
+
+   @Override
+   public LocalSearch.SearchDirection direction() {
+      return LocalSearch.SearchDirection.Minimisation;
+   }
+
+   @Override
+   public Integer evaluate(TestSolution s) {
+      evaluations++;
+      return s.value;
+   }
+
+   @Override
+   public TestSolution randomSolution() {
+      return new TestSolution(100);
+   }
+
+   // Test methods
+   @Test
+   public void testHitsAndMisses() {
+      setEvaluationCacheSize(10);
+      TestSolution s1 = new TestSolution(1), s2 = new TestSolution(2);
+
+      assertTrue(better(s1, s2));
+      assertTrue(betterEq(s1, s2));
+      assertEquals(1, compare(s1, s2));
+      assertEquals(2, evaluations);
+      assertEquals(4, evaluationCache().hits());
+      assertEquals(2, evaluationCache().misses());
+
+      s1.setValue(3);
+      assertTrue(better(s2, s1));
+      assertEquals(3, evaluations);
+      assertEquals(3, evaluationCache().misses());
+      assertEquals(2, evaluationCache().size());
+   }
+
+   @Test
+   public void testEviction() {
+      setEvaluationCacheSize(2);
+      TestSolution s1 = new TestSolution(1), s2 = new TestSolution(2), s3 = new TestSolution(3);
+
+      evaluateCached(s1);
+      evaluateCached(s2);
+      evaluateCached(s1);
+      evaluateCached(s3); // Evicts s2, the least recently used
+      assertEquals(2, evaluationCache().size());
+      assertEquals(3, evaluations);
+
+      evaluateCached(s1);
+      assertEquals(3, evaluations);
+      evaluateCached(s2);
+      assertEquals(4, evaluations);
+   }
+
+   @Test
+   public void testDisabled() {
+      TestSolution s1 = new TestSolution(1);
+      assertNull(evaluationCache());
+      better(s1, 5);
+      better(s1, 5);
+      assertEquals(2, evaluations);
+   }
+
+   @Test
+   public void testBypass() throws Exception {
+      final EvaluationCache<TestProblem.TestSolution, Integer> cache    = new EvaluationCache<TestProblem.TestSolution, Integer>(new TestProblem(), 4);
+      ExecutorService                                          executor = Executors.newSingleThreadExecutor();
+      try {
+         // Solutions that are not stamped are evaluated without taking the lock of the cache
+         synchronized(cache) {
+            Future<Integer> f = executor.submit(new Callable<Integer>() {
+                  @Override
+                  public Integer call() {
+                     return cache.evaluate(new TestProblem.TestSolution(7));
+                  }
+               });
+            assertEquals(7, (int) f.get(10, TimeUnit.SECONDS));
+         }
+         assertEquals(1, cache.bypasses());
+         assertEquals(0, cache.hits() + cache.misses());
+         assertEquals(0, cache.size());
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+}
@@ -0,0 +1,123 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * GeneticLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.GeneticTestProblem.BitString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GeneticLSTest {
+   @Test
+   public void testSearch() {
+      GeneticTestProblem            problem = new GeneticTestProblem(1l);
+      GeneticLS<BitString, Integer> ls      = problem.newSearch();
+      ls.setSeed(1l);
+      BitString s = ls.search(problem, GeneticTestProblem.size, -1l);
+      assertEquals(GeneticTestProblem.size, (int) problem.evaluate(s));
+   }
+
+   @Test
+   public void testParallelOffspring() {
+      ExecutorService e1 = Executors.newFixedThreadPool(3),
+                      e2 = Executors.newFixedThreadPool(2);
+      try {
+         // Offspring created concurrently do not depend on scheduling, given the same seed
+         GeneticTestProblem            p1  = new GeneticTestProblem(5l),
+                                       p2  = new GeneticTestProblem(5l);
+         GeneticLS<BitString, Integer> ls1 = p1.newSearch(),
+                                       ls2 = p2.newSearch();
+         ls1.setExecutor(e1);
+         ls2.setExecutor(e2);
+         ls1.setSeed(42l);
+         ls2.setSeed(42l);
+         GeneticLS<BitString, Integer>.SearchState s1 = ls1.iterate(ls1.newState(p1, p1.randomSolution()), GeneticTestProblem.size + 1, Budget.unlimited(), 10),
+                                                   s2 = ls2.iterate(ls2.newState(p2, p2.randomSolution()), GeneticTestProblem.size + 1, Budget.unlimited(), 10);
+         assertEquals(10l, s1.iterationCount());
+         assertEquals(10l, s2.iterationCount());
+         assertEquals(s1.population().size(), s2.population().size());
+         for(Iterator<BitString> it1 = s1.population().iterator(), it2 = s2.population().iterator(); it1.hasNext(); ) {
+            assertTrue(Arrays.equals(it1.next().bits, it2.next().bits));
+         }
+      }
+      finally {
+         e1.shutdown();
+         e2.shutdown();
+      }
+   }
+
+   @Test
+   public void testInterrupt() {
+      GeneticTestProblem            problem = new GeneticTestProblem(5l);
+      GeneticLS<BitString, Integer> ls      = problem.newSearch();
+      ls.setExecutor(new AbstractExecutorService() {
+            @Override
+            public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+               throw new InterruptedException();
+            }
+
+            @Override
+            public void execute(Runnable command) {
+               command.run();
+            }
+
+            @Override
+            public void shutdown() { }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+               return new ArrayList<Runnable>();
+            }
+
+            @Override
+            public boolean isShutdown() {
+               return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+               return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+               return false;
+            }
+         });
+
+      // An interrupted generation stops the search, keeping the population of the previous generation
+      GeneticLS<BitString, Integer>.SearchState state = ls.newState(problem, problem.randomSolution());
+      int size = state.population().size();
+      ls.iterate(state, GeneticTestProblem.size + 1, Budget.unlimited());
+      assertTrue(Thread.interrupted());
+      assertEquals(0l, state.iterationCount());
+      assertEquals(size, state.population().size());
+   }
+}
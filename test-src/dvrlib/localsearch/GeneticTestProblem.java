@@ -0,0 +1,144 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * GeneticTestProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Problem shared by the tests of the genetic search algorithms: the number of ones in a string of <code>size</code> bits is maximised.
+ * Random solutions are drawn from a source seeded at construction, so populations are the same for equal seeds.
+ */
+public class GeneticTestProblem extends AbstractGeneticProblem<GeneticTestProblem.BitString, Integer> {
+   public static class BitString extends AbstractSolution {
+      protected final boolean bits[];
+
+      public BitString(boolean bits[]) {
+         this.bits = bits;
+      }
+   }
+
+   /**
+    * Takes every bit from either parent and flips a random bit of each child, drawing from the source of randomness of the search state.
+    */
+   public class UniformCrossover implements Combiner<GeneticProblem<BitString, Integer>, BitString> {
+      @Override
+      public void reinitialise(GeneticProblem<BitString, Integer> problem) { }
+
+      @Override
+      public NavigableSet<BitString> combine(SearchState<GeneticProblem<BitString, Integer>, BitString> ss, BitString s1, BitString s2) {
+         boolean bits1[] = new boolean[size],
+                 bits2[] = new boolean[size];
+         for(int i = 0; i < size; i++) {
+            boolean swap = ss.random().nextBoolean();
+            bits1[i] = (swap ? s2 : s1).bits[i];
+            bits2[i] = (swap ? s1 : s2).bits[i];
+         }
+         int i1 = ss.random().nextInt(size),
+             i2 = ss.random().nextInt(size);
+         bits1[i1] = !bits1[i1];
+         bits2[i2] = !bits2[i2];
+         TreeSet<BitString> offspring = new TreeSet<BitString>(new Comparator<BitString>() {
+               @Override
+               public int compare(BitString s1, BitString s2) {
+                  // Ties are broken by the bits themselves, so the order does not depend on identities
+                  int c = evaluate(s1).compareTo(evaluate(s2));
+                  for(int i = 0; c == 0 && i < size; i++) {
+                     c = Boolean.compare(s1.bits[i], s2.bits[i]);
+                  }
+                  return c;
+               }
+            });
+         offspring.add(new BitString(bits1));
+         offspring.add(new BitString(bits2));
+         return offspring;
+      }
+
+      @Override
+      public GeneticPopulation<BitString> createPopulation(GeneticProblem<BitString, Integer> problem, Iterable<BitString> solutions, int popSize) {
+         WeightedTreePopulation<BitString> population = new WeightedTreePopulation<BitString>(problem, popSize);
+         for(BitString s : solutions) {
+            population.add(s);
+         }
+         while(population.size() < popSize) {
+            population.add(randomSolution());
+         }
+         return population;
+      }
+   }
+
+   public static final int size = 16;
+
+   protected final Random random;
+
+   public GeneticTestProblem(long seed) {
+      super(5, true);
+      random = new Random(seed);
+   }
+
+   /**
+    * Returns a new genetic search algorithm for this problem, with small, fixed settings.
+    */
+   public GeneticLS<BitString, Integer> newSearch() {
+      return new GeneticLS<BitString, Integer>(new TournamentParentSelector<BitString>(3), new UniformCrossover(),
+                                               new LinearOffspringSelector<BitString, Integer>(LinearOffspringSelector.Strategy.OverallBest), 0, 2, 20, 20);
+   }
+
+   @Override
+   public BitString cloneSolution(BitString s) {
+      return new BitString(s.bits.clone());
+   }
+
+   @Override
+   public LocalSearch.SearchDirection direction() {
+      return LocalSearch.SearchDirection.Maximisation;
+   }
+
+   @Override
+   public Integer evaluate(BitString s) {
+      int ones = 0;
+      for(boolean b : s.bits) {
+         if(b)
+            ones++;
+      }
+      return ones;
+   }
+
+   @Override
+   public Integer evaluationBound(BitString s) {
+      return size;
+   }
+
+   @Override
+   public BitString randomSolution() {
+      boolean bits[] = new boolean[size];
+      for(int i = 0; i < size; i++) {
+         bits[i] = random.nextBoolean();
+      }
+      return new BitString(bits);
+   }
+
+   @Override
+   public double weight(Integer e) {
+      return e + 1d;
+   }
+}
@@ -0,0 +1,74 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2010-2013
+ * GreatDelugeLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GreatDelugeLSTest {
+   @Test
+   public void testSearch() {
+      GreatDelugeLS<TestProblem, TestSolution, Integer> ls = new GreatDelugeLS<TestProblem, TestSolution, Integer>(new TestChanger(), new GreatDelugeLS.LinearDecay(1d), 100);
+      TestSolution s = ls.search(new TestProblem(), 15, -1l);
+      assertEquals(11, s.value);
+   }
+
+   @Test
+   public void testDecay() {
+      GreatDelugeLS<TestProblem, TestSolution, Integer>             ls    = new GreatDelugeLS<TestProblem, TestSolution, Integer>(new TestChanger(), new GreatDelugeLS.LinearDecay(1d), 100);
+      GreatDelugeLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(100));
+      state.target = 0d;
+      assertEquals(99d, new GreatDelugeLS.LinearDecay(1d).decay(state), 0d);
+      assertEquals(50d, new GreatDelugeLS.ExponentialDecay(0.5d).decay(state), 0d);
+      assertEquals(100d, new GreatDelugeLS.TimeBudgetDecay().decay(state), 0d);
+   }
+
+   @Test
+   public void testLevel() {
+      GreatDelugeLS<TestProblem, TestSolution, Integer>             ls    = new GreatDelugeLS<TestProblem, TestSolution, Integer>(new TestChanger(), new GreatDelugeLS.LinearDecay(0d), 100);
+      GreatDelugeLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(44));
+      ls.setSeed(42l);
+      state.level = 50d;
+
+      // Worse solutions are accepted up to the water level, but never above it
+      boolean worse = false;
+      for(int i = 0; i < 1000; i++) {
+         int before = state.eval;
+         ls.iterate(state, 0, Budget.unlimited(), 1);
+         assertTrue(state.solution().value <= 50);
+         assertEquals(state.solution().value, (int) state.eval);
+         worse |= (state.eval > before);
+      }
+      assertTrue(worse);
+   }
+
+   @Test
+   public void testTimeBudgetDecay() {
+      GreatDelugeLS<TestProblem, TestSolution, Integer>             ls    = new GreatDelugeLS<TestProblem, TestSolution, Integer>(new TestChanger(), new GreatDelugeLS.TimeBudgetDecay(), 1 << 30);
+      GreatDelugeLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(100));
+
+      // The water level falls from the initial evaluation to the bound as the budget is used up
+      ls.iterate(state, 0, Budget.ofEvaluations(1000), -1);
+      assertEquals(1d, state.progress(), 0d);
+      assertEquals(0d, state.level(), 0d);
+   }
+}
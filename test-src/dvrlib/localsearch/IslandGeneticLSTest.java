@@ -0,0 +1,118 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * IslandGeneticLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.GeneticTestProblem.BitString;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IslandGeneticLSTest {
+   @SuppressWarnings("unchecked")
+   protected static IslandGeneticLS<BitString, Integer> search(GeneticTestProblem problem, int islands, ExecutorService executor, IslandGeneticLS.Topology topology) {
+      GeneticLS<BitString, Integer> searches[] = (GeneticLS<BitString, Integer>[]) new GeneticLS<?, ?>[islands];
+      for(int i = 0; i < islands; i++) {
+         searches[i] = problem.newSearch();
+      }
+      return new IslandGeneticLS<BitString, Integer>(searches, executor, topology, 2, 1, 10);
+   }
+
+   /**
+    * Returns the number of solutions in the population of the given island that consist of ones only.
+    */
+   protected static int optima(IslandGeneticLS<BitString, Integer>.SearchState state, int island) {
+      int n = 0;
+      for(BitString s : state.island(island).population()) {
+         if(state.problem().evaluate(s) == GeneticTestProblem.size)
+            n++;
+      }
+      return n;
+   }
+
+   protected static BitString optimum() {
+      boolean bits[] = new boolean[GeneticTestProblem.size];
+      Arrays.fill(bits, true);
+      return new BitString(bits);
+   }
+
+   @Test
+   public void testSearch() {
+      GeneticTestProblem problem = new GeneticTestProblem(1l);
+      BitString          s       = search(problem, 3, null, IslandGeneticLS.Topology.Ring).search(problem, GeneticTestProblem.size, -1l);
+      assertEquals(GeneticTestProblem.size, (int) problem.evaluate(s));
+   }
+
+   @Test
+   public void testExecutor() {
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      try {
+         // The islands only share state during migration, so running them concurrently does not change a seeded search
+         GeneticTestProblem                   p1  = new GeneticTestProblem(3l),
+                                              p2  = new GeneticTestProblem(3l);
+         IslandGeneticLS<BitString, Integer>  ls1 = search(p1, 3, null, IslandGeneticLS.Topology.Random),
+                                              ls2 = search(p2, 3, executor, IslandGeneticLS.Topology.Random);
+         ls1.setSeed(42l);
+         ls2.setSeed(42l);
+         IslandGeneticLS<BitString, Integer>.SearchState s1 = ls1.iterate(ls1.newState(p1, p1.randomSolution()), GeneticTestProblem.size + 1, Budget.unlimited(), 3),
+                                                         s2 = ls2.iterate(ls2.newState(p2, p2.randomSolution()), GeneticTestProblem.size + 1, Budget.unlimited(), 3);
+         assertEquals(3l, s2.iterationCount());
+         for(int i = 0; i < 3; i++) {
+            assertEquals(s1.island(i).iterationCount(), s2.island(i).iterationCount());
+            assertEquals(p1.evaluate(s1.island(i).solution()), p2.evaluate(s2.island(i).solution()));
+         }
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testRing() {
+      GeneticTestProblem                              problem = new GeneticTestProblem(2l);
+      IslandGeneticLS<BitString, Integer>             ls      = search(problem, 3, null, IslandGeneticLS.Topology.Ring);
+      IslandGeneticLS<BitString, Integer>.SearchState state   = ls.newState(problem, problem.randomSolution());
+      state.island(0).population().add(optimum());
+      ls.migrate(state);
+      assertEquals(1, optima(state, 0));
+      assertEquals(1, optima(state, 1));
+      assertEquals(0, optima(state, 2));
+      // Migrants are clones
+      assertNotSame(state.island(0).solution(), state.island(1).solution());
+
+      ls.migrate(state);
+      assertEquals(1, optima(state, 0));
+      assertEquals(2, optima(state, 1));
+      assertEquals(1, optima(state, 2));
+   }
+
+   @Test
+   public void testFullyConnected() {
+      GeneticTestProblem                              problem = new GeneticTestProblem(2l);
+      IslandGeneticLS<BitString, Integer>             ls      = search(problem, 3, null, IslandGeneticLS.Topology.FullyConnected);
+      IslandGeneticLS<BitString, Integer>.SearchState state   = ls.newState(problem, problem.randomSolution());
+      state.island(1).population().add(optimum());
+      ls.migrate(state);
+      assertEquals(1, optima(state, 0));
+      assertEquals(1, optima(state, 1));
+      assertEquals(1, optima(state, 2));
+   }
+}
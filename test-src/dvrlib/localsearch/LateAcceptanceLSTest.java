@@ -0,0 +1,63 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2010-2013
+ * LateAcceptanceLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LateAcceptanceLSTest {
+   @Test
+   public void testSearch() {
+      LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(new TestChanger(), 5, 100);
+      TestSolution s = ls.search(new TestProblem(), 15, -1l);
+      assertEquals(11, s.value);
+   }
+
+   @Test
+   public void testIterate() {
+      LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(new TestChanger(), 5, 100);
+      LateAcceptanceLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(100));
+      ls.iterate(state, 0, Long.MAX_VALUE, 10);
+      assertEquals(10, state.iterationCount());
+      assertTrue(state.solution().value < 100);
+      assertEquals(state.solution().value, state.eval.intValue());
+      assertTrue(state.bestEval <= state.eval);
+   }
+
+   @Test
+   public void testContinue() {
+      LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(new TestChanger(), 5, 1000);
+      ls.setSeed(42l);
+      LateAcceptanceLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(100));
+
+      // The current solution is kept between calls, so worse solutions that are accepted late are not discarded
+      boolean worse = false;
+      for(int i = 0; i < 100; i++) {
+         int before = state.eval;
+         ls.iterate(state, 0, Budget.unlimited(), 1);
+         assertEquals(state.solution().value, state.eval.intValue());
+         worse |= (state.eval > before);
+      }
+      assertTrue(worse);
+      assertEquals(100l, state.iterationCount());
+   }
+}
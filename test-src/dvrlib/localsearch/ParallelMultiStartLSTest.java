@@ -0,0 +1,158 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * ParallelMultiStartLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestSolution;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParallelMultiStartLSTest {
+   protected static class SeededTestProblem extends TestProblem implements SeededProblem<TestSolution> {
+      @Override
+      public TestSolution randomSolution(SplittableRandom random) {
+         return new TestSolution(values[random.nextInt(values.length)]);
+      }
+   }
+
+   /**
+    * Returns its start solution right away, recording it in the given list.
+    */
+   protected static class RecordingLS extends LocalSearch<Problem<TestSolution, Integer>, TestSolution, Integer> {
+      protected final List<Integer> starts;
+
+      protected RecordingLS(List<Integer> starts) {
+         this.starts = starts;
+      }
+
+      @Override
+      protected TestSolution doSearch(Problem<TestSolution, Integer> problem, Integer bound, Budget budget, TestSolution solution) {
+         starts.add(solution.value);
+         return solution;
+      }
+   }
+
+   protected static ParallelMultiStartLS.WorkerFactory<TestSolution, Integer> factory(final List<Integer> starts) {
+      return new ParallelMultiStartLS.WorkerFactory<TestSolution, Integer>() {
+            @Override
+            public LocalSearch<Problem<TestSolution, Integer>, TestSolution, Integer> createSearch() {
+               return new RecordingLS(starts);
+            }
+
+            @Override
+            public Problem<TestSolution, Integer> createProblem(Problem<TestSolution, Integer> problem) {
+               return new SeededTestProblem();
+            }
+         };
+   }
+
+   @Test
+   public void testBest() {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Integer>                               starts = Collections.synchronizedList(new ArrayList<Integer>());
+         ParallelMultiStartLS<TestSolution, Integer> ls     = new ParallelMultiStartLS<TestSolution, Integer>(factory(starts), executor, 20, 4);
+         ls.setSeed(42l);
+         TestSolution s = ls.search(new SeededTestProblem(), 0, -1l);
+         assertEquals(20, starts.size());
+         assertEquals((int) Collections.min(starts), s.value);
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testSeed() {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         // However the restarts are divided among the workers, they start from the same solutions
+         List<Integer> starts1 = Collections.synchronizedList(new ArrayList<Integer>()),
+                       starts2 = Collections.synchronizedList(new ArrayList<Integer>());
+         ParallelMultiStartLS<TestSolution, Integer> ls1 = new ParallelMultiStartLS<TestSolution, Integer>(factory(starts1), executor, 12, 4),
+                                                     ls2 = new ParallelMultiStartLS<TestSolution, Integer>(factory(starts2), executor, 12, 3);
+         ls1.setSeed(7l);
+         ls2.setSeed(7l);
+         ls1.search(new SeededTestProblem(), 0, -1l);
+         ls2.search(new SeededTestProblem(), 0, -1l);
+         Collections.sort(starts1);
+         Collections.sort(starts2);
+         assertEquals(starts1, starts2);
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testBound() {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         // The first worker reaches the bound, the others search until they are stopped
+         final AtomicInteger workers = new AtomicInteger(),
+                             stopped = new AtomicInteger();
+         ParallelMultiStartLS.WorkerFactory<TestSolution, Integer> factory = new ParallelMultiStartLS.WorkerFactory<TestSolution, Integer>() {
+               @Override
+               public LocalSearch<Problem<TestSolution, Integer>, TestSolution, Integer> createSearch() {
+                  final boolean first = (workers.getAndIncrement() == 0);
+                  return new LocalSearch<Problem<TestSolution, Integer>, TestSolution, Integer>() {
+                        @Override
+                        protected TestSolution doSearch(Problem<TestSolution, Integer> problem, Integer bound, Budget budget, TestSolution solution) {
+                           try {
+                              if(first) {
+                                 Thread.sleep(50);
+                                 return new TestSolution(11);
+                              }
+                              while(!budget.checkNow()) {
+                                 Thread.sleep(1);
+                              }
+                              stopped.incrementAndGet();
+                           }
+                           catch(InterruptedException ex) {
+                              Thread.currentThread().interrupt();
+                           }
+                           return solution;
+                        }
+                     };
+               }
+
+               @Override
+               public Problem<TestSolution, Integer> createProblem(Problem<TestSolution, Integer> problem) {
+                  return new TestProblem();
+               }
+            };
+         ParallelMultiStartLS<TestSolution, Integer> ls = new ParallelMultiStartLS<TestSolution, Integer>(factory, executor, 100, 4);
+         long         start = System.nanoTime();
+         TestSolution s     = ls.search(new TestProblem(), 11, 10000l);
+         assertEquals(11, s.value);
+         assertEquals(3, stopped.get());
+         assertTrue(System.nanoTime() - start < 5000000000l);
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+}
@@ -0,0 +1,94 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * ParallelTemperingLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParallelTemperingLSTest {
+   protected static ParallelTemperingLS<TestProblem, TestSolution, Integer> search(double temperatures[], ExecutorService executor) {
+      TestChanger changers[] = new TestChanger[temperatures.length];
+      for(int i = 0; i < changers.length; i++) {
+         changers[i] = new TestChanger();
+      }
+      return new ParallelTemperingLS<TestProblem, TestSolution, Integer>(changers, temperatures, 10, 20, executor);
+   }
+
+   @Test
+   public void testSearch() {
+      TestSolution s = search(ParallelTemperingLS.geometricLadder(1d, 10d, 3), null).search(new TestProblem(), 15, -1l);
+      assertEquals(11, s.value);
+   }
+
+   @Test
+   public void testExecutor() {
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         ParallelTemperingLS<TestProblem, TestSolution, Integer> ls = search(ParallelTemperingLS.geometricLadder(1d, 10d, 4), executor);
+         ls.setSeed(42l);
+         ParallelTemperingLS<TestProblem, TestSolution, Integer>.SearchState state = ls.iterate(ls.newState(new TestProblem(), new TestSolution(100)), 0, Budget.unlimited(), 5);
+         assertEquals(5l, state.iterationCount());
+         // Every chain did its iterations, and every rung still holds exactly one chain
+         boolean rungs[] = new boolean[4];
+         for(ParallelTemperingLS<TestProblem, TestSolution, Integer>.Replica r : state.replicas) {
+            assertTrue(r.iterationCount() > 0l);
+            assertFalse(rungs[r.rung()]);
+            rungs[r.rung()] = true;
+            assertSame(r, state.replica(r.rung()));
+         }
+         assertEquals(3, state.swapAcceptanceRates().length);
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testExchange() {
+      ParallelTemperingLS<TestProblem, TestSolution, Integer>             ls    = search(new double[]{ 0.1, 1d }, null);
+      ParallelTemperingLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(111));
+      ParallelTemperingLS<TestProblem, TestSolution, Integer>.Replica     cold  = state.replica(0),
+                                                                          hot   = state.replica(1);
+      hot.solution = new TestSolution(11);
+      hot.eval     = 11;
+
+      // The better chain is on the hotter rung, so the swap is always accepted
+      ls.exchange(state, 0);
+      assertSame(hot, state.replica(0));
+      assertSame(cold, state.replica(1));
+      assertEquals(0, hot.rung());
+      assertEquals(1, cold.rung());
+      assertEquals(1d, state.swapAcceptanceRate(0), 0d);
+
+      // Swapping back would make the colder rung far worse, which is practically never accepted
+      ls.exchange(state, 0);
+      assertSame(hot, state.replica(0));
+      assertEquals(0.5, state.swapAcceptanceRates()[0], 0d);
+
+      // An odd offset leaves no pair of rungs to attempt
+      ls.exchange(state, 1);
+      assertEquals(1, state.swapAcceptanceRates().length);
+      assertEquals(0.5, state.swapAcceptanceRates()[0], 0d);
+   }
+}
@@ -0,0 +1,82 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * PhasedMultiChangerTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestSolution;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PhasedMultiChangerTest {
+   /**
+    * Replaces the solution by one with a random value, which it reports as evaluation without evaluating the solution.
+    */
+   protected static class DeltaChanger extends SubstitutionChanger<TestProblem, TestSolution> {
+      protected class ValueChange extends SubstitutionChanger<TestProblem, TestSolution>.Change implements DeltaChange<Integer> {
+         protected final int value;
+
+         protected ValueChange(TestSolution old, int value) {
+            super(old);
+            this.value = value;
+         }
+
+         @Override
+         public Integer evaluation(Integer before) {
+            return value;
+         }
+      }
+
+      @Override
+      public Change makeChange(SingularSearchState<TestProblem, TestSolution> ss) {
+         int         value  = TestProblem.values[ss.random().nextInt(TestProblem.values.length)];
+         ValueChange change = new ValueChange(ss.solution(), value);
+         ss.solution = new TestSolution(value);
+         return change;
+      }
+
+      @Override
+      public void reinitialise(TestProblem p) { }
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testDelta() {
+      final int   evaluations[] = new int[1];
+      TestProblem problem       = new TestProblem() {
+            @Override
+            public Integer evaluate(TestSolution s) {
+               evaluations[0]++;
+               return super.evaluate(s);
+            }
+         };
+      PhasedMultiChanger<TestProblem, TestSolution, SubstitutionChanger<TestProblem, TestSolution>.Change> changer = new PhasedMultiChanger<TestProblem, TestSolution, SubstitutionChanger<TestProblem, TestSolution>.Change>(
+            (Changer<TestProblem, TestSolution, SubstitutionChanger<TestProblem, TestSolution>.Change>[]) new Changer<?, ?, ?>[]{ new DeltaChanger(), new DeltaChanger(), new DeltaChanger() });
+      LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(changer, 5, 100);
+      ls.setSeed(42l);
+      ls.setSavingCriterion(LocalSearch.SavingCriterion.EndOnly);
+
+      // The phases report the evaluations of their changes, so the engine does not evaluate the changed solutions; nor does the solution pool, as nothing is saved
+      LateAcceptanceLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(problem, new TestSolution(100));
+      int initial = evaluations[0];
+      ls.iterate(state, 0, Budget.unlimited(), 3);
+      assertEquals(3l, state.iterationCount());
+      assertEquals(initial, evaluations[0]);
+      assertEquals(state.solution().value, (int) state.eval);
+   }
+}
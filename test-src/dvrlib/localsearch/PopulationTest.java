@@ -48,6 +48,9 @@ public class PopulationTest {
       public Prob() {
          super(PopulationSizeLimit);
       }
+      public Prob(boolean concurrent) {
+         super(PopulationSizeLimit, concurrent);
+      }
       public Sol cloneSolution(Sol sol) {
          return new Sol(sol.n);
       }
@@ -73,6 +76,7 @@ public class PopulationTest {
       Prob problem = new Prob();
       testPopulation(problem, new TreePopulation<Sol, Integer>(problem, PopulationSizeLimit));
       testPopulation(problem, new WeightedTreePopulation<Sol>(problem, PopulationSizeLimit));
+      testPopulation(problem, new ConcurrentPopulation<Sol, Integer>(problem, PopulationSizeLimit));
    }
    protected void testPopulation(Prob problem, Population<Sol> pop) {
       Sol sols[] = new Sol[PopulationSizeLimit + 10];
@@ -117,4 +121,67 @@ public class PopulationTest {
          assertTrue(n2 == sols[i] || n2 == sols2[i]);
       }
    }
+
+   @Test
+   public void testConcurrentPool() throws InterruptedException {
+      final Prob problem   = new Prob(true);
+      final int  offers    = 5000;
+      Thread     threads[] = new Thread[4];
+      for(int t = 0; t < threads.length; t++) {
+         final int offset = t;
+         threads[t] = new Thread() {
+               @Override
+               public void run() {
+                  for(int i = offset; i < offers; i += 4) {
+                     problem.saveSolution(new Sol(i));
+                  }
+               }
+            };
+         threads[t].start();
+      }
+      for(Thread t : threads) {
+         t.join();
+      }
+
+      Population<Sol> pool = problem.solutions();
+      assertEquals(PopulationSizeLimit, pool.size());
+      assertEquals(offers - 1, problem.bestSolution().n);
+      assertEquals(offers - PopulationSizeLimit, pool.peekWorst().n);
+      assertFalse(problem.saveSolution(new Sol(offers - PopulationSizeLimit)));
+      assertTrue(problem.saveSolution(new Sol(offers)));
+      assertEquals(offers, problem.bestSolution().n);
+
+      pool.retainBest(3);
+      assertEquals(3, pool.size());
+      assertEquals(offers - 2, pool.peekWorst().n);
+   }
+
+   @Test
+   public void testBulk() {
+      Prob                        problem = new Prob();
+      WeightedTreePopulation<Sol> pop     = new WeightedTreePopulation<Sol>(problem, PopulationSizeLimit);
+      java.util.ArrayList<Sol>    sols    = new java.util.ArrayList<Sol>();
+      for(int i = 0; i < PopulationSizeLimit + 10; i++) {
+         sols.add(new Sol(i));
+      }
+      pop.add(sols.get(3));
+      assertTrue(pop.addAll(sols));
+      assertFalse(pop.addAll(sols));
+      assertEquals(PopulationSizeLimit, pop.size());
+      assertEquals(sols.size() - 1, pop.peekBest().n);
+      assertEquals(10, pop.peekWorst().n);
+      assertFalse(pop.contains(sols.get(3)));
+
+      pop.retainBest(5);
+      assertEquals(5, pop.size());
+      assertEquals(sols.size() - 5, pop.peekWorst().n);
+      for(int i = 0; i < sols.size(); i++) {
+         assertEquals(i >= sols.size() - 5, pop.contains(sols.get(i)));
+      }
+      java.util.Iterator<Sol> it = pop.iterator();
+      for(int i = sols.size() - 1; i >= sols.size() - 5; i--) {
+         assertEquals(sols.get(i), it.next());
+      }
+      assertFalse(it.hasNext());
+   }
 }
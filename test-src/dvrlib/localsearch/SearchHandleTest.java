@@ -0,0 +1,131 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchHandleTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SearchHandleTest {
+   @Test
+   public void testAsync() throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         final CountDownLatch completed = new CountDownLatch(1);
+         LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(new TestChanger(), 5, 100);
+         ls.setChunkSize(100);
+         SearchHandle<TestSolution> handle = ls.searchAsync(new TestProblem(), 15, Budget.unlimited(), new TestSolution(100), executor);
+         handle.addListener(new SearchHandle.Listener<TestSolution>() {
+               @Override
+               public void searchCompleted(SearchHandle<TestSolution> h) {
+                  completed.countDown();
+               }
+            });
+         TestSolution s = handle.get(10, TimeUnit.SECONDS);
+         assertTrue(completed.await(10, TimeUnit.SECONDS));
+         assertTrue(handle.isDone());
+         assertFalse(handle.isCancelled());
+         assertSame(s, handle.best());
+         assertEquals(11, s.value);
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testCancel() throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         final CountDownLatch started   = new CountDownLatch(1),
+                              completed = new CountDownLatch(1);
+         LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(new TestChanger() {
+               @Override
+               public Change makeChange(SingularSearchState<TestProblem, TestSolution> state) throws CannotChangeException {
+                  started.countDown();
+                  return setSolution(state, new TestSolution(100 + state.random().nextInt(10)));
+               }
+            }, 5, 1 << 30);
+         ls.setChunkSize(1l << 40);
+         SearchHandle<TestSolution> handle = ls.searchAsync(new TestProblem(), 0, -1l, new TestSolution(100), executor);
+         handle.addListener(new SearchHandle.Listener<TestSolution>() {
+               @Override
+               public void searchCompleted(SearchHandle<TestSolution> h) {
+                  completed.countDown();
+               }
+            });
+         assertTrue(started.await(10, TimeUnit.SECONDS));
+         assertFalse(handle.isDone());
+         assertTrue(handle.cancel(false));
+         assertTrue(handle.isCancelled());
+         assertTrue(completed.await(10, TimeUnit.SECONDS));
+         assertEquals(100, handle.best().value);
+         try {
+            handle.get();
+            fail("Expected a CancellationException");
+         }
+         catch(CancellationException ex) { }
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testStopCount() throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         // No change improves the optimum, so the search stops after stopCount iterations rather than after the first chunk
+         LateAcceptanceLS<TestProblem, TestSolution, Integer> ls = new LateAcceptanceLS<TestProblem, TestSolution, Integer>(new TestChanger(), 5, 50);
+         ls.setChunkSize(7);
+         TestSolution s = ls.searchAsync(new TestProblem(), 0, Budget.unlimited(), new TestSolution(11), executor).get(10, TimeUnit.SECONDS);
+         assertEquals(11, s.value);
+         assertEquals(50l, s.iterationCount());
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testSimulatedAnnealing() throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         // Chunks do not change the course of a seeded search
+         SimulatedAnnealingLS<TestProblem, TestSolution, Integer> ls = new SimulatedAnnealingLS<TestProblem, TestSolution, Integer>(new TestChanger(), 20, 10);
+         ls.setSeed(42l);
+         TestSolution s1 = ls.search(new TestProblem(), 0, Budget.unlimited(), new TestSolution(100));
+         ls.setSeed(42l);
+         ls.setChunkSize(3);
+         TestSolution s2 = ls.searchAsync(new TestProblem(), 0, Budget.unlimited(), new TestSolution(100), executor).get(10, TimeUnit.SECONDS);
+         assertEquals(s1.value, s2.value);
+         assertTrue(s2.iterationCount() > 3l);
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchMetricsTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.ObjectName;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SearchMetricsTest {
+   @Test
+   public void testSearch() {
+      TestProblem   problem = new TestProblem();
+      SearchMetrics metrics = new SearchMetrics(true);
+      LateAcceptanceLS<TestProblem, TestProblem.TestSolution, Integer> ls =
+            new LateAcceptanceLS<TestProblem, TestProblem.TestSolution, Integer>(new TestProblem.TestChanger(), 5, 100);
+      ls.setMetrics(metrics);
+      Budget budget = Budget.ofEvaluations(1000000);
+      ls.search(problem, 0, budget, new TestProblem.TestSolution(100));
+
+      Map<String, Long> snapshot = metrics.snapshot();
+      long              n        = budget.evaluations();
+      assertTrue(n > 0);
+      assertEquals(n, metrics.getEvaluations());
+      assertEquals(n, snapshot.get("evaluations").longValue());
+      assertEquals(n, snapshot.get("changer.TestChanger#0.proposed").longValue());
+      assertEquals(n, snapshot.get("changer.TestChanger#0.accepted") + snapshot.get("changer.TestChanger#0.undone"));
+      assertEquals(0l, snapshot.get("changer.TestChanger#0.cannotChange").longValue());
+      assertEquals(0d, metrics.getCannotChangeRate(), 0d);
+      assertTrue(snapshot.get("nanos.search") >= snapshot.get("nanos.generation") + snapshot.get("nanos.evaluation"));
+
+      metrics.reset();
+      assertEquals(0l, metrics.getEvaluations());
+      assertNull(metrics.snapshot().get("changer.TestChanger#0.proposed"));
+   }
+
+   @Test
+   public void testGenetic() {
+      GeneticTestProblem                               problem = new GeneticTestProblem(1l);
+      SearchMetrics                                    metrics = new SearchMetrics(false);
+      GeneticLS<GeneticTestProblem.BitString, Integer> ls      = problem.newSearch();
+      ls.setMetrics(metrics);
+      ls.setSeed(1l);
+      Budget budget = Budget.ofEvaluations(1000000);
+      ls.iterate(ls.newState(problem, problem.randomSolution()), GeneticTestProblem.size + 1, budget, 5);
+
+      // The offspring are evaluated through the search algorithm, so they are counted
+      assertTrue(metrics.getEvaluations() > 5);
+      assertTrue(metrics.getEvaluations() <= budget.evaluations() + 1);
+   }
+
+   @Test
+   public void testPopulation() {
+      PopulationTest                             test       = new PopulationTest();
+      PopulationTest.Prob                        problem    = test.new Prob();
+      SearchMetrics                              metrics    = new SearchMetrics(false);
+      WeightedTreePopulation<PopulationTest.Sol> population = new WeightedTreePopulation<PopulationTest.Sol>(problem, 2);
+      population.setMetrics(metrics);
+      population.add(test.new Sol(1));
+      population.add(test.new Sol(2));
+      population.add(test.new Sol(3));
+      population.add(test.new Sol(0));
+
+      Map<String, Long> snapshot = metrics.snapshot();
+      assertEquals(3l, snapshot.get("population.inserts").longValue());
+      assertEquals(1l, snapshot.get("population.rejects").longValue());
+      assertNull(snapshot.get("nanos.search"));
+   }
+
+   @Test
+   public void testJMX() throws Exception {
+      SearchMetrics metrics = new SearchMetrics(false);
+      metrics.evaluated(metrics.start());
+      ObjectName name = metrics.register("test");
+      try {
+         assertEquals(1l, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Evaluations"));
+      }
+      finally {
+         SearchMetrics.unregister(name);
+      }
+   }
+}
@@ -0,0 +1,132 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * SearchMonitorTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SearchMonitorTest {
+   protected static class Recorder implements SearchListener<Integer> {
+      protected final ArrayList<SearchEvent<Integer>> events = new ArrayList<SearchEvent<Integer>>();
+
+      @Override
+      public void searchProgressed(SearchEvent<Integer> event) {
+         events.add(event);
+      }
+   }
+
+   protected static SearchEvent<Integer> event(long iteration) {
+      return new SearchEvent<Integer>(null, iteration, iteration / 2, 0l, (int) iteration, 0, Double.NaN);
+   }
+
+   @Test
+   public void testBuffer() {
+      SearchMonitor<Integer> monitor  = new SearchMonitor<Integer>(3, 10);
+      Recorder               recorder = new Recorder();
+      monitor.addListener(recorder);
+
+      assertTrue(monitor.due(0));
+      assertFalse(monitor.due(5));
+      assertTrue(monitor.due(20));
+
+      // The capacity is rounded up to 4
+      for(int i = 0; i < 6; i++) {
+         assertEquals(i < 4, monitor.publish(event(i)));
+      }
+      assertEquals(2l, monitor.dropped());
+      assertEquals(4, monitor.dispatch());
+      assertEquals(4, recorder.events.size());
+      for(int i = 0; i < 4; i++) {
+         assertEquals(i, recorder.events.get(i).iteration());
+      }
+      assertEquals(0.5d, recorder.events.get(2).acceptanceRate(), 0d);
+
+      // After dispatching, the buffer can be reused
+      for(int i = 0; i < 4; i++) {
+         assertTrue(monitor.publish(event(10 + i)));
+      }
+      assertEquals(4, monitor.dispatch());
+      assertEquals(0, monitor.dispatch());
+      assertEquals(13l, recorder.events.get(7).iteration());
+   }
+
+   @Test
+   public void testConcurrentPublishing() throws Exception {
+      final SearchMonitor<Integer> monitor   = new SearchMonitor<Integer>(64, 1);
+      final AtomicLong             published = new AtomicLong(0l);
+      final AtomicLong             received  = new AtomicLong(0l);
+      monitor.addListener(new SearchListener<Integer>() {
+            @Override
+            public void searchProgressed(SearchEvent<Integer> event) {
+               received.incrementAndGet();
+            }
+         });
+      monitor.start();
+
+      Thread threads[] = new Thread[4];
+      for(int t = 0; t < threads.length; t++) {
+         threads[t] = new Thread() {
+               @Override
+               public void run() {
+                  for(int i = 0; i < 10000; i++) {
+                     if(monitor.publish(event(i)))
+                        published.incrementAndGet();
+                  }
+               }
+            };
+         threads[t].start();
+      }
+      for(Thread t : threads) {
+         t.join();
+      }
+      monitor.close();
+
+      assertEquals(published.get(), received.get());
+      assertEquals(40000l, published.get() + monitor.dropped());
+   }
+
+   @Test
+   public void testSearch() throws Exception {
+      TestProblem            problem  = new TestProblem();
+      SearchMonitor<Integer> monitor  = new SearchMonitor<Integer>(1024, 10);
+      Recorder               recorder = new Recorder();
+      monitor.addListener(recorder);
+
+      LateAcceptanceLS<TestProblem, TestProblem.TestSolution, Integer> ls =
+            new LateAcceptanceLS<TestProblem, TestProblem.TestSolution, Integer>(new TestProblem.TestChanger(), 5, 100);
+      ls.setMonitor(monitor);
+      LateAcceptanceLS<TestProblem, TestProblem.TestSolution, Integer>.SearchState state = ls.newState(problem, new TestProblem.TestSolution(100));
+      ls.iterate(state, 0, Budget.unlimited(), 100);
+      monitor.close();
+
+      assertEquals(10, recorder.events.size());
+      for(int i = 0; i < recorder.events.size(); i++) {
+         SearchEvent<Integer> e = recorder.events.get(i);
+         assertSame(state, e.state());
+         assertEquals(10l * (i + 1), e.iteration());
+         assertTrue(e.best() <= e.current());
+         assertTrue(e.accepted() <= e.iteration());
+         if(i > 0)
+            assertTrue(e.best() <= recorder.events.get(i - 1).best());
+      }
+   }
+}
@@ -41,6 +41,39 @@ public class SimulatedAnnealingLSTest extends AbstractProblem<SimulatedAnnealing
       @Override
       public void reinitialise(SimulatedAnnealingLSTest p) { }
    }
+   protected class SeededChanger extends TestChanger {
+      @Override
+      public Change makeChange(SingularSearchState<SimulatedAnnealingLSTest, TestSolution> state) throws CannotChangeException {
+         return setSolution(state, new TestSolution(values[state.random().nextInt(values.length)]));
+      }
+   }
+
+   protected class StepChanger extends SubstitutionChanger<SimulatedAnnealingLSTest, SimulatedAnnealingLSTest.TestSolution> {
+      protected class StepChange extends SubstitutionChanger<SimulatedAnnealingLSTest, TestSolution>.Change implements DeltaChange<Integer> {
+         protected final int step;
+
+         protected StepChange(TestSolution old, int step) {
+            super(old);
+            this.step = step;
+         }
+
+         @Override
+         public Integer evaluation(Integer before) {
+            return before + step;
+         }
+      }
+
+      @Override
+      public Change makeChange(SingularSearchState<SimulatedAnnealingLSTest, TestSolution> state) {
+         int        step   = (state.solution().value == 0 || state.random().nextBoolean() ? 1 : -1);
+         StepChange change = new StepChange(state.solution(), step);
+         state.solution = new TestSolution(state.solution().value + step);
+         return change;
+      }
+
+      @Override
+      public void reinitialise(SimulatedAnnealingLSTest p) { }
+   }
 
    protected final int    values[] = new int[]{11, 22, 33, 44, 55, 66, 77, 88, 99, 111 };
    protected final Random r        = new Random()                                       ;
@@ -78,4 +111,31 @@ public class SimulatedAnnealingLSTest extends AbstractProblem<SimulatedAnnealing
       TestSolution s = (TestSolution) ls.search(this, 15, -1l);
       assertEquals(11, s.value);
    }
+
+   @SuppressWarnings("unchecked")
+   @Test
+   public void testSeed() {
+      SimulatedAnnealingLS ls = new SimulatedAnnealingLS(new SeededChanger(), 100, 10);
+      ls.setSeed(42l);
+      TestSolution s1 = (TestSolution) ls.search(this, 0, -1l, new TestSolution(100));
+      ls.setSeed(42l);
+      TestSolution s2 = (TestSolution) ls.search(this, 0, -1l, new TestSolution(100));
+      assertEquals(s1.value, s2.value);
+      assertEquals(s1.iterationCount(), s2.iterationCount());
+   }
+
+   @Test
+   public void testDeltaRetry() {
+      SimulatedAnnealingLS<SimulatedAnnealingLSTest, TestSolution, Integer> ls = new SimulatedAnnealingLS<SimulatedAnnealingLSTest, TestSolution, Integer>(new StepChanger(), 10, 10);
+      ls.setSeed(42l);
+      SimulatedAnnealingLS<SimulatedAnnealingLSTest, TestSolution, Integer>.SearchState state = ls.newState(this, new TestSolution(20));
+
+      // The evaluations derived from the changes stay equal to the actual evaluation, also after a retry reverts to the best solution
+      for(int i = 0; i < 1000000 && state.retry < ls.retryCount; i++) {
+         ls.iterate(state, -1, Budget.unlimited(), 1);
+         assertEquals((int) evaluate(state.solution()), (int) state.curEval);
+      }
+      assertEquals(ls.retryCount, state.retry);
+      assertEquals(0, state.solution().value);
+   }
 }
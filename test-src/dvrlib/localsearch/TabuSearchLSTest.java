@@ -0,0 +1,122 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2010-2013
+ * TabuSearchLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TabuSearchLSTest {
+   /**
+    * Changes the value of the solution in place, with changes that can be repeated.
+    */
+   protected static class RepeatableChanger extends Changer<TestProblem, TestSolution, RepeatableChanger.Change> {
+      protected class Change extends Changer<TestProblem, TestSolution, RepeatableChanger.Change>.Change implements RepeatableChange<TestProblem, TestSolution> {
+         protected final int old,
+                             value;
+
+         protected Change(int old, int value) {
+            this.old   = old;
+            this.value = value;
+         }
+
+         @Override
+         protected void undo(SingularSearchState<TestProblem, TestSolution> ss) {
+            ss.solution.value = old;
+         }
+
+         @Override
+         public void redo(SingularSearchState<TestProblem, TestSolution> ss) {
+            ss.solution.value = value;
+         }
+      }
+
+      @Override
+      public Change makeChange(SingularSearchState<TestProblem, TestSolution> ss) {
+         Change c = new Change(ss.solution.value, TestProblem.values[ss.random().nextInt(TestProblem.values.length)]);
+         c.redo(ss);
+         return c;
+      }
+
+      @Override
+      public void reinitialise(TestProblem p) { }
+   }
+
+   @Test
+   public void testSearch() {
+      TabuSearchLS<TestProblem, TestSolution, Integer> ls = new TabuSearchLS<TestProblem, TestSolution, Integer>(new TestChanger(), 20, 3, 100);
+      TestSolution s = ls.search(new TestProblem(), 15, -1l);
+      assertEquals(11, s.value);
+   }
+
+   @Test
+   public void testParallelSearch() {
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         TabuSearchLS<TestProblem, TestSolution, Integer> ls = new TabuSearchLS<TestProblem, TestSolution, Integer>(new TestChanger[]{ new TestChanger(), new TestChanger() }, executor, 20, 3, 100);
+         TestSolution s = ls.search(new TestProblem(), 15, -1l);
+         assertEquals(11, s.value);
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testTabu() {
+      TabuSearchLS<TestProblem, TestSolution, Integer> ls = new TabuSearchLS<TestProblem, TestSolution, Integer>(new TestChanger(), 20, 5, 100);
+      ls.setAspiration(TabuSearchLS.Aspiration.None);
+      TabuSearchLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(100));
+      ls.iterate(state, 0, Long.MAX_VALUE, 1);
+      assertTrue(state.isTabu(state.current().value));
+      assertEquals(1, state.iterationCount());
+   }
+
+   @Test
+   public void testRepeatableChanges() {
+      final int       clones[] = new int[1];
+      TestProblem     problem  = new TestProblem() {
+            @Override
+            public TestSolution cloneSolution(TestSolution s) {
+               clones[0]++;
+               return super.cloneSolution(s);
+            }
+         };
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         TabuSearchLS<TestProblem, TestSolution, Integer> ls = new TabuSearchLS<TestProblem, TestSolution, Integer>(new RepeatableChanger[]{ new RepeatableChanger(), new RepeatableChanger() }, executor, 20, 3, 100);
+         TabuSearchLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(problem, new TestSolution(100));
+         for(int i = 0; i < 50; i++) {
+            ls.iterate(state, 0, Long.MAX_VALUE, 1);
+            // Every worker moved to the same solution
+            assertEquals(state.current().value, state.workers.get(1).solution.value);
+         }
+         assertEquals(11, state.solution().value);
+         // Only the workers and the new best solutions are copied, not the sampled candidates
+         assertTrue(clones[0] <= 2 + TestProblem.values.length);
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+}
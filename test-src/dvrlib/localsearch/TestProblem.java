@@ -0,0 +1,72 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2013
+ * TestProblem.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+/**
+ * Problem shared by the tests of the search algorithms: a single value is minimised, which changers replace by one of a fixed set of values.
+ * The optimal value is 11; random solutions start at 100.
+ */
+public class TestProblem extends AbstractProblem<TestProblem.TestSolution, Integer> {
+   public static class TestSolution extends AbstractSolution {
+      protected int value;
+
+      public TestSolution(int value) {
+         this.value = value;
+      }
+   }
+   /**
+    * Replaces the solution by one with a value drawn using the source of randomness of the search state, so seeded searches are reproducible.
+    */
+   public static class TestChanger extends SubstitutionChanger<TestProblem, TestSolution> {
+      @Override
+      public Change makeChange(SingularSearchState<TestProblem, TestSolution> state) throws CannotChangeException {
+         return setSolution(state, new TestSolution(values[state.random().nextInt(values.length)]));
+      }
+
+      @Override
+      public void reinitialise(TestProblem p) { }
+   }
+
+   public static final int values[] = new int[]{ 11, 22, 33, 44, 55, 66, 77, 88, 99, 111 };
+
+   public TestProblem() {
+      super(5);
+   }
+
+   @Override
+   public TestSolution cloneSolution(TestSolution s) {
+      return new TestSolution(s.value);
+   }
+
+   @Override
+   public LocalSearch.SearchDirection direction() {
+      return LocalSearch.SearchDirection.Minimisation;
+   }
+
+   @Override
+   public Integer evaluate(TestSolution s) {
+      return s.value;
+   }
+
+   @Override
+   public TestSolution randomSolution() {
+      return new TestSolution(100);
+   }
+}
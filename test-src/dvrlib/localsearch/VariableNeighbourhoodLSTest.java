@@ -0,0 +1,48 @@
+/*
+ * DvRlib - Local search
+ * Copyright (C) Duncan van Roermund, 2010-2013
+ * VariableNeighbourhoodLSTest.java
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package dvrlib.localsearch;
+
+import dvrlib.localsearch.TestProblem.TestChanger;
+import dvrlib.localsearch.TestProblem.TestSolution;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VariableNeighbourhoodLSTest {
+   @Test
+   public void testSearch() {
+      VariableNeighbourhoodLS<TestProblem, TestSolution, Integer> ls = new VariableNeighbourhoodLS<TestProblem, TestSolution, Integer>(new TestChanger[]{ new TestChanger(), new TestChanger() }, 1, 5, 100);
+      TestSolution s = ls.search(new TestProblem(), 15, -1l);
+      assertEquals(11, s.value);
+   }
+
+   @Test
+   public void testStatistics() {
+      VariableNeighbourhoodLS<TestProblem, TestSolution, Integer>             ls    = new VariableNeighbourhoodLS<TestProblem, TestSolution, Integer>(new TestChanger[]{ new TestChanger(), new TestChanger() }, 1, 0, 100);
+      VariableNeighbourhoodLS<TestProblem, TestSolution, Integer>.SearchState state = ls.newState(new TestProblem(), new TestSolution(11));
+      ls.iterate(state, 0, Long.MAX_VALUE, 3);
+      // No change improves the best value, so the search keeps escalating
+      assertEquals(2, state.tries(0));
+      assertEquals(1, state.tries(1));
+      assertEquals(0, state.improvements(0));
+      assertEquals(0d, state.successRate(1), 0d);
+      assertEquals(1, state.neighbourhood());
+      assertEquals(11, state.solution().value);
+   }
+}